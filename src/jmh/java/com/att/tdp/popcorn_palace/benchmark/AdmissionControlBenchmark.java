@@ -0,0 +1,100 @@
+package com.att.tdp.popcorn_palace.benchmark;
+
+import com.att.tdp.popcorn_palace.admission.AdmissionControl;
+import com.att.tdp.popcorn_palace.errors.AdmissionDeniedException;
+import com.att.tdp.popcorn_palace.model.Booking;
+import com.att.tdp.popcorn_palace.service.BookingService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.att.tdp.popcorn_palace.validation.BookingValidator.MAX_SEAT_NUMBER;
+
+// A flash sale: 32 clients sending booking requests for the same showtime, each as POST /bookings would handle it.
+// A client that gets a ticket keeps sending it until it is admitted. With admission on, requests beyond the
+// configured rate are answered from the waiting room; the booking rate that still reaches BookingService is
+// printed after every iteration.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(32)
+@Fork(1)
+public class AdmissionControlBenchmark
+{
+    @Param({"false", "true"})
+    public boolean admission;
+
+    private ConfigurableApplicationContext context;
+    private AdmissionControl admissionControl;
+    private BookingService bookingService;
+    private Long showtimeId;
+    private final AtomicLong reachedService = new AtomicLong();
+    private long iterationStart;
+
+    @Setup(Level.Trial)
+    public void populate()
+    {
+        context = BenchmarkApplication.start("popcorn-palace.booking.admission.enabled=" + admission,
+                "popcorn-palace.booking.admission.rate=200", "popcorn-palace.booking.admission.burst=200");
+        admissionControl = context.getBean(AdmissionControl.class);
+        bookingService = context.getBean(BookingService.class);
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+
+        List<Long> movieIds = SyntheticData.insertMovies(jdbc, 1);
+        showtimeId = SyntheticData.insertShowtimes(jdbc, movieIds, "Premiere Hall ", 1, 1, LocalDateTime.of(2030, 1, 1, 10, 0)).get(0);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetCount()
+    {
+        reachedService.set(0);
+        iterationStart = System.nanoTime();
+    }
+
+    @TearDown(Level.Iteration)
+    public void printDatabaseRate()
+    {
+        double seconds = (System.nanoTime() - iterationStart) / 1_000_000_000d;
+        System.out.printf("%n  bookings reaching BookingService: %.0f/s%n", reachedService.get() / seconds);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop()
+    {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Client
+    {
+        UUID ticket;
+    }
+
+    @Benchmark
+    public void book(Client client, Blackhole blackhole)
+    {
+        Booking booking = new Booking();
+        booking.setUserId(UUID.randomUUID());
+        booking.setSeatNumber(ThreadLocalRandom.current().nextInt(1, MAX_SEAT_NUMBER + 1));
+        try {
+            admissionControl.admit(showtimeId, client.ticket);
+            client.ticket = null;
+            reachedService.incrementAndGet();
+            blackhole.consume(bookingService.save(booking, showtimeId));
+        } catch (AdmissionDeniedException queued) {
+            client.ticket = queued.getStatus() == null ? null : queued.getStatus().ticket();
+        } catch (IllegalArgumentException seatTaken) {
+            blackhole.consume(seatTaken);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.att.tdp.popcorn_palace.benchmark;
+
+import com.att.tdp.popcorn_palace.PopcornPalaceApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+// Boots the application against the in-memory H2 database from the test configuration.
+// Properties are passed as command-line arguments so they take precedence over application.yaml.
+public final class BenchmarkApplication
+{
+    private BenchmarkApplication()
+    {
+    }
+
+    public static ConfigurableApplicationContext start(String... properties)
+    {
+        return new SpringApplicationBuilder(PopcornPalaceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(arguments(properties));
+    }
+
+    // Same, but with the embedded web server on a random port (see local.server.port)
+    public static ConfigurableApplicationContext startServer(String... properties)
+    {
+        return new SpringApplicationBuilder(PopcornPalaceApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .run(arguments(Stream.concat(Stream.of("server.port=0"), Arrays.stream(properties)).toArray(String[]::new)));
+    }
+
+    private static String[] arguments(String... properties)
+    {
+        return Stream.concat(Stream.of("spring.jpa.show-sql=false", "logging.level.root=WARN"), Arrays.stream(properties))
+                .map(property -> "--" + property)
+                .toArray(String[]::new);
+    }
+}
@@ -0,0 +1,81 @@
+package com.att.tdp.popcorn_palace.benchmark;
+
+import com.att.tdp.popcorn_palace.model.Booking;
+import com.att.tdp.popcorn_palace.model.Movie;
+import com.att.tdp.popcorn_palace.model.Showtime;
+import com.att.tdp.popcorn_palace.service.BookingService;
+import com.att.tdp.popcorn_palace.service.MovieService;
+import com.att.tdp.popcorn_palace.service.ShowtimeService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static com.att.tdp.popcorn_palace.validation.BookingValidator.MAX_SEAT_NUMBER;
+
+// Many threads racing for the seats of one showtime. Each iteration opens a fresh showtime,
+// so the measurement covers both successful claims and the flood of rejections once it sells out.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class BookingContentionBenchmark
+{
+    @Param({"true", "false"})
+    public boolean seatBitmap;
+
+    private ConfigurableApplicationContext context;
+    private BookingService bookingService;
+    private ShowtimeService showtimeService;
+    private Movie movie;
+    private LocalDateTime nextStart = LocalDateTime.of(2030, 1, 1, 10, 0);
+    private volatile Long showtimeId;
+
+    @Setup(Level.Trial)
+    public void startApplication()
+    {
+        context = BenchmarkApplication.start("popcorn-palace.booking.seat-bitmap.enabled=" + seatBitmap);
+        bookingService = context.getBean(BookingService.class);
+        showtimeService = context.getBean(ShowtimeService.class);
+        movie = context.getBean(MovieService.class).save(new Movie(null, "Contention " + UUID.randomUUID(), "Drama", 120, 7.0, 2024, null));
+    }
+
+    @Setup(Level.Iteration)
+    public void openShowtime()
+    {
+        Showtime showtime = new Showtime();
+        showtime.setMovie(movie);
+        showtime.setTheater("Benchmark Hall");
+        showtime.setStart_time(nextStart);
+        showtime.setEnd_time(nextStart.plusHours(2));
+        showtime.setPrice(40.0);
+        showtimeId = showtimeService.save(showtime).getId();
+        nextStart = nextStart.plusHours(3);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication()
+    {
+        context.close();
+    }
+
+    @Benchmark
+    public void book(Blackhole blackhole)
+    {
+        Booking booking = new Booking();
+        booking.setUserId(UUID.randomUUID());
+        booking.setSeatNumber(ThreadLocalRandom.current().nextInt(1, MAX_SEAT_NUMBER + 1));
+        try {
+            blackhole.consume(bookingService.save(booking, showtimeId));
+        } catch (IllegalArgumentException seatTaken) {
+            blackhole.consume(seatTaken);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.att.tdp.popcorn_palace.benchmark;
+
+import com.att.tdp.popcorn_palace.model.Booking;
+import com.att.tdp.popcorn_palace.service.BookingService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static com.att.tdp.popcorn_palace.validation.BookingValidator.MAX_SEAT_NUMBER;
+
+// Many threads booking seats spread over many showtimes, so most attempts are inserts rather than conflicts.
+// groupCommit=true queues the inserts and writes them in shared batches, one transaction per batch.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(32)
+@Fork(1)
+public class BookingGroupCommitBenchmark
+{
+    @Param({"false", "true"})
+    public boolean groupCommit;
+
+    private ConfigurableApplicationContext context;
+    private BookingService bookingService;
+    private List<Long> showtimeIds;
+
+    @Setup(Level.Trial)
+    public void populate()
+    {
+        context = BenchmarkApplication.start("popcorn-palace.booking.group-commit.enabled=" + groupCommit);
+        bookingService = context.getBean(BookingService.class);
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+
+        List<Long> movieIds = SyntheticData.insertMovies(jdbc, 100);
+        showtimeIds = SyntheticData.insertShowtimes(jdbc, movieIds, "Group Commit Hall ", 10, 200, LocalDateTime.of(2030, 1, 1, 10, 0));
+    }
+
+    @TearDown(Level.Trial)
+    public void stop()
+    {
+        context.close();
+    }
+
+    @Benchmark
+    public void save(Blackhole blackhole)
+    {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Booking booking = new Booking();
+        booking.setUserId(UUID.randomUUID());
+        booking.setSeatNumber(random.nextInt(1, MAX_SEAT_NUMBER + 1));
+        try {
+            blackhole.consume(bookingService.save(booking, showtimeIds.get(random.nextInt(showtimeIds.size()))));
+        } catch (IllegalArgumentException seatTaken) {
+            blackhole.consume(seatTaken);
+        }
+    }
+}
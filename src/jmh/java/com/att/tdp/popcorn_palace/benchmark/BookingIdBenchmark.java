@@ -0,0 +1,92 @@
+package com.att.tdp.popcorn_palace.benchmark;
+
+import com.att.tdp.popcorn_palace.model.id.UuidV7Generator;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Inserting `rows` bookings keyed by random (v4) against time-ordered (v7) UUIDs into an empty table shaped
+// like bookings, in JDBC batches. Random keys split pages all over the primary-key B-tree and leave them half
+// full; ordered keys only ever append to the last page. On PostgreSQL the index size is printed after each
+// iteration (in-memory H2 has no pages to measure): export SPRING_DATASOURCE_URL, SPRING_DATASOURCE_USERNAME
+// and SPRING_DATASOURCE_PASSWORD before running it.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class BookingIdBenchmark
+{
+    private static final String TABLE = "booking_id_benchmark";
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({"v4", "v7"})
+    public String keyType;
+
+    @Param({"1000000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbc;
+    private boolean postgres;
+
+    @Setup(Level.Trial)
+    public void startApplication()
+    {
+        context = BenchmarkApplication.start();
+        jdbc = context.getBean(JdbcTemplate.class);
+        postgres = jdbc.execute((Connection connection) -> connection.getMetaData().getDatabaseProductName().equalsIgnoreCase("PostgreSQL"));
+    }
+
+    @Setup(Level.Iteration)
+    public void createTable()
+    {
+        jdbc.execute("drop table if exists " + TABLE);
+        jdbc.execute("create table " + TABLE + " (id uuid primary key, showtime_id bigint not null, seat_number integer not null, user_id uuid not null)");
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportIndexSize()
+    {
+        if (postgres) {
+            Long bytes = jdbc.queryForObject("select pg_relation_size(cast(? as regclass))", Long.class, TABLE + "_pkey");
+            System.out.printf("%n%s keys: primary-key index %,d bytes%n", keyType, bytes);
+        }
+        jdbc.execute("drop table " + TABLE);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication()
+    {
+        context.close();
+    }
+
+    @Benchmark
+    public int insert()
+    {
+        boolean ordered = keyType.equals("v7");
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String sql = "insert into " + TABLE + " (id, showtime_id, seat_number, user_id) values (?, ?, ?, ?)";
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < rows; i++) {
+            UUID id = ordered ? UuidV7Generator.next() : UUID.randomUUID();
+            batch.add(new Object[]{id, random.nextLong(1, 10_000), random.nextInt(1, 101), UUID.randomUUID()});
+            if (batch.size() == BATCH_SIZE) {
+                jdbc.batchUpdate(sql, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbc.batchUpdate(sql, batch);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,196 @@
+package com.att.tdp.popcorn_palace.benchmark;
+
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.att.tdp.popcorn_palace.validation.BookingValidator.MAX_SEAT_NUMBER;
+
+// Closed-loop HTTP load test for POST /bookings, run once on platform threads and once on virtual threads.
+// Not a JMH benchmark: it needs a real Tomcat and many concurrent clients, so it has its own main.
+//
+//   mvn -Pbenchmarks test-compile exec:exec -Dbenchmark.main=com.att.tdp.popcorn_palace.benchmark.BookingLoadTest \
+//       -Djmh.args="concurrency=1000 seconds=20 pool=10"
+//
+// key=value arguments tune the run; --name=value arguments are passed to Spring, e.g. a PostgreSQL datasource.
+public class BookingLoadTest
+{
+    public static void main(String[] args) throws Exception
+    {
+        Map<String, String> options = new HashMap<>(Map.of(
+                "concurrency", "1000",
+                "warmup", "5",
+                "seconds", "20",
+                "showtimes", "2000",
+                "pool", "10"
+        ));
+        List<String> springProperties = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                springProperties.add(arg.substring(2));
+            } else {
+                String[] option = arg.split("=", 2);
+                options.put(option[0], option[1]);
+            }
+        }
+
+        List<Result> results = new ArrayList<>();
+        for (boolean virtual : new boolean[]{false, true}) {
+            results.add(run(virtual, options, springProperties));
+        }
+
+        System.out.printf("%nPOST /bookings, %s concurrent clients, %s connections, %ss measured%n",
+                options.get("concurrency"), options.get("pool"), options.get("seconds"));
+        System.out.printf("%-10s %10s %10s %10s %10s %10s %8s%n", "threads", "req/s", "p50 ms", "p99 ms", "max ms", "booked", "errors");
+        for (Result result : results) {
+            System.out.printf("%-10s %10.0f %10.2f %10.2f %10.2f %10d %8d%n", result.mode, result.requestsPerSecond(),
+                    result.percentileMillis(50), result.percentileMillis(99), result.percentileMillis(100), result.booked, result.errors);
+        }
+    }
+
+    private static Result run(boolean virtual, Map<String, String> options, List<String> springProperties) throws Exception
+    {
+        String mode = virtual ? "virtual" : "platform";
+        List<String> properties = new ArrayList<>(List.of(
+                "spring.threads.virtual.enabled=" + virtual,
+                "spring.datasource.url=jdbc:h2:mem:load-" + mode + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                "spring.datasource.hikari.maximum-pool-size=" + options.get("pool")
+        ));
+        properties.addAll(springProperties);
+
+        try (ConfigurableApplicationContext context = BenchmarkApplication.startServer(properties.toArray(String[]::new))) {
+            JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+            List<Long> movieIds = SyntheticData.insertMovies(jdbc, 100);
+            List<Long> showtimeIds = SyntheticData.insertShowtimes(jdbc, movieIds, "Load-" + UUID.randomUUID() + "-", 100,
+                    Integer.parseInt(options.get("showtimes")) / 100, LocalDateTime.of(2030, 1, 1, 10, 0));
+
+            URI uri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/bookings");
+            int concurrency = Integer.parseInt(options.get("concurrency"));
+            long warmupNanos = Duration.ofSeconds(Long.parseLong(options.get("warmup"))).toNanos();
+            long measureNanos = Duration.ofSeconds(Long.parseLong(options.get("seconds"))).toNanos();
+
+            System.out.printf("%s threads: %d clients, warming up...%n", mode, concurrency);
+            try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+                 HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(clients).build()) {
+                long measureFrom = System.nanoTime() + warmupNanos;
+                long measureUntil = measureFrom + measureNanos;
+
+                List<Future<Client>> futures = new ArrayList<>(concurrency);
+                for (int i = 0; i < concurrency; i++) {
+                    futures.add(clients.submit(() -> new Client().run(http, uri, showtimeIds, measureFrom, measureUntil)));
+                }
+                Result result = new Result(mode, measureNanos);
+                for (Future<Client> future : futures) {
+                    result.add(future.get());
+                }
+                Arrays.sort(result.latencies);
+                return result;
+            }
+        }
+    }
+
+    // One simulated user booking random seats back to back
+    private static class Client
+    {
+        private long[] latencies = new long[1024];
+        private int count;
+        private long booked;
+        private long errors;
+
+        Client run(HttpClient http, URI uri, List<Long> showtimeIds, long measureFrom, long measureUntil)
+        {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long now;
+            while ((now = System.nanoTime()) < measureUntil) {
+                String body = "{\"showtime\":{\"id\":" + showtimeIds.get(random.nextInt(showtimeIds.size())) + "},"
+                        + "\"seatNumber\":" + random.nextInt(1, MAX_SEAT_NUMBER + 1) + ","
+                        + "\"userId\":\"" + UUID.randomUUID() + "\"}";
+                HttpRequest request = HttpRequest.newBuilder(uri)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build();
+
+                int status;
+                try {
+                    status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                } catch (Exception e) {
+                    status = -1;
+                }
+                long end = System.nanoTime();
+                if (now < measureFrom) {
+                    continue;
+                }
+                record(end - now);
+                if (status == 200) {
+                    booked++;
+                } else if (status != 400) {
+                    // 400 is a seat that was already booked, which is a normal answer
+                    errors++;
+                }
+            }
+            return this;
+        }
+
+        private void record(long nanos)
+        {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+        }
+    }
+
+    private static class Result
+    {
+        private final String mode;
+        private final long measureNanos;
+        private long[] latencies = new long[0];
+        private long booked;
+        private long errors;
+
+        Result(String mode, long measureNanos)
+        {
+            this.mode = mode;
+            this.measureNanos = measureNanos;
+        }
+
+        void add(Client client)
+        {
+            int offset = latencies.length;
+            latencies = Arrays.copyOf(latencies, offset + client.count);
+            System.arraycopy(client.latencies, 0, latencies, offset, client.count);
+            booked += client.booked;
+            errors += client.errors;
+        }
+
+        double requestsPerSecond()
+        {
+            return latencies.length / (measureNanos / 1e9);
+        }
+
+        double percentileMillis(double percentile)
+        {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100 * latencies.length) - 1;
+            return latencies[Math.max(index, 0)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.att.tdp.popcorn_palace.benchmark;
+
+import com.att.tdp.popcorn_palace.model.Booking;
+import com.att.tdp.popcorn_palace.service.BookingService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static com.att.tdp.popcorn_palace.validation.BookingValidator.MAX_SEAT_NUMBER;
+
+// Single-threaded BookingService.save over a pre-populated bookings table.
+// Half of every showtime is sold, so roughly half of the attempts are rejections.
+// journal=true acknowledges bookings from the write-behind journal (fsynced) instead of the database.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingSaveBenchmark
+{
+    @Param({"1000"})
+    public int showtimes;
+
+    @Param({"false", "true"})
+    public boolean journal;
+
+    private ConfigurableApplicationContext context;
+    private BookingService bookingService;
+    private List<Long> showtimeIds;
+
+    @Setup(Level.Trial)
+    public void populate()
+    {
+        context = BenchmarkApplication.start("popcorn-palace.booking.journal.enabled=" + journal,
+                "popcorn-palace.booking.journal.directory=" + createJournalDirectory());
+        bookingService = context.getBean(BookingService.class);
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+
+        List<Long> movieIds = SyntheticData.insertMovies(jdbc, 100);
+        showtimeIds = SyntheticData.insertShowtimes(jdbc, movieIds, "Save Hall ", 10, showtimes / 10, LocalDateTime.of(2030, 1, 1, 10, 0));
+        SyntheticData.insertBookings(jdbc, showtimeIds, MAX_SEAT_NUMBER / 2);
+    }
+
+    private static Path createJournalDirectory()
+    {
+        try {
+            return Files.createTempDirectory("booking-journal");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop()
+    {
+        context.close();
+    }
+
+    @Benchmark
+    public void save(Blackhole blackhole)
+    {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Booking booking = new Booking();
+        booking.setUserId(UUID.randomUUID());
+        booking.setSeatNumber(random.nextInt(1, MAX_SEAT_NUMBER + 1));
+        try {
+            blackhole.consume(bookingService.save(booking, showtimeIds.get(random.nextInt(showtimeIds.size()))));
+        } catch (IllegalArgumentException seatTaken) {
+            blackhole.consume(seatTaken);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.att.tdp.popcorn_palace.benchmark;
+
+import com.att.tdp.popcorn_palace.repository.MovieRepository;
+import com.att.tdp.popcorn_palace.service.MovieService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Deleting one movie with `showtimes` showtimes of `seatsPerShowtime` bookings each. "bulk" is
+// MovieService.deleteByTitle (three set-based deletes); "cascade" is the old path, removing the loaded movie
+// and letting CascadeType.ALL load and delete every showtime and booking one row at a time.
+// Each invocation deletes a freshly inserted movie, so only the delete is timed.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CascadeDeleteBenchmark
+{
+    private static final int THEATERS = 10;
+
+    @Param({"bulk", "cascade"})
+    public String path;
+
+    @Param({"500"})
+    public int showtimes;
+
+    @Param({"100"})
+    public int seatsPerShowtime;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbc;
+    private MovieService movieService;
+    private MovieRepository movieRepository;
+    private TransactionTemplate transaction;
+    private String title;
+
+    @Setup(Level.Trial)
+    public void startApplication()
+    {
+        context = BenchmarkApplication.start();
+        jdbc = context.getBean(JdbcTemplate.class);
+        movieService = context.getBean(MovieService.class);
+        movieRepository = context.getBean(MovieRepository.class);
+        transaction = context.getBean(TransactionTemplate.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void insertMovie()
+    {
+        List<Long> movieIds = SyntheticData.insertMovies(jdbc, 1);
+        List<Long> showtimeIds = SyntheticData.insertShowtimes(jdbc, movieIds, "Delete-" + UUID.randomUUID() + "-", THEATERS,
+                showtimes / THEATERS, LocalDateTime.of(2030, 1, 1, 10, 0));
+        SyntheticData.insertBookings(jdbc, showtimeIds, seatsPerShowtime);
+        title = jdbc.queryForObject("select title from movies where id = ?", String.class, movieIds.get(0));
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication()
+    {
+        context.close();
+    }
+
+    @Benchmark
+    public void delete()
+    {
+        if (path.equals("bulk")) {
+            movieService.deleteByTitle(title);
+        } else {
+            transaction.executeWithoutResult(status -> movieRepository.delete(movieRepository.findByTitle(title).orElseThrow()));
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.att.tdp.popcorn_palace.benchmark;
+
+import com.att.tdp.popcorn_palace.validation.MovieValidator;
+import com.att.tdp.popcorn_palace.validation.ShowtimeValidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CleanStringBenchmark
+{
+    @Param({"Inception", "  The   Lord of the  Rings:   The Return of the King  "})
+    public String value;
+
+    private final MovieValidator movieValidator = new MovieValidator();
+    private final ShowtimeValidator showtimeValidator = new ShowtimeValidator();
+
+    @Benchmark
+    public String movieValidator()
+    {
+        return movieValidator.cleanString(value);
+    }
+
+    @Benchmark
+    public String showtimeValidator()
+    {
+        return showtimeValidator.cleanString(value);
+    }
+}
@@ -0,0 +1,93 @@
+package com.att.tdp.popcorn_palace.benchmark;
+
+import com.att.tdp.popcorn_palace.dto.ImportReport;
+import com.att.tdp.popcorn_palace.model.Movie;
+import com.att.tdp.popcorn_palace.service.MovieImportService;
+import com.att.tdp.popcorn_palace.service.MovieService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Loading a catalog of `titles` new movies: POST /movies/import as CSV and as NDJSON, against the same
+// titles saved one at a time through MovieService.save (what a client looping over POST /movies does).
+// Each invocation uses fresh titles so every row is a real insert. Rows/sec = titles / score.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MovieImportBenchmark
+{
+    @Param({"100000"})
+    public int titles;
+
+    @Param({"1000"})
+    public int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private MovieImportService movieImportService;
+    private MovieService movieService;
+    private List<Movie> movies;
+    private String prefix;
+
+    @Setup(Level.Trial)
+    public void startApplication()
+    {
+        context = BenchmarkApplication.start("popcorn-palace.movie-import.batch-size=" + batchSize);
+        movieImportService = context.getBean(MovieImportService.class);
+        movieService = context.getBean(MovieService.class);
+        movies = SyntheticData.movies(titles);
+    }
+
+    @Setup(Level.Invocation)
+    public void freshTitles()
+    {
+        prefix = UUID.randomUUID() + " ";
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication()
+    {
+        context.close();
+    }
+
+    @Benchmark
+    public ImportReport importCsv()
+    {
+        StringBuilder csv = new StringBuilder("title,genre,duration,rating,releaseYear\n");
+        for (Movie movie : movies) {
+            csv.append(prefix).append(movie.getTitle()).append(',').append(movie.getGenre()).append(',')
+                    .append(movie.getDuration()).append(',').append(movie.getRating()).append(',').append(movie.getReleaseYear()).append('\n');
+        }
+        return movieImportService.importCsv(new StringReader(csv.toString()));
+    }
+
+    @Benchmark
+    public ImportReport importNdjson()
+    {
+        StringBuilder ndjson = new StringBuilder();
+        for (Movie movie : movies) {
+            ndjson.append("{\"title\":\"").append(prefix).append(movie.getTitle()).append("\",\"genre\":\"").append(movie.getGenre())
+                    .append("\",\"duration\":").append(movie.getDuration()).append(",\"rating\":").append(movie.getRating())
+                    .append(",\"releaseYear\":").append(movie.getReleaseYear()).append("}\n");
+        }
+        return movieImportService.importNdjson(new StringReader(ndjson.toString()));
+    }
+
+    // The baseline is slow at 100k titles; lower it with -p titles=10000 for a quick comparison
+    @Benchmark
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 2)
+    public int saveOneByOne()
+    {
+        for (Movie movie : movies) {
+            movieService.save(new Movie(null, prefix + movie.getTitle(), movie.getGenre(), movie.getDuration(), movie.getRating(), movie.getReleaseYear(), null));
+        }
+        return movies.size();
+    }
+}
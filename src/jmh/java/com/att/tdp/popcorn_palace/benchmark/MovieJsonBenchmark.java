@@ -0,0 +1,39 @@
+package com.att.tdp.popcorn_palace.benchmark;
+
+import com.att.tdp.popcorn_palace.model.Movie;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Serialization of the GET /movies/all payload with the same Jackson setup Spring MVC uses
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MovieJsonBenchmark
+{
+    @Param({"100", "10000"})
+    public int movies;
+
+    private ObjectMapper objectMapper;
+    private List<Movie> catalog;
+
+    @Setup
+    public void setUp()
+    {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        catalog = SyntheticData.movies(movies);
+    }
+
+    @Benchmark
+    public byte[] serializeMovies() throws JsonProcessingException
+    {
+        return objectMapper.writeValueAsBytes(catalog);
+    }
+}
@@ -0,0 +1,103 @@
+package com.att.tdp.popcorn_palace.benchmark;
+
+import com.att.tdp.popcorn_palace.model.Movie;
+import com.att.tdp.popcorn_palace.model.Showtime;
+import com.att.tdp.popcorn_palace.schedule.ShowtimeOverlapIndex;
+import com.att.tdp.popcorn_palace.service.ShowtimeService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Overlap detection for a theater with a long schedule: the overlap query for a window that overlaps and for one
+// that fits in a gap, and a ShowtimeService.save that is rejected because it overlaps (so nothing is written).
+// The query only reads showtimes starting at most ShowtimeValidator.MAX_DURATION before the new start, so none of the
+// scores should grow with showtimesPerTheater.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OverlapCheckBenchmark
+{
+    private static final String THEATER = "Overlap Hall 0";
+    private static final LocalDateTime FIRST_START = LocalDateTime.of(2030, 1, 1, 10, 0);
+
+    @Param({"1000", "10000"})
+    public int showtimesPerTheater;
+
+    private ConfigurableApplicationContext context;
+    private ShowtimeOverlapIndex overlapIndex;
+    private ShowtimeService showtimeService;
+    private Long movieId;
+
+    @Setup(Level.Trial)
+    public void populate()
+    {
+        context = BenchmarkApplication.start();
+        overlapIndex = context.getBean(ShowtimeOverlapIndex.class);
+        showtimeService = context.getBean(ShowtimeService.class);
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+
+        List<Long> movieIds = SyntheticData.insertMovies(jdbc, 10);
+        movieId = movieIds.get(0);
+        SyntheticData.insertShowtimes(jdbc, movieIds, "Overlap Hall ", 1, showtimesPerTheater, FIRST_START);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop()
+    {
+        context.close();
+    }
+
+    // A window starting one hour into a random existing showtime
+    private LocalDateTime randomStart()
+    {
+        return FIRST_START.plusHours(3L * ThreadLocalRandom.current().nextInt(showtimesPerTheater) + 1);
+    }
+
+    // Showtimes run two hours every three hours: the hour after a random one is free
+    private LocalDateTime randomGap()
+    {
+        return FIRST_START.plusHours(3L * ThreadLocalRandom.current().nextInt(showtimesPerTheater) + 2);
+    }
+
+    @Benchmark
+    public boolean indexProbe()
+    {
+        LocalDateTime start = randomStart();
+        return overlapIndex.overlaps(THEATER, start, start.plusHours(2), null);
+    }
+
+    @Benchmark
+    public boolean indexProbeMiss()
+    {
+        LocalDateTime start = randomGap();
+        return overlapIndex.overlaps(THEATER, start, start.plusHours(1), null);
+    }
+
+    @Benchmark
+    public void rejectOverlappingSave(Blackhole blackhole)
+    {
+        LocalDateTime start = randomStart();
+        Movie movie = new Movie();
+        movie.setId(movieId);
+        Showtime showtime = new Showtime();
+        showtime.setMovie(movie);
+        showtime.setTheater(THEATER);
+        showtime.setStart_time(start);
+        showtime.setEnd_time(start.plusHours(2));
+        showtime.setPrice(40.0);
+        try {
+            blackhole.consume(showtimeService.save(showtime));
+        } catch (IllegalArgumentException overlap) {
+            blackhole.consume(overlap);
+        }
+    }
+}
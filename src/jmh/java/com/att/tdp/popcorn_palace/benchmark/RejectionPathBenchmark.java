@@ -0,0 +1,100 @@
+package com.att.tdp.popcorn_palace.benchmark;
+
+import com.att.tdp.popcorn_palace.dto.Outcome;
+import com.att.tdp.popcorn_palace.errors.SeatAlreadyBookedException;
+import com.att.tdp.popcorn_palace.model.Booking;
+import com.att.tdp.popcorn_palace.model.Movie;
+import com.att.tdp.popcorn_palace.model.Showtime;
+import com.att.tdp.popcorn_palace.service.BookingService;
+import com.att.tdp.popcorn_palace.service.MovieService;
+import com.att.tdp.popcorn_palace.service.ShowtimeService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Rejecting a booking for a seat that is already taken, as it happens over and over once a showtime sells out.
+// The seat bitmap answers without touching the database, so what is left is the cost of reporting the failure:
+//   outcome              BookingService.tryBook returns an Outcome.Failure (what the controller does)
+//   stacklessException   BookingService.save throws the stackless SeatAlreadyBookedException
+//   stackTraceException  the failure thrown as a plain IllegalArgumentException that fills in its stack trace
+// stackDepth adds frames below the call, standing in for the servlet, filter and proxy frames of a real request.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RejectionPathBenchmark
+{
+    private static final int TAKEN_SEAT = 1;
+
+    @Param({"0", "150"})
+    public int stackDepth;
+
+    private ConfigurableApplicationContext context;
+    private BookingService bookingService;
+    private Long showtimeId;
+
+    @Setup(Level.Trial)
+    public void sellSeat()
+    {
+        context = BenchmarkApplication.start();
+        bookingService = context.getBean(BookingService.class);
+        Movie movie = context.getBean(MovieService.class).save(new Movie(null, "Rejection " + UUID.randomUUID(), "Drama", 120, 7.0, 2024, null));
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+        showtimeId = context.getBean(ShowtimeService.class).save(new Showtime(null, movie, "Rejection Hall", start, start.plusHours(2), 40.0, null)).getId();
+        bookingService.save(booking(), showtimeId);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop()
+    {
+        context.close();
+    }
+
+    @Benchmark
+    public Object outcome()
+    {
+        return atDepth(stackDepth, () -> bookingService.tryBook(booking(), showtimeId));
+    }
+
+    @Benchmark
+    public Object stacklessException()
+    {
+        try {
+            return atDepth(stackDepth, () -> bookingService.save(booking(), showtimeId));
+        } catch (SeatAlreadyBookedException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object stackTraceException()
+    {
+        try {
+            return atDepth(stackDepth, () -> {
+                Outcome<Booking> outcome = bookingService.tryBook(booking(), showtimeId);
+                if (outcome instanceof Outcome.Failure<Booking> failure) {
+                    throw new IllegalArgumentException(failure.message());
+                }
+                return outcome;
+            });
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+    private static Booking booking()
+    {
+        return new Booking(null, null, TAKEN_SEAT, UUID.randomUUID());
+    }
+
+    private static <T> T atDepth(int depth, Supplier<T> call)
+    {
+        return depth == 0 ? call.get() : atDepth(depth - 1, call);
+    }
+}
@@ -0,0 +1,40 @@
+package com.att.tdp.popcorn_palace.benchmark;
+
+import com.att.tdp.popcorn_palace.dto.ShowtimeDTO;
+import com.att.tdp.popcorn_palace.model.Movie;
+import com.att.tdp.popcorn_palace.model.Showtime;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShowtimeDtoBenchmark
+{
+    private Showtime showtime;
+
+    @Setup
+    public void setUp()
+    {
+        Movie movie = new Movie();
+        movie.setId(7L);
+        showtime = new Showtime();
+        showtime.setId(42L);
+        showtime.setMovie(movie);
+        showtime.setTheater("Main Hall");
+        showtime.setStart_time(LocalDateTime.of(2030, 1, 1, 18, 0));
+        showtime.setEnd_time(LocalDateTime.of(2030, 1, 1, 20, 0));
+        showtime.setPrice(50.0);
+    }
+
+    @Benchmark
+    public ShowtimeDTO convertToDTO()
+    {
+        return ShowtimeDTO.convertToDTO(showtime);
+    }
+}
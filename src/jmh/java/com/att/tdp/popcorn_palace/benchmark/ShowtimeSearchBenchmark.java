@@ -0,0 +1,114 @@
+package com.att.tdp.popcorn_palace.benchmark;
+
+import com.att.tdp.popcorn_palace.dto.CursorPage;
+import com.att.tdp.popcorn_palace.dto.ShowtimeDTO;
+import com.att.tdp.popcorn_palace.dto.ShowtimeFilter;
+import com.att.tdp.popcorn_palace.service.ShowtimeService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// GET /showtimes over `theaters` x `perTheater` showtimes (2M by default): a first page by theater, by movie within
+// a week, and page `deepPage` of a theater's listing, reached with the keyset cursor and, for comparison, with OFFSET
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ShowtimeSearchBenchmark
+{
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 10, 0);
+    private static final int PAGE_SIZE = 50;
+
+    @Param({"1000"})
+    public int theaters;
+
+    @Param({"2000"})
+    public int perTheater;
+
+    @Param({"20"})
+    public int deepPage;
+
+    private ConfigurableApplicationContext context;
+    private ShowtimeService showtimeService;
+    private JdbcTemplate jdbc;
+    private List<Long> movieIds;
+    private final List<String> deepCursors = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void populate()
+    {
+        context = BenchmarkApplication.start();
+        showtimeService = context.getBean(ShowtimeService.class);
+        jdbc = context.getBean(JdbcTemplate.class);
+
+        movieIds = SyntheticData.insertMovies(jdbc, 5_000);
+        // Ten theaters at a time keeps the generated rows small
+        for (int t = 0; t < theaters; t += 10) {
+            SyntheticData.insertShowtimes(jdbc, movieIds, theater(t) + "-", 10, perTheater, START);
+        }
+        for (int t = 0; t < 100; t++) {
+            String cursor = null;
+            for (int page = 0; page < deepPage; page++) {
+                cursor = showtimeService.search(new ShowtimeFilter(null, theaterName(t), null, null), cursor, PAGE_SIZE).nextCursor();
+            }
+            deepCursors.add(cursor);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop()
+    {
+        context.close();
+    }
+
+    @Benchmark
+    public CursorPage<ShowtimeDTO> firstPageByTheater()
+    {
+        return showtimeService.search(new ShowtimeFilter(null, theaterName(ThreadLocalRandom.current().nextInt(theaters)), null, null), null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public CursorPage<ShowtimeDTO> firstPageByMovieInWeek()
+    {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDateTime from = START.plusDays(random.nextInt(perTheater * 3 / 24 - 7));
+        return showtimeService.search(new ShowtimeFilter(movieIds.get(random.nextInt(movieIds.size())), null, from, from.plusDays(7)), null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public CursorPage<ShowtimeDTO> deepPageByCursor()
+    {
+        int t = ThreadLocalRandom.current().nextInt(deepCursors.size());
+        return showtimeService.search(new ShowtimeFilter(null, theaterName(t), null, null), deepCursors.get(t), PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<ShowtimeDTO> deepPageByOffset()
+    {
+        String theater = theaterName(ThreadLocalRandom.current().nextInt(deepCursors.size()));
+        return jdbc.query("select s.id, s.movie_id, t.name, s.start_time, s.end_time, s.price from showtimes s join theaters t on t.id = s.theater_id "
+                        + "where t.name = ? order by s.theater_id, s.start_time, s.id offset ? rows fetch next ? rows only",
+                (rs, row) -> new ShowtimeDTO(rs.getLong(1), rs.getLong(2), rs.getString(3), rs.getTimestamp(4).toLocalDateTime(),
+                        rs.getTimestamp(5).toLocalDateTime(), rs.getDouble(6)),
+                theater, deepPage * PAGE_SIZE, PAGE_SIZE);
+    }
+
+    // SyntheticData names theaters prefix + index within the batch
+    private static String theaterName(int t)
+    {
+        return theater(t - t % 10) + "-" + t % 10;
+    }
+
+    private static String theater(int batchStart)
+    {
+        return "Search Hall " + batchStart;
+    }
+}
@@ -0,0 +1,131 @@
+package com.att.tdp.popcorn_palace.benchmark;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Time from launching a fresh JVM to the first successful request, for the build of mvn -Pprod package.
+// Not a JMH benchmark: every sample is a new process, so it has its own main and starts the application as a child.
+//
+//   mvn -Pprod package -DskipTests
+//   mvn -Pbenchmarks test-compile exec:exec -Dbenchmark.main=com.att.tdp.popcorn_palace.benchmark.StartupBenchmark \
+//       -Djmh.args="runs=10 path=/movies/all"
+//
+// Variants: default (no profile: schema update and init scripts), prod, prod with AOT, and prod with AOT and the
+// CDS archive; pick some with variants=prod,aot,aot-cds. They take turns, so drift on the machine hits all of them.
+// key=value arguments tune the run; --name=value arguments are passed to the application, e.g. its datasource.
+public class StartupBenchmark
+{
+    private static final Map<String, List<String>> VARIANTS = new LinkedHashMap<>();
+
+    static {
+        VARIANTS.put("default", List.of());
+        VARIANTS.put("prod", List.of("-Dspring.profiles.active=prod"));
+        VARIANTS.put("aot", List.of("-Dspring.profiles.active=prod", "-Dspring.aot.enabled=true"));
+        VARIANTS.put("aot-cds", List.of("-Dspring.profiles.active=prod", "-Dspring.aot.enabled=true", "-XX:SharedArchiveFile=application.jsa"));
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        Map<String, String> options = new HashMap<>(Map.of(
+                "runs", "5",
+                "path", "/movies/all",
+                "variants", String.join(",", VARIANTS.keySet()),
+                "directory", "target/application",
+                "jar", "popcorn-palace-0.0.1-SNAPSHOT.jar",
+                "timeout", "120"
+        ));
+        List<String> applicationArguments = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                applicationArguments.add(arg);
+            } else {
+                String[] option = arg.split("=", 2);
+                options.put(option[0], option[1]);
+            }
+        }
+
+        Path directory = Path.of(options.get("directory"));
+        if (!Files.exists(directory.resolve(options.get("jar")))) {
+            throw new IllegalStateException("No application in " + directory.toAbsolutePath() + ", build it with mvn -Pprod package");
+        }
+        List<String> variants = List.of(options.get("variants").split(","));
+        int runs = Integer.parseInt(options.get("runs"));
+        Map<String, long[]> results = new LinkedHashMap<>();
+        variants.forEach(variant -> results.put(variant, new long[runs]));
+
+        try (HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(100)).build()) {
+            for (int run = 0; run < runs; run++) {
+                for (String variant : variants) {
+                    long millis = timeToFirstRequest(http, directory, variant, options, applicationArguments);
+                    results.get(variant)[run] = millis;
+                    System.out.printf("run %d, %-8s %6d ms%n", run + 1, variant, millis);
+                }
+            }
+        }
+
+        System.out.printf("%nTime to first successful GET %s, %d runs%n", options.get("path"), runs);
+        System.out.printf("%-10s %10s %10s %10s%n", "variant", "min ms", "median ms", "max ms");
+        results.forEach((variant, millis) -> {
+            Arrays.sort(millis);
+            System.out.printf("%-10s %10d %10d %10d%n", variant, millis[0], millis[millis.length / 2], millis[millis.length - 1]);
+        });
+    }
+
+    private static long timeToFirstRequest(HttpClient http, Path directory, String variant, Map<String, String> options,
+                                           List<String> applicationArguments) throws Exception
+    {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(VARIANTS.get(variant));
+        command.addAll(List.of("-jar", options.get("jar"), "--server.port=" + port));
+        command.addAll(applicationArguments);
+
+        Path log = Files.createTempFile("startup-" + variant + "-", ".log");
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + options.get("path")))
+                .timeout(Duration.ofSeconds(5))
+                .build();
+        long deadline = System.nanoTime() + Duration.ofSeconds(Long.parseLong(options.get("timeout"))).toNanos();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).directory(directory.toFile()).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+        try {
+            while (System.nanoTime() < deadline && process.isAlive()) {
+                try {
+                    if (http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() / 100 == 2) {
+                        long millis = (System.nanoTime() - start) / 1_000_000;
+                        Files.delete(log);
+                        return millis;
+                    }
+                } catch (IOException notListeningYet) {
+                    // Keep polling until the server is up
+                }
+                Thread.sleep(5);
+            }
+            throw new IllegalStateException("The " + variant + " variant never answered GET " + options.get("path") + " successfully, see " + log);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static int freePort() throws IOException
+    {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
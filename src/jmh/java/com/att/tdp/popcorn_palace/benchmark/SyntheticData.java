@@ -0,0 +1,104 @@
+package com.att.tdp.popcorn_palace.benchmark;
+
+import com.att.tdp.popcorn_palace.model.Movie;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Bulk-loads synthetic rows straight through JDBC so large datasets are quick to set up
+public final class SyntheticData
+{
+    private static final String[] GENRES = {"Action", "Comedy", "Drama", "Sci-Fi", "Horror", "Animation"};
+    private static final int BATCH_SIZE = 1_000;
+
+    private SyntheticData()
+    {
+    }
+
+    public static List<Movie> movies(int count)
+    {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Movie> movies = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            movies.add(new Movie((long) i + 1, "Synthetic Movie " + i, GENRES[i % GENRES.length],
+                    random.nextInt(80, 200), Math.round(random.nextDouble(0, 10) * 10) / 10.0, random.nextInt(1950, 2026), null));
+        }
+        return movies;
+    }
+
+    // Inserts the movies and returns their generated ids
+    public static List<Long> insertMovies(JdbcTemplate jdbc, int count)
+    {
+        String prefix = "Synthetic " + UUID.randomUUID() + " ";
+        Map<String, Integer> genreIds = dictionaryIds(jdbc, "genres", List.of(GENRES));
+        List<Object[]> rows = new ArrayList<>(count);
+        for (Movie movie : movies(count)) {
+            rows.add(new Object[]{prefix + movie.getTitle(), genreIds.get(movie.getGenre()), movie.getDuration(), movie.getRating(), movie.getReleaseYear()});
+        }
+        batch(jdbc, "insert into movies (title, genre_id, duration, rating, release_year) values (?, ?, ?, ?, ?)", rows);
+        return jdbc.queryForList("select id from movies where title like ? order by id", Long.class, prefix + "%");
+    }
+
+    // Back-to-back two-hour showtimes per theater, starting at the given time; returns their ids
+    public static List<Long> insertShowtimes(JdbcTemplate jdbc, List<Long> movieIds, String theaterPrefix, int theaters, int perTheater, LocalDateTime start)
+    {
+        List<String> names = new ArrayList<>(theaters);
+        for (int t = 0; t < theaters; t++) {
+            names.add(theaterPrefix + t);
+        }
+        Map<String, Integer> theaterIds = dictionaryIds(jdbc, "theaters", names);
+        List<Object[]> rows = new ArrayList<>(theaters * perTheater);
+        for (int t = 0; t < theaters; t++) {
+            LocalDateTime slot = start;
+            for (int i = 0; i < perTheater; i++) {
+                Long movieId = movieIds.get((t * perTheater + i) % movieIds.size());
+                rows.add(new Object[]{movieId, theaterIds.get(names.get(t)), Timestamp.valueOf(slot), Timestamp.valueOf(slot.plusHours(2)), 40.0});
+                slot = slot.plusHours(3);
+            }
+        }
+        batch(jdbc, "insert into showtimes (movie_id, theater_id, start_time, end_time, price) values (?, ?, ?, ?, ?)", rows);
+        return jdbc.queryForList("select s.id from showtimes s join theaters t on t.id = s.theater_id where t.name like ? order by s.id",
+                Long.class, theaterPrefix + "%");
+    }
+
+    // Books the first seatsPerShowtime seats of every showtime
+    public static void insertBookings(JdbcTemplate jdbc, List<Long> showtimeIds, int seatsPerShowtime)
+    {
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (Long showtimeId : showtimeIds) {
+            for (int seat = 1; seat <= seatsPerShowtime; seat++) {
+                rows.add(new Object[]{UUID.randomUUID(), showtimeId, seat, UUID.randomUUID()});
+                if (rows.size() == BATCH_SIZE) {
+                    batch(jdbc, "insert into bookings (id, showtime_id, seat_number, user_id) values (?, ?, ?, ?)", rows);
+                    rows.clear();
+                }
+            }
+        }
+        batch(jdbc, "insert into bookings (id, showtime_id, seat_number, user_id) values (?, ?, ?, ?)", rows);
+    }
+
+    // Adds the names to a dictionary table (theaters, genres) if missing and returns their ids
+    private static Map<String, Integer> dictionaryIds(JdbcTemplate jdbc, String table, List<String> names)
+    {
+        batch(jdbc, "insert into " + table + " (name) values (?) on conflict do nothing", names.stream().map(name -> new Object[]{name}).toList());
+        Map<String, Integer> ids = new HashMap<>();
+        for (String name : names) {
+            ids.put(name, jdbc.queryForObject("select id from " + table + " where name = ?", Integer.class, name));
+        }
+        return ids;
+    }
+
+    private static void batch(JdbcTemplate jdbc, String sql, List<Object[]> rows)
+    {
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbc.batchUpdate(sql, rows.subList(from, Math.min(from + BATCH_SIZE, rows.size())));
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.att.tdp.popcorn_palace.benchmark;
+
+import com.att.tdp.popcorn_palace.model.id.UuidV7Generator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Cost of producing one booking ID: UUID.randomUUID (v4, SecureRandom) against UuidV7Generator.next.
+// Run with -prof gc to compare allocation per ID and with -t 8 to see the shared counter under contention.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UuidGenerationBenchmark
+{
+    @Benchmark
+    public UUID v4()
+    {
+        return UUID.randomUUID();
+    }
+
+    @Benchmark
+    public UUID v7()
+    {
+        return UuidV7Generator.next();
+    }
+}
@@ -0,0 +1,250 @@
+package com.att.tdp.popcorn_palace.admission;
+
+import com.att.tdp.popcorn_palace.dto.AdmissionStatus;
+import com.att.tdp.popcorn_palace.errors.AdmissionDeniedException;
+import com.att.tdp.popcorn_palace.errors.NotFoundException;
+import com.att.tdp.popcorn_palace.metrics.ServiceMetrics;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Optional waiting room in front of the booking endpoints (popcorn-palace.booking.admission.enabled).
+// Every showtime has a token bucket filling at rate tokens per second up to burst, and a FIFO of at most
+// queue-capacity waiting tickets. A booking goes straight through while nobody is waiting for its showtime and a
+// token is left; otherwise the caller gets a ticket at the back of the queue and a 429 with its position. Tokens go
+// to the head of the queue as they accrue, and an admitted ticket may book once within turn-ttl, so however many
+// clients pile up, a showtime passes at most rate bookings per second (plus one burst) on to the database.
+// A waiting ticket that nobody polled for turn-ttl is skipped when it reaches the head, so abandoned tickets cost no turns.
+@Component
+public class AdmissionControl implements MeterBinder
+{
+    public static final String TICKET_HEADER = "Admission-Ticket";
+
+    private final ServiceMetrics metrics;
+    private final boolean enabled;
+    private final double tokensPerNano;
+    private final int burst;
+    private final int queueCapacity;
+    private final long turnTtlNanos;
+    private final Map<Long, ShowtimeQueue> queues = new ConcurrentHashMap<>();
+    private final Map<UUID, Ticket> tickets = new ConcurrentHashMap<>();
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    public AdmissionControl(ServiceMetrics metrics,
+                            @Value("${popcorn-palace.booking.admission.enabled:false}") boolean enabled,
+                            @Value("${popcorn-palace.booking.admission.rate:50}") double rate,
+                            @Value("${popcorn-palace.booking.admission.burst:50}") int burst,
+                            @Value("${popcorn-palace.booking.admission.queue-capacity:10000}") int queueCapacity,
+                            @Value("${popcorn-palace.booking.admission.turn-ttl:30s}") Duration turnTtl)
+    {
+        if (enabled && (rate <= 0 || burst < 1)) {
+            throw new IllegalStateException("The admission rate must be positive and the burst at least 1");
+        }
+        this.metrics = metrics;
+        this.enabled = enabled;
+        this.tokensPerNano = rate / 1_000_000_000d;
+        this.burst = burst;
+        this.queueCapacity = queueCapacity;
+        this.turnTtlNanos = turnTtl.toNanos();
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    // Let one booking request for the showtime through, or throw AdmissionDeniedException.
+    // ticketId is the ticket the caller was given earlier, if any; an admitted ticket is used up here.
+    public void admit(Long showtimeId, UUID ticketId)
+    {
+        if (!enabled || showtimeId == null) {
+            return;
+        }
+        while (true) {
+            ShowtimeQueue queue = queues.computeIfAbsent(showtimeId, ShowtimeQueue::new);
+            synchronized (queue) {
+                if (queue.retired) {
+                    continue;
+                }
+                long now = System.nanoTime();
+                queue.release(now);
+
+                Ticket ticket = ticketId == null ? null : tickets.get(ticketId);
+                if (ticket != null && ticket.showtimeId.equals(showtimeId)) {
+                    if (!ticket.admitted) {
+                        ticket.lastSeen = now;
+                        throw queued(queue, ticket);
+                    }
+                    tickets.remove(ticket.id);
+                    if (now - ticket.admittedUntil < 0) {
+                        metrics.count("booking.admission", "result", "admitted");
+                        return;
+                    }
+                    // The turn ran out: the caller goes to the back like a new arrival
+                }
+
+                if (queue.waiting.isEmpty() && queue.tokens >= 1) {
+                    queue.tokens--;
+                    metrics.count("booking.admission", "result", "direct");
+                    return;
+                }
+                if (queue.waiting.size() >= queueCapacity) {
+                    metrics.count("booking.admission", "result", "full");
+                    throw new AdmissionDeniedException("The waiting room for this showtime is full, please retry later", null, 1);
+                }
+                Ticket queued = queue.enqueue(now);
+                tickets.put(queued.id, queued);
+                metrics.count("booking.admission", "result", "queued");
+                throw queued(queue, queued);
+            }
+        }
+    }
+
+    // Poll a ticket; polling also keeps a waiting ticket from being skipped as abandoned
+    public AdmissionStatus status(UUID ticketId)
+    {
+        Ticket ticket = tickets.get(ticketId);
+        ShowtimeQueue queue = ticket == null ? null : queues.get(ticket.showtimeId);
+        if (queue == null) {
+            return admittedStatus(ticketId, ticket);
+        }
+        synchronized (queue) {
+            long now = System.nanoTime();
+            queue.release(now);
+            if (ticket.admitted || !tickets.containsKey(ticketId)) {
+                return admittedStatus(ticketId, ticket);
+            }
+            ticket.lastSeen = now;
+            return new AdmissionStatus(ticket.id, ticket.showtimeId, queue.position(ticket), false);
+        }
+    }
+
+    public int waiting()
+    {
+        return waiting.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry)
+    {
+        Gauge.builder("booking.admission.waiting", waiting, AtomicInteger::get).register(registry);
+        Gauge.builder("booking.admission.showtimes", queues, Map::size).register(registry);
+    }
+
+    // Hand out the tokens accrued since the last request, drop turns that ran out and forget idle showtimes
+    @Scheduled(fixedDelayString = "${popcorn-palace.booking.admission.sweep-interval:1s}")
+    public void sweep()
+    {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        tickets.values().removeIf(ticket -> ticket.admitted && now - ticket.admittedUntil >= 0);
+        for (ShowtimeQueue queue : queues.values()) {
+            synchronized (queue) {
+                queue.release(now);
+                if (queue.waiting.isEmpty() && queue.tokens >= burst) {
+                    queue.retired = true;
+                    queues.remove(queue.showtimeId, queue);
+                }
+            }
+        }
+    }
+
+    private AdmissionStatus admittedStatus(UUID ticketId, Ticket ticket)
+    {
+        if (ticket == null || !ticket.admitted || System.nanoTime() - ticket.admittedUntil >= 0) {
+            throw new NotFoundException("Admission ticket not found or expired: " + ticketId);
+        }
+        return new AdmissionStatus(ticket.id, ticket.showtimeId, 0, true);
+    }
+
+    // Suggest polling again about when the ticket should be admitted, but well within turn-ttl
+    private AdmissionDeniedException queued(ShowtimeQueue queue, Ticket ticket)
+    {
+        long position = queue.position(ticket);
+        long maxRetryAfter = Math.max(1, Duration.ofNanos(turnTtlNanos).toSeconds() / 2);
+        long retryAfter = Math.clamp((long) Math.ceil(position / (tokensPerNano * 1_000_000_000d)), 1, maxRetryAfter);
+        return new AdmissionDeniedException("Waiting for a turn to book this showtime",
+                new AdmissionStatus(ticket.id, ticket.showtimeId, position, false), retryAfter);
+    }
+
+    // Guarded by its own monitor
+    private final class ShowtimeQueue
+    {
+        private final Long showtimeId;
+        private final Queue<Ticket> waiting = new ArrayDeque<>();
+        private double tokens = burst;
+        private long refilledAt = System.nanoTime();
+        private long enqueued;
+        private long released;
+        private boolean retired;
+
+        ShowtimeQueue(Long showtimeId)
+        {
+            this.showtimeId = showtimeId;
+        }
+
+        Ticket enqueue(long now)
+        {
+            Ticket ticket = new Ticket(UUID.randomUUID(), showtimeId, ++enqueued, now);
+            waiting.add(ticket);
+            AdmissionControl.this.waiting.incrementAndGet();
+            return ticket;
+        }
+
+        // Tickets leave in sequence order, so a ticket's position is its distance from the last one released
+        long position(Ticket ticket)
+        {
+            return ticket.sequence - released;
+        }
+
+        void release(long now)
+        {
+            tokens = Math.min(burst, tokens + (now - refilledAt) * tokensPerNano);
+            refilledAt = now;
+            while (tokens >= 1 && !waiting.isEmpty()) {
+                Ticket head = waiting.poll();
+                AdmissionControl.this.waiting.decrementAndGet();
+                released = head.sequence;
+                if (now - head.lastSeen > turnTtlNanos) {
+                    tickets.remove(head.id);
+                    metrics.count("booking.admission", "result", "abandoned");
+                    continue;
+                }
+                head.admittedUntil = now + turnTtlNanos;
+                head.admitted = true;
+                tokens--;
+            }
+        }
+    }
+
+    private static final class Ticket
+    {
+        private final UUID id;
+        private final Long showtimeId;
+        private final long sequence;
+        private volatile long lastSeen;
+        private volatile long admittedUntil;
+        private volatile boolean admitted;
+
+        Ticket(UUID id, Long showtimeId, long sequence, long lastSeen)
+        {
+            this.id = id;
+            this.showtimeId = showtimeId;
+            this.sequence = sequence;
+            this.lastSeen = lastSeen;
+        }
+    }
+}
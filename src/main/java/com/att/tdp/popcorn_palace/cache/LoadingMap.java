@@ -0,0 +1,115 @@
+package com.att.tdp.popcorn_palace.cache;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+// Concurrent map that loads a missing value on first use, once per key.
+// ConcurrentHashMap.computeIfAbsent runs the loader while holding a synchronized bin lock, which pins a
+// virtual thread to its carrier for the whole database round trip. Here the load runs outside any lock
+// and other callers for the same key wait on the first caller's future instead.
+// remove and clear also cancel loads in flight: a load that started before them may have read data older
+// than the change they were called for, so it is thrown away and the key is loaded again.
+public class LoadingMap<K, V>
+{
+    private final Function<K, V> loader;
+    private final Map<K, V> values = new ConcurrentHashMap<>();
+    private final Map<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+
+    public LoadingMap(Function<K, V> loader)
+    {
+        this.loader = loader;
+    }
+
+    // Never loads
+    public V getIfPresent(K key)
+    {
+        return values.get(key);
+    }
+
+    public V get(K key)
+    {
+        while (true) {
+            V value = values.get(key);
+            if (value != null) {
+                return value;
+            }
+
+            CompletableFuture<V> created = new CompletableFuture<>();
+            CompletableFuture<V> pending = loading.putIfAbsent(key, created);
+            if (pending != null) {
+                // null: the load was cancelled, so start over
+                value = await(pending);
+                if (value != null) {
+                    return value;
+                }
+                continue;
+            }
+
+            try {
+                // Another caller may have finished loading between the first lookup and claiming the key
+                value = values.get(key);
+                if (value == null) {
+                    value = install(key, created, loader.apply(key));
+                }
+                created.complete(value);
+                if (value != null) {
+                    return value;
+                }
+            } catch (RuntimeException | Error e) {
+                created.completeExceptionally(e);
+                throw e;
+            } finally {
+                loading.remove(key, created);
+            }
+        }
+    }
+
+    public void put(K key, V value)
+    {
+        values.put(key, value);
+    }
+
+    public void remove(K key)
+    {
+        loading.remove(key);
+        values.remove(key);
+    }
+
+    public void clear()
+    {
+        loading.clear();
+        values.clear();
+    }
+
+    // Store a loaded value unless remove or clear came in while it was loading; returns null in that case.
+    // The check and the store happen under the key's bin lock in loading, so a remove cannot slip in between
+    private V install(K key, CompletableFuture<V> created, V loaded)
+    {
+        Object[] installed = new Object[1];
+        loading.computeIfPresent(key, (k, future) -> {
+            if (future == created) {
+                V existing = values.putIfAbsent(k, loaded);
+                installed[0] = existing != null ? existing : loaded;
+            }
+            return future;
+        });
+        @SuppressWarnings("unchecked")
+        V value = (V) installed[0];
+        return value;
+    }
+
+    private static <V> V await(CompletableFuture<V> future)
+    {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.att.tdp.popcorn_palace.cache;
+
+import com.att.tdp.popcorn_palace.datasource.ReplicaRoutingDataSource;
+import com.att.tdp.popcorn_palace.model.Movie;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+// Read-through cache for movie lookups, keyed on the cleaned title and on the ID.
+// Entries are bounded by size and expire after a fixed TTL; misses are not cached.
+// Loads run outside the cache: Caffeine's get(key, loader) holds a bin lock during the query,
+// which would pin a virtual thread to its carrier. A loaded movie is only stored if no invalidation came in
+// while it was loading, and invalidations run once the writing transaction is over, so a row read before
+// an update or delete committed is never put back. Loads go to the primary for the same reason: a lagging
+// replica would hand out the old row for a whole TTL.
+@Component
+public class MovieCache implements MeterBinder
+{
+    private final Cache<String, Movie> byTitle;
+    private final Cache<Long, Movie> byId;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public MovieCache(@Value("${popcorn-palace.movie-cache.maximum-size:10000}") long maximumSize,
+                      @Value("${popcorn-palace.movie-cache.ttl:10m}") Duration ttl)
+    {
+        this.byTitle = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(ttl).recordStats().build();
+        this.byId = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(ttl).recordStats().build();
+    }
+
+    public Optional<Movie> getByTitle(String cleanedTitle, Function<String, Optional<Movie>> loader)
+    {
+        Movie cached = byTitle.getIfPresent(cleanedTitle);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long seen = invalidations.get();
+        Optional<Movie> loaded = ReplicaRoutingDataSource.onPrimary(() -> loader.apply(cleanedTitle));
+        loaded.ifPresent(movie -> {
+            putIfCurrent(byTitle, cleanedTitle, movie, seen);
+            if (movie.getId() != null) {
+                putIfCurrent(byId, movie.getId(), movie, seen);
+            }
+        });
+        return loaded;
+    }
+
+    public Optional<Movie> getById(Long id, Function<Long, Optional<Movie>> loader)
+    {
+        Movie cached = byId.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long seen = invalidations.get();
+        Optional<Movie> loaded = ReplicaRoutingDataSource.onPrimary(() -> loader.apply(id));
+        loaded.ifPresent(movie -> {
+            putIfCurrent(byId, id, movie, seen);
+            if (movie.getTitle() != null) {
+                putIfCurrent(byTitle, movie.getTitle(), movie, seen);
+            }
+        });
+        return loaded;
+    }
+
+    // Drop a movie under its ID and title as they are now, once the surrounding transaction is over
+    public void invalidate(Movie movie)
+    {
+        Long id = movie.getId();
+        String title = movie.getTitle();
+        afterCompletion(() -> {
+            invalidations.incrementAndGet();
+            if (id != null) {
+                byId.invalidate(id);
+            }
+            if (title != null) {
+                byTitle.invalidate(title);
+            }
+        });
+    }
+
+    public void invalidateTitle(String cleanedTitle)
+    {
+        afterCompletion(() -> {
+            invalidations.incrementAndGet();
+            byTitle.invalidate(cleanedTitle);
+        });
+    }
+
+    public void invalidateAll()
+    {
+        afterCompletion(() -> {
+            invalidations.incrementAndGet();
+            byTitle.invalidateAll();
+            byId.invalidateAll();
+        });
+    }
+
+    // Exposes both caches as cache.* meters, tagged cache=movies.byTitle / movies.byId
+    @Override
+    public void bindTo(MeterRegistry registry)
+    {
+        CaffeineCacheMetrics.monitor(registry, byTitle, "movies.byTitle");
+        CaffeineCacheMetrics.monitor(registry, byId, "movies.byId");
+    }
+
+    public Map<String, Map<String, Object>> stats()
+    {
+        return Map.of("byTitle", describe(byTitle), "byId", describe(byId));
+    }
+
+    public CacheStats titleStats()
+    {
+        return byTitle.stats();
+    }
+
+    public CacheStats idStats()
+    {
+        return byId.stats();
+    }
+
+    // Store a loaded movie unless an invalidation started after the load did. The check runs under the key's lock
+    // in the cache, and invalidations count up before they remove, so one either sees the count or removes the entry
+    private <K> void putIfCurrent(Cache<K, Movie> cache, K key, Movie movie, long seen)
+    {
+        cache.asMap().compute(key, (k, current) -> invalidations.get() == seen ? movie : current);
+    }
+
+    // Invalidate after commit: before it, a concurrent read could still load the old row and cache it again
+    private static void afterCompletion(Runnable invalidation)
+    {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidation.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization()
+        {
+            @Override
+            public void afterCompletion(int status)
+            {
+                invalidation.run();
+            }
+        });
+    }
+
+    private static Map<String, Object> describe(Cache<?, ?> cache)
+    {
+        CacheStats stats = cache.stats();
+        return Map.of(
+                "size", cache.estimatedSize(),
+                "hits", stats.hitCount(),
+                "misses", stats.missCount(),
+                "hitRate", stats.hitRate(),
+                "evictions", stats.evictionCount()
+        );
+    }
+}
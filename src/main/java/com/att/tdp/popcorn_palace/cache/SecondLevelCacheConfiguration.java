@@ -0,0 +1,62 @@
+package com.att.tdp.popcorn_palace.cache;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+// Caffeine-backed JCache regions for Hibernate's second-level and query caches.
+// Each region is bounded by size and expires after a TTL, both set under popcorn-palace.second-level-cache.
+// Only the Movie and Showtime entities are cached, not their showtimes/bookings collections: those change
+// through the child side and through bulk deletes, so they are always read from the database.
+@Configuration
+public class SecondLevelCacheConfiguration
+{
+    public static final String MOVIE_REGION = "movies";
+    public static final String SHOWTIME_REGION = "showtimes";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager(
+            @Value("${popcorn-palace.second-level-cache.movies.maximum-size:10000}") long movieSize,
+            @Value("${popcorn-palace.second-level-cache.movies.ttl:10m}") Duration movieTtl,
+            @Value("${popcorn-palace.second-level-cache.showtimes.maximum-size:50000}") long showtimeSize,
+            @Value("${popcorn-palace.second-level-cache.showtimes.ttl:10m}") Duration showtimeTtl,
+            @Value("${popcorn-palace.second-level-cache.queries.maximum-size:10000}") long querySize,
+            @Value("${popcorn-palace.second-level-cache.queries.ttl:5m}") Duration queryTtl)
+    {
+        // A URI of its own per application context, so contexts sharing a JVM (tests) never share regions
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("popcorn-palace:" + UUID.randomUUID()), getClass().getClassLoader());
+        cacheManager.createCache(MOVIE_REGION, region(movieSize, movieTtl));
+        cacheManager.createCache(SHOWTIME_REGION, region(showtimeSize, showtimeTtl));
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, region(querySize, queryTtl));
+        // Holds the last write time of each table; cached query results are checked against it, so it is never bounded
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, new CaffeineConfiguration<>());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheProperties(CacheManager secondLevelCacheManager)
+    {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+    }
+
+    private static CaffeineConfiguration<Object, Object> region(long maximumSize, Duration ttl)
+    {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        return configuration;
+    }
+}
@@ -1,12 +1,18 @@
 package com.att.tdp.popcorn_palace.controller;
 
+import com.att.tdp.popcorn_palace.admission.AdmissionControl;
+import com.att.tdp.popcorn_palace.dto.AdmissionStatus;
+import com.att.tdp.popcorn_palace.dto.BatchBookingRequest;
+import com.att.tdp.popcorn_palace.dto.Outcome;
+import com.att.tdp.popcorn_palace.dto.SeatHoldRequest;
+import com.att.tdp.popcorn_palace.errors.ApiError;
 import com.att.tdp.popcorn_palace.model.Booking;
+import com.att.tdp.popcorn_palace.occupancy.SeatHold;
 import com.att.tdp.popcorn_palace.service.BookingService;
+import com.att.tdp.popcorn_palace.service.SeatHoldService;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -15,16 +21,63 @@ import java.util.UUID;
 public class BookingController
 {
     private final BookingService bookingService;
+    private final SeatHoldService seatHoldService;
+    private final AdmissionControl admissionControl;
 
-    public BookingController (BookingService bookingService)
+    public BookingController (BookingService bookingService, SeatHoldService seatHoldService, AdmissionControl admissionControl)
     {
         this.bookingService = bookingService;
+        this.seatHoldService = seatHoldService;
+        this.admissionControl = admissionControl;
     }
 
+    // A taken seat is answered from the returned outcome, without an exception
     @PostMapping
-    public ResponseEntity<Map<String, UUID>> addBooking (@RequestBody Booking booking)
+    public ResponseEntity<?> addBooking (@RequestBody Booking booking,
+                                         @RequestHeader(name = AdmissionControl.TICKET_HEADER, required = false) UUID ticket)
     {
-        Booking savedBooking = bookingService.save(booking, booking.getShowtime().getId());
+        admissionControl.admit(booking.getShowtime().getId(), ticket);
+        return switch (bookingService.tryBook(booking, booking.getShowtime().getId())) {
+            case Outcome.Success<Booking>(Booking savedBooking) -> ResponseEntity.ok(Map.of("bookingId", savedBooking.getId()));
+            case Outcome.Failure<Booking> failure -> ApiError.response(failure);
+        };
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<?> addBookings (@RequestBody BatchBookingRequest request,
+                                          @RequestHeader(name = AdmissionControl.TICKET_HEADER, required = false) UUID ticket)
+    {
+        admissionControl.admit(request.showtimeId(), ticket);
+        return switch (bookingService.tryBookAll(request)) {
+            case Outcome.Success<List<Booking>>(List<Booking> bookings) -> ResponseEntity.ok(Map.of("bookingIds", bookings.stream().map(Booking::getId).toList()));
+            case Outcome.Failure<List<Booking>> failure -> ApiError.response(failure);
+        };
+    }
+
+    @GetMapping("/admission/{ticket}")
+    public ResponseEntity<AdmissionStatus> getAdmissionStatus (@PathVariable UUID ticket)
+    {
+        return ResponseEntity.ok(admissionControl.status(ticket));
+    }
+
+    @PostMapping("/holds")
+    public ResponseEntity<Map<String, Object>> holdSeat (@RequestBody SeatHoldRequest request)
+    {
+        SeatHold hold = seatHoldService.hold(request);
+        return ResponseEntity.ok(Map.of("holdId", hold.getId(), "expiresAt", hold.getExpiresAt()));
+    }
+
+    @PostMapping("/holds/{holdId}/confirm")
+    public ResponseEntity<Map<String, UUID>> confirmHold (@PathVariable UUID holdId)
+    {
+        Booking savedBooking = seatHoldService.confirm(holdId);
         return ResponseEntity.ok(Map.of("bookingId", savedBooking.getId()));
     }
+
+    @DeleteMapping("/holds/{holdId}")
+    public ResponseEntity<Void> releaseHold (@PathVariable UUID holdId)
+    {
+        seatHoldService.release(holdId);
+        return ResponseEntity.ok().build();
+    }
 }
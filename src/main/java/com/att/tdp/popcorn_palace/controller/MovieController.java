@@ -1,9 +1,23 @@
 package com.att.tdp.popcorn_palace.controller;
 
+import com.att.tdp.popcorn_palace.dto.CursorPage;
+import com.att.tdp.popcorn_palace.dto.ImportReport;
 import com.att.tdp.popcorn_palace.model.Movie;
+import com.att.tdp.popcorn_palace.service.MovieImportService;
 import com.att.tdp.popcorn_palace.service.MovieService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 
@@ -11,11 +25,18 @@ import java.util.Map;
 @RequestMapping("/movies")
 public class MovieController
 {
+    public static final String NDJSON = "application/x-ndjson";
+    public static final String CSV = "text/csv";
+
     private final MovieService movieService;
+    private final MovieImportService movieImportService;
+    private final ObjectWriter movieWriter;
 
-    public MovieController(MovieService movieService)
+    public MovieController(MovieService movieService, MovieImportService movieImportService, ObjectMapper objectMapper)
     {
         this.movieService = movieService;
+        this.movieImportService = movieImportService;
+        this.movieWriter = objectMapper.writerFor(Movie.class);
     }
 
     @GetMapping("/all")
@@ -25,6 +46,38 @@ public class MovieController
         return ResponseEntity.ok(allMovies);
     }
 
+    @GetMapping(value = "/all", params = "limit")
+    public ResponseEntity<CursorPage<Movie>> fetchMoviesPage(@RequestParam("limit") int limit, @RequestParam(value = "after", required = false) Long after)
+    {
+        return ResponseEntity.ok(movieService.getMoviesPage(after, limit));
+    }
+
+    @GetMapping(value = "/all", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamAllMovies()
+    {
+        StreamingResponseBody body = out -> movieService.streamAllMovies(movie -> {
+            try {
+                out.write(movieWriter.writeValueAsBytes(movie));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().header("Content-Type", NDJSON).body(body);
+    }
+
+    @GetMapping("/{movieTitle}")
+    public ResponseEntity<Movie> getMovie(@PathVariable("movieTitle") String title)
+    {
+        return ResponseEntity.ok(movieService.getByTitle(title));
+    }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Map<String, Object>>> getCacheStats()
+    {
+        return ResponseEntity.ok(movieService.getCacheStats());
+    }
+
     @PostMapping
     public ResponseEntity<Movie> addMovie(@RequestBody Movie movie)
     {
@@ -32,6 +85,17 @@ public class MovieController
         return ResponseEntity.ok(savedMovie);
     }
 
+    // The body is read as a stream, so the file is never held in memory as a whole
+    @PostMapping(value = "/import", consumes = {CSV, NDJSON})
+    public ResponseEntity<ImportReport> importMovies(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType, InputStream body)
+    {
+        Reader reader = new InputStreamReader(body, contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8);
+        ImportReport report = contentType.isCompatibleWith(MediaType.parseMediaType(CSV))
+                ? movieImportService.importCsv(reader)
+                : movieImportService.importNdjson(reader);
+        return ResponseEntity.ok(report);
+    }
+
     @PostMapping("/update/{movieTitle}")
     public ResponseEntity<Void> updateMovie(@RequestBody Movie movie, @PathVariable("movieTitle") String title)
     {
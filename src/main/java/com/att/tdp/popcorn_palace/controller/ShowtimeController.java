@@ -1,10 +1,18 @@
 package com.att.tdp.popcorn_palace.controller;
 
+import com.att.tdp.popcorn_palace.dto.CursorPage;
+import com.att.tdp.popcorn_palace.dto.Outcome;
+import com.att.tdp.popcorn_palace.dto.SeatAvailability;
 import com.att.tdp.popcorn_palace.dto.ShowtimeDTO;
+import com.att.tdp.popcorn_palace.dto.ShowtimeFilter;
+import com.att.tdp.popcorn_palace.errors.ApiError;
 import com.att.tdp.popcorn_palace.model.Showtime;
 import com.att.tdp.popcorn_palace.service.ShowtimeService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.time.LocalDateTime;
 import java.util.Map;
 
 import static com.att.tdp.popcorn_palace.dto.ShowtimeDTO.*;
@@ -20,6 +28,18 @@ public class ShowtimeController
         this.showtimeService = showtimeService;
     }
 
+    // e.g. GET /showtimes?theater=Hall 1&from=2025-02-14T00:00:00&to=2025-02-15T00:00:00&limit=50, then &after=<nextCursor>
+    @GetMapping
+    public ResponseEntity<CursorPage<ShowtimeDTO>> searchShowtimes(@RequestParam(required = false) Long movieId,
+                                                                  @RequestParam(required = false) String theater,
+                                                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                                  @RequestParam(defaultValue = "100") int limit,
+                                                                  @RequestParam(required = false) String after)
+    {
+        return ResponseEntity.ok(showtimeService.search(new ShowtimeFilter(movieId, theater, from, to), after, limit));
+    }
+
     @GetMapping("/{showtimeId}")
     public ResponseEntity<ShowtimeDTO> getShowtimeById(@PathVariable Long showtimeId)
     {
@@ -27,18 +47,31 @@ public class ShowtimeController
         return ResponseEntity.ok(showtimeDTO);
     }
 
+    // Spring answers 304 Not Modified when If-None-Match matches the ETag
+    @GetMapping("/{showtimeId}/seats")
+    public ResponseEntity<SeatAvailability> getSeats(@PathVariable Long showtimeId, @RequestParam(defaultValue = "false") boolean expand)
+    {
+        SeatAvailability seats = showtimeService.getSeatAvailability(showtimeId, expand);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(seats.etag()).body(seats);
+    }
+
+    // An overlap is answered from the returned outcome, without an exception
     @PostMapping
-    public ResponseEntity<ShowtimeDTO> addShowtime(@RequestBody Showtime showtime)
+    public ResponseEntity<?> addShowtime(@RequestBody Showtime showtime)
     {
-        Showtime savedShowtime = showtimeService.save(showtime);
-        return ResponseEntity.ok(convertToDTO(savedShowtime));
+        return switch (showtimeService.trySave(showtime)) {
+            case Outcome.Success<Showtime>(Showtime savedShowtime) -> ResponseEntity.ok(convertToDTO(savedShowtime));
+            case Outcome.Failure<Showtime> failure -> ApiError.response(failure);
+        };
     }
 
     @PostMapping("/update/{showtimeId}")
-    public ResponseEntity<Void> updateShowtime(@RequestBody Showtime showtime, @PathVariable("showtimeId") Long id)
+    public ResponseEntity<?> updateShowtime(@RequestBody Showtime showtime, @PathVariable("showtimeId") Long id)
     {
-        showtimeService.upgradeById(showtime, id);
-        return ResponseEntity.ok().build();
+        return switch (showtimeService.tryUpgradeById(showtime, id)) {
+            case Outcome.Success<Showtime> success -> ResponseEntity.ok().build();
+            case Outcome.Failure<Showtime> failure -> ApiError.response(failure);
+        };
     }
 
     @DeleteMapping("/{showtimeId}")
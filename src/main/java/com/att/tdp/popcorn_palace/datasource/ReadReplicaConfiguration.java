@@ -0,0 +1,55 @@
+package com.att.tdp.popcorn_palace.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+// Optional read replica (popcorn-palace.datasource.replica.enabled).
+// Replaces Boot's single pool with two Hikari pools: "primary" from spring.datasource and "replica" from
+// popcorn-palace.datasource.replica (Hikari property names, e.g. jdbc-url, maximum-pool-size). Everything injects
+// the routing data source; @Transactional(readOnly = true) work goes to the replica and the rest to the primary.
+// Both pools report hikaricp.connections.* tagged pool=primary / pool=replica.
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "popcorn-palace.datasource.replica.enabled", havingValue = "true")
+public class ReadReplicaConfiguration
+{
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties)
+    {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("popcorn-palace.datasource.replica")
+    public HikariDataSource replicaDataSource()
+    {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, HikariDataSource replicaDataSource)
+    {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource();
+        routing.setTargetDataSources(Map.of(
+                ReplicaRoutingDataSource.Target.PRIMARY, primaryDataSource,
+                ReplicaRoutingDataSource.Target.REPLICA, replicaDataSource));
+        routing.setDefaultTargetDataSource(primaryDataSource);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
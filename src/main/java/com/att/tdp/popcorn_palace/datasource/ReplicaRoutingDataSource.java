@@ -0,0 +1,49 @@
+package com.att.tdp.popcorn_palace.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+// Sends connections of read-only transactions to the replica and all others to the primary.
+// Only decides well behind a LazyConnectionDataSourceProxy: the transaction manager asks for a connection before
+// the transaction is marked read-only, so the real connection has to be fetched at the first statement instead.
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource
+{
+    public enum Target
+    {
+        PRIMARY, REPLICA
+    }
+
+    private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = new ThreadLocal<>();
+
+    // Run reads that must see the latest writes (seats about to be booked, say) on the primary, even from
+    // read-only transactions; applies to connections first used inside the call. Harmless without a replica
+    public static <T> T onPrimary(Supplier<T> reads)
+    {
+        if (PINNED_TO_PRIMARY.get() != null) {
+            return reads.get();
+        }
+        PINNED_TO_PRIMARY.set(Boolean.TRUE);
+        try {
+            return reads.get();
+        } finally {
+            PINNED_TO_PRIMARY.remove();
+        }
+    }
+
+    public static void onPrimary(Runnable reads)
+    {
+        onPrimary(() -> {
+            reads.run();
+            return null;
+        });
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey()
+    {
+        boolean replica = TransactionSynchronizationManager.isCurrentTransactionReadOnly() && PINNED_TO_PRIMARY.get() == null;
+        return replica ? Target.REPLICA : Target.PRIMARY;
+    }
+}
@@ -0,0 +1,29 @@
+package com.att.tdp.popcorn_palace.dictionary;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+// Stores Movie.genre as its id in the genres dictionary; query parameters compared with it are converted too.
+// Hibernate gets the instance from Spring, so the dictionary is injected.
+@Converter
+public class GenreConverter implements AttributeConverter<String, Integer>
+{
+    private final GenreDictionary genres;
+
+    public GenreConverter(GenreDictionary genres)
+    {
+        this.genres = genres;
+    }
+
+    @Override
+    public Integer convertToDatabaseColumn(String genre)
+    {
+        return genres.intern(genre);
+    }
+
+    @Override
+    public String convertToEntityAttribute(Integer id)
+    {
+        return genres.name(id);
+    }
+}
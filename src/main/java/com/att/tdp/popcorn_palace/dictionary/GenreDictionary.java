@@ -0,0 +1,15 @@
+package com.att.tdp.popcorn_palace.dictionary;
+
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+// Genre names and their ids in the genres table
+@Component
+public class GenreDictionary extends NameDictionary
+{
+    public GenreDictionary(DataSource dataSource)
+    {
+        super(dataSource, "genres");
+    }
+}
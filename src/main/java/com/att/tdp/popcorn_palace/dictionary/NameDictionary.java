@@ -0,0 +1,103 @@
+package com.att.tdp.popcorn_palace.dictionary;
+
+import com.att.tdp.popcorn_palace.cache.LoadingMap;
+import com.att.tdp.popcorn_palace.datasource.ReplicaRoutingDataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Bidirectional name <-> id dictionary over an (id, name) table, so rows, indexes and comparisons carry a small int
+// instead of the name. Each name is interned once: after its first lookup both directions are answered from memory,
+// and ids added by other instances are loaded the first time they are seen.
+// A new name is inserted and committed in a transaction of its own, so an id handed out always exists, even when
+// the write that introduced the name rolls back. Entries are never removed.
+public class NameDictionary
+{
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate newTransaction;
+    private final String table;
+    private final String insertName;
+    private final String selectId;
+    private final String selectName;
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final LoadingMap<Integer, String> names = new LoadingMap<>(this::load);
+
+    public NameDictionary(DataSource dataSource, String table)
+    {
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.newTransaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.table = table;
+        this.insertName = "insert into " + table + " (name) values (?) on conflict do nothing";
+        this.selectId = "select id from " + table + " where name = ?";
+        this.selectName = "select name from " + table + " where id = ?";
+    }
+
+    // The id of the name, adding it to the dictionary if it is new
+    public Integer intern(String name)
+    {
+        if (name == null) {
+            return null;
+        }
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+        id = ReplicaRoutingDataSource.onPrimary(() -> newTransaction.execute(status -> {
+            jdbc.update(insertName, name);
+            return jdbc.queryForObject(selectId, Integer.class, name);
+        }));
+        remember(id, name);
+        return id;
+    }
+
+    // The id of the name if it is in the dictionary, or null; never adds it
+    public Integer find(String name)
+    {
+        if (name == null) {
+            return null;
+        }
+        Integer id = ids.get(name);
+        if (id == null) {
+            List<Integer> found = jdbc.queryForList(selectId, Integer.class, name);
+            if (found.isEmpty()) {
+                return null;
+            }
+            id = found.get(0);
+            remember(id, name);
+        }
+        return id;
+    }
+
+    public String name(Integer id)
+    {
+        return id == null ? null : names.get(id);
+    }
+
+    public int size()
+    {
+        return ids.size();
+    }
+
+    private void remember(Integer id, String name)
+    {
+        ids.putIfAbsent(name, id);
+        names.put(id, name);
+    }
+
+    private String load(Integer id)
+    {
+        List<String> found = jdbc.queryForList(selectName, String.class, id);
+        if (found.isEmpty()) {
+            throw new IllegalStateException("No row with ID " + id + " in " + table);
+        }
+        ids.putIfAbsent(found.get(0), id);
+        return found.get(0);
+    }
+}
@@ -0,0 +1,29 @@
+package com.att.tdp.popcorn_palace.dictionary;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+// Stores Showtime.theater as its id in the theaters dictionary; query parameters compared with it are converted too.
+// Hibernate gets the instance from Spring, so the dictionary is injected.
+@Converter
+public class TheaterConverter implements AttributeConverter<String, Integer>
+{
+    private final TheaterDictionary theaters;
+
+    public TheaterConverter(TheaterDictionary theaters)
+    {
+        this.theaters = theaters;
+    }
+
+    @Override
+    public Integer convertToDatabaseColumn(String theater)
+    {
+        return theaters.intern(theater);
+    }
+
+    @Override
+    public String convertToEntityAttribute(Integer id)
+    {
+        return theaters.name(id);
+    }
+}
@@ -0,0 +1,15 @@
+package com.att.tdp.popcorn_palace.dictionary;
+
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+// Theater names and their ids in the theaters table
+@Component
+public class TheaterDictionary extends NameDictionary
+{
+    public TheaterDictionary(DataSource dataSource)
+    {
+        super(dataSource, "theaters");
+    }
+}
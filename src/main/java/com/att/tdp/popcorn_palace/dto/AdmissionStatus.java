@@ -0,0 +1,9 @@
+package com.att.tdp.popcorn_palace.dto;
+
+import java.util.UUID;
+
+// Where a ticket stands in a showtime's waiting room; position is 0 once the ticket is admitted
+public record AdmissionStatus(UUID ticket, Long showtimeId, long position, boolean admitted)
+{
+
+}
@@ -0,0 +1,9 @@
+package com.att.tdp.popcorn_palace.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+public record BatchBookingRequest(Long showtimeId, UUID userId, List<Integer> seatNumbers)
+{
+
+}
@@ -0,0 +1,14 @@
+package com.att.tdp.popcorn_palace.dto;
+
+import java.util.List;
+
+// Outcome of a bulk import. errors lists at most the first MovieImportService.MAX_REPORTED_ERRORS failed rows;
+// failed always has the full count.
+public record ImportReport(long received, long imported, long failed, List<RowError> errors)
+{
+    // line is the 1-based line number in the uploaded file
+    public record RowError(long line, String message)
+    {
+
+    }
+}
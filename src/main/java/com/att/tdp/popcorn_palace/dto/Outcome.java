@@ -0,0 +1,59 @@
+package com.att.tdp.popcorn_palace.dto;
+
+import com.att.tdp.popcorn_palace.errors.BookingOverloadedException;
+import com.att.tdp.popcorn_palace.errors.ErrorCode;
+import com.att.tdp.popcorn_palace.errors.NotFoundException;
+import com.att.tdp.popcorn_palace.errors.SeatAlreadyBookedException;
+import com.att.tdp.popcorn_palace.errors.ShowtimeOverlapException;
+
+import java.util.function.Function;
+
+// The result of an operation whose failures are part of normal traffic (a seat already taken, an overlapping
+// showtime, a missing showtime): the value, or an error code and message returned instead of thrown
+public sealed interface Outcome<T>
+{
+    record Success<T>(T value) implements Outcome<T>
+    {
+    }
+
+    record Failure<T>(ErrorCode code, String message) implements Outcome<T>
+    {
+        // The exception the throwing API answers this failure with
+        public RuntimeException toException()
+        {
+            return switch (code) {
+                case NOT_FOUND -> new NotFoundException(message);
+                case SEAT_TAKEN -> new SeatAlreadyBookedException(message);
+                case SHOWTIME_OVERLAP -> new ShowtimeOverlapException(message);
+                case OVERLOADED -> new BookingOverloadedException(message);
+                default -> new IllegalArgumentException(message);
+            };
+        }
+    }
+
+    static <T> Outcome<T> success(T value)
+    {
+        return new Success<>(value);
+    }
+
+    static <T> Outcome<T> failure(ErrorCode code, String message)
+    {
+        return new Failure<>(code, message);
+    }
+
+    default <R> Outcome<R> map(Function<T, R> mapper)
+    {
+        return switch (this) {
+            case Success<T> success -> success(mapper.apply(success.value()));
+            case Failure<T> failure -> failure(failure.code(), failure.message());
+        };
+    }
+
+    default T orElseThrow()
+    {
+        return switch (this) {
+            case Success<T> success -> success.value();
+            case Failure<T> failure -> throw failure.toException();
+        };
+    }
+}
@@ -0,0 +1,46 @@
+package com.att.tdp.popcorn_palace.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+// Seat map of one showtime. bitmap is base64 of one bit per seat, least significant bit first:
+// bit N - 1 (byte (N - 1) / 8, bit (N - 1) % 8) set means seat N is taken.
+// availableSeats is only filled in when the expanded form is requested.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SeatAvailability(Long showtimeId, int capacity, int taken, int available, String bitmap, List<Integer> availableSeats)
+{
+    public static SeatAvailability of(Long showtimeId, int capacity, long[] words, boolean expand)
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(words.length * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        int taken = 0;
+        for (long word : words) {
+            buffer.putLong(word);
+            taken += Long.bitCount(word);
+        }
+        byte[] bytes = new byte[(capacity + 7) / 8];
+        buffer.get(0, bytes);
+
+        List<Integer> availableSeats = null;
+        if (expand) {
+            availableSeats = new ArrayList<>(capacity - taken);
+            for (int seat = 1; seat <= capacity; seat++) {
+                int bit = seat - 1;
+                if ((words[bit >>> 6] & (1L << bit)) == 0) {
+                    availableSeats.add(seat);
+                }
+            }
+        }
+        return new SeatAvailability(showtimeId, capacity, taken, capacity - taken, Base64.getEncoder().encodeToString(bytes), availableSeats);
+    }
+
+    // Changes whenever a seat is taken or freed; the expanded form is a different representation
+    public String etag()
+    {
+        return "\"" + bitmap + (availableSeats == null ? "" : "-expanded") + "\"";
+    }
+}
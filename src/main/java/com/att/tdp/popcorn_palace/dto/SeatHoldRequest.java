@@ -0,0 +1,8 @@
+package com.att.tdp.popcorn_palace.dto;
+
+import java.util.UUID;
+
+public record SeatHoldRequest(Long showtimeId, int seatNumber, UUID userId)
+{
+
+}
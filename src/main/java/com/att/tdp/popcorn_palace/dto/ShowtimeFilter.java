@@ -0,0 +1,9 @@
+package com.att.tdp.popcorn_palace.dto;
+
+import java.time.LocalDateTime;
+
+// Optional criteria of a showtime search; null means "any". from is inclusive and to exclusive, both on start time
+public record ShowtimeFilter(Long movieId, String theater, LocalDateTime from, LocalDateTime to)
+{
+
+}
@@ -0,0 +1,28 @@
+package com.att.tdp.popcorn_palace.errors;
+
+import com.att.tdp.popcorn_palace.dto.AdmissionStatus;
+
+// Not this booking's turn yet; answered as 429 with the caller's ticket and position, or without one when the queue is full.
+// Stackless: during a sale most booking requests end here
+public class AdmissionDeniedException extends RuntimeException
+{
+    private final AdmissionStatus status;
+    private final long retryAfterSeconds;
+
+    public AdmissionDeniedException(String message, AdmissionStatus status, long retryAfterSeconds)
+    {
+        super(message, null, false, false);
+        this.status = status;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public AdmissionStatus getStatus()
+    {
+        return status;
+    }
+
+    public long getRetryAfterSeconds()
+    {
+        return retryAfterSeconds;
+    }
+}
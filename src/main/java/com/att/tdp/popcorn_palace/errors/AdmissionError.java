@@ -0,0 +1,15 @@
+package com.att.tdp.popcorn_palace.errors;
+
+import com.att.tdp.popcorn_palace.dto.AdmissionStatus;
+import org.springframework.http.HttpStatus;
+
+import java.util.UUID;
+
+// The 429 for a queued booking: the ApiError fields, plus the ticket fields clients poll with
+public record AdmissionError(HttpStatus statusCode, ErrorCode code, String message, UUID ticket, Long showtimeId, long position, boolean admitted)
+{
+    public AdmissionError(String message, AdmissionStatus status)
+    {
+        this(ErrorCode.QUEUED.getStatus(), ErrorCode.QUEUED, message, status.ticket(), status.showtimeId(), status.position(), status.admitted());
+    }
+}
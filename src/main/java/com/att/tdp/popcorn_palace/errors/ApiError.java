@@ -1,9 +1,20 @@
 package com.att.tdp.popcorn_palace.errors;
 
+import com.att.tdp.popcorn_palace.dto.Outcome;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 
 
-public record ApiError(HttpStatus statusCode, String message)
+public record ApiError(HttpStatus statusCode, ErrorCode code, String message)
 {
+    public ApiError(ErrorCode code, String message)
+    {
+        this(code.getStatus(), code, message);
+    }
 
+    // The response for a failure a service returned instead of throwing
+    public static ResponseEntity<ApiError> response(Outcome.Failure<?> failure)
+    {
+        return ResponseEntity.status(failure.code().getStatus()).body(new ApiError(failure.code(), failure.message()));
+    }
 }
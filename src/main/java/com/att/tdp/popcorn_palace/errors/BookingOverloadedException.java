@@ -0,0 +1,11 @@
+package com.att.tdp.popcorn_palace.errors;
+
+// Too many bookings are already waiting to be written; answered as 503 so the client retries later.
+// Stackless, since it comes in bursts exactly when the service is busiest
+public class BookingOverloadedException extends RuntimeException
+{
+    public BookingOverloadedException(String message)
+    {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,22 @@
+package com.att.tdp.popcorn_palace.errors;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+// Which named database constraint a write broke, so services can answer with their own error
+public final class ConstraintViolations
+{
+    private ConstraintViolations()
+    {
+    }
+
+    public static boolean isViolated(DataIntegrityViolationException e, String constraint)
+    {
+        String name = e.getCause() instanceof ConstraintViolationException violation ? violation.getConstraintName() : null;
+        if (name == null) {
+            // Not every dialect extracts the name (e.g. H2 for a failed JDBC batch), but the driver message still carries it
+            name = e.getMostSpecificCause().getMessage();
+        }
+        return name != null && name.toLowerCase().contains(constraint);
+    }
+}
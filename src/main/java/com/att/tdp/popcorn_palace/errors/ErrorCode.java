@@ -0,0 +1,27 @@
+package com.att.tdp.popcorn_palace.errors;
+
+import org.springframework.http.HttpStatus;
+
+// Machine-readable reason in every ApiError, so clients can tell a lost seat from a bad request without the message
+public enum ErrorCode
+{
+    INVALID_REQUEST(HttpStatus.BAD_REQUEST),
+    NOT_FOUND(HttpStatus.NOT_FOUND),
+    SEAT_TAKEN(HttpStatus.BAD_REQUEST),
+    SHOWTIME_OVERLAP(HttpStatus.BAD_REQUEST),
+    OVERLOADED(HttpStatus.SERVICE_UNAVAILABLE),
+    QUEUED(HttpStatus.TOO_MANY_REQUESTS),
+    QUEUE_FULL(HttpStatus.TOO_MANY_REQUESTS);
+
+    private final HttpStatus status;
+
+    ErrorCode(HttpStatus status)
+    {
+        this.status = status;
+    }
+
+    public HttpStatus getStatus()
+    {
+        return status;
+    }
+}
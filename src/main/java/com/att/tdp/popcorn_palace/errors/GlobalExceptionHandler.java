@@ -1,5 +1,6 @@
 package com.att.tdp.popcorn_palace.errors;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -11,15 +12,43 @@ public class GlobalExceptionHandler
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ApiError> handleIllegalArgumentException(IllegalArgumentException e)
     {
-        ApiError apiError = new ApiError(HttpStatus.BAD_REQUEST, e.getMessage());
+        ApiError apiError = new ApiError(ErrorCode.INVALID_REQUEST, e.getMessage());
+        return new ResponseEntity<>(apiError, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(SeatAlreadyBookedException.class)
+    public ResponseEntity<ApiError> handleSeatAlreadyBookedException(SeatAlreadyBookedException e)
+    {
+        ApiError apiError = new ApiError(ErrorCode.SEAT_TAKEN, e.getMessage());
+        return new ResponseEntity<>(apiError, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(ShowtimeOverlapException.class)
+    public ResponseEntity<ApiError> handleShowtimeOverlapException(ShowtimeOverlapException e)
+    {
+        ApiError apiError = new ApiError(ErrorCode.SHOWTIME_OVERLAP, e.getMessage());
         return new ResponseEntity<>(apiError, HttpStatus.BAD_REQUEST);
     }
 
     @ExceptionHandler(NotFoundException.class)
     public ResponseEntity<ApiError> handleNotFoundException(NotFoundException e)
     {
-        ApiError apiError = new ApiError(HttpStatus.NOT_FOUND, e.getMessage());
+        ApiError apiError = new ApiError(ErrorCode.NOT_FOUND, e.getMessage());
         return new ResponseEntity<>(apiError, HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(BookingOverloadedException.class)
+    public ResponseEntity<ApiError> handleBookingOverloadedException(BookingOverloadedException e)
+    {
+        ApiError apiError = new ApiError(ErrorCode.OVERLOADED, e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(apiError);
+    }
+
+    @ExceptionHandler(AdmissionDeniedException.class)
+    public ResponseEntity<Object> handleAdmissionDeniedException(AdmissionDeniedException e)
+    {
+        Object body = e.getStatus() != null ? new AdmissionError(e.getMessage(), e.getStatus()) : new ApiError(ErrorCode.QUEUE_FULL, e.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds())).body(body);
+    }
+
 }
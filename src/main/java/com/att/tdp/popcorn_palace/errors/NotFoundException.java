@@ -1,9 +1,10 @@
 package com.att.tdp.popcorn_palace.errors;
 
+// Answered as 404. Without a stack trace: a missing showtime or ticket is the client's mistake, not ours
 public class NotFoundException extends RuntimeException
 {
     public NotFoundException(String message)
     {
-        super(message);
+        super(message, null, false, false);
     }
 }
\ No newline at end of file
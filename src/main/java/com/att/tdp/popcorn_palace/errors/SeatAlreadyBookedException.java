@@ -0,0 +1,46 @@
+package com.att.tdp.popcorn_palace.errors;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+// A booking lost the race for its seat(s); answered as 400 like any other IllegalArgumentException.
+// Stackless: losing a seat is routine while a showtime sells out.
+// IllegalArgumentException has no (message, cause, enableSuppression, writableStackTrace) constructor, so this and
+// ShowtimeOverlapException override fillInStackTrace; the RuntimeException subclasses here pass false to it instead
+public class SeatAlreadyBookedException extends IllegalArgumentException
+{
+    public SeatAlreadyBookedException(int seatNumber)
+    {
+        super(message(seatNumber));
+    }
+
+    public SeatAlreadyBookedException(List<Integer> seatNumbers)
+    {
+        super(message(seatNumbers));
+    }
+
+    public SeatAlreadyBookedException(String message)
+    {
+        super(message);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace()
+    {
+        return this;
+    }
+
+    public static String message(int seatNumber)
+    {
+        return "Seat " + seatNumber + " is already booked for this showtime";
+    }
+
+    public static String message(List<Integer> seatNumbers)
+    {
+        if (seatNumbers.size() == 1) {
+            return message(seatNumbers.get(0));
+        }
+        String seats = seatNumbers.stream().sorted().map(String::valueOf).collect(Collectors.joining(", "));
+        return "Seats " + seats + " are already booked for this showtime";
+    }
+}
@@ -0,0 +1,17 @@
+package com.att.tdp.popcorn_palace.errors;
+
+// A showtime would overlap another one in its theater; answered as 400 like any other IllegalArgumentException.
+// Stackless: the scheduler asked for a taken slot, and where it was caught says nothing useful
+public class ShowtimeOverlapException extends IllegalArgumentException
+{
+    public ShowtimeOverlapException(String message)
+    {
+        super(message);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace()
+    {
+        return this;
+    }
+}
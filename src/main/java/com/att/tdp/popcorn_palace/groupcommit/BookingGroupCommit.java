@@ -0,0 +1,348 @@
+package com.att.tdp.popcorn_palace.groupcommit;
+
+import com.att.tdp.popcorn_palace.datasource.ReplicaRoutingDataSource;
+import com.att.tdp.popcorn_palace.errors.BookingOverloadedException;
+import com.att.tdp.popcorn_palace.errors.ConstraintViolations;
+import com.att.tdp.popcorn_palace.errors.SeatAlreadyBookedException;
+import com.att.tdp.popcorn_palace.model.Booking;
+import com.att.tdp.popcorn_palace.model.id.UuidV7Generator;
+import com.att.tdp.popcorn_palace.repository.BookingRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Optional group commit for booking inserts (popcorn-palace.booking.group-commit.enabled).
+// Callers queue their bookings and wait; one writer thread takes up to max-batch-size rows, waiting at most
+// linger for more to arrive, checks all of their seats against the table with one query per showtime and
+// inserts the rest in a single JDBC batch and transaction, so one commit serves many requests.
+// Every caller gets its own result: its bookings, or the error for its own seats only.
+// At most max-pending requests wait; past that a caller waits up to enqueue-timeout, then is turned away.
+// A caller the writer has not picked up within commit-timeout withdraws its request and is turned away too; once
+// the writer has it, the caller waits for the outcome, which the transaction timeout keeps bounded.
+// Requests arriving after stop(), or still queued when the writer exits, are turned away as well.
+@Component
+public class BookingGroupCommit implements SmartLifecycle, MeterBinder
+{
+    private static final String INSERT = "insert into bookings (id, showtime_id, seat_number, user_id) values (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transaction;
+    private final BookingRepository bookingRepository;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final long lingerNanos;
+    private final Duration enqueueTimeout;
+    private final Duration commitTimeout;
+    private final BlockingQueue<Request> queue;
+    private DistributionSummary batchSizes;
+    private volatile boolean running;
+    private volatile boolean stopped;
+    private Thread writer;
+
+    public BookingGroupCommit(JdbcTemplate jdbc, PlatformTransactionManager transactionManager, BookingRepository bookingRepository,
+                              @Value("${popcorn-palace.booking.group-commit.enabled:false}") boolean enabled,
+                              @Value("${popcorn-palace.booking.group-commit.max-batch-size:128}") int maxBatchSize,
+                              @Value("${popcorn-palace.booking.group-commit.linger:2ms}") Duration linger,
+                              @Value("${popcorn-palace.booking.group-commit.max-pending:10000}") int maxPending,
+                              @Value("${popcorn-palace.booking.group-commit.enqueue-timeout:100ms}") Duration enqueueTimeout,
+                              @Value("${popcorn-palace.booking.group-commit.commit-timeout:5s}") Duration commitTimeout)
+    {
+        this.jdbc = jdbc;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.transaction.setTimeout((int) Math.max(1, commitTimeout.toSeconds()));
+        this.bookingRepository = bookingRepository;
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.lingerNanos = linger.toNanos();
+        this.enqueueTimeout = enqueueTimeout;
+        this.commitTimeout = commitTimeout;
+        this.queue = new LinkedBlockingQueue<>(maxPending);
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    // Insert the bookings of one request, all or none, with whatever else is queued; blocks until committed
+    public List<Booking> commit(List<Booking> bookings)
+    {
+        if (stopped) {
+            throw stoppedException();
+        }
+        Request request = new Request(bookings);
+        try {
+            if (!queue.offer(request, enqueueTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new BookingOverloadedException("Too many bookings in progress, please retry");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BookingOverloadedException("Interrupted while waiting to book");
+        }
+        // The writer may have drained the queue for the last time while this request was being offered
+        if (stopped && queue.remove(request)) {
+            throw stoppedException();
+        }
+        try {
+            return request.result.get(commitTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            if (request.claim()) {
+                queue.remove(request);
+                throw new BookingOverloadedException("Booking took too long to be written, please retry");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (request.claim()) {
+                throw new BookingOverloadedException("Interrupted while waiting to book");
+            }
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        }
+        // Too late to withdraw: the writer is already writing this request
+        try {
+            return request.result.join();
+        } catch (CompletionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    public int pending()
+    {
+        return queue.size();
+    }
+
+    @Override
+    public void start()
+    {
+        if (enabled) {
+            stopped = false;
+            running = true;
+            writer = Thread.ofPlatform().name("booking-group-commit").daemon().start(this::run);
+        }
+    }
+
+    // Requests already queued are still written before the writer exits; new ones are turned away
+    @Override
+    public void stop()
+    {
+        stopped = true;
+        running = false;
+        if (writer != null) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning()
+    {
+        return running;
+    }
+
+    // Starts before the web server and stops after it
+    @Override
+    public int getPhase()
+    {
+        return 0;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry)
+    {
+        Gauge.builder("booking.group_commit.pending", queue, BlockingQueue::size).register(registry);
+        batchSizes = DistributionSummary.builder("booking.group_commit.batch_size").register(registry);
+    }
+
+    private void run()
+    {
+        try {
+            while (running || !queue.isEmpty()) {
+                List<Request> batch = nextBatch();
+                if (!batch.isEmpty()) {
+                    write(batch);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // Nothing writes after this: answer whatever is still queued instead of leaving its callers waiting
+            stopped = true;
+            running = false;
+            List<Request> abandoned = new ArrayList<>();
+            queue.drainTo(abandoned);
+            abandoned.forEach(request -> request.result.completeExceptionally(stoppedException()));
+        }
+    }
+
+    // The first request waits for the writer; later ones join it until the batch is full or linger is up
+    private List<Request> nextBatch() throws InterruptedException
+    {
+        List<Request> batch = new ArrayList<>();
+        Request first = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return batch;
+        }
+        batch.add(first);
+        int rows = first.bookings.size();
+        long deadline = System.nanoTime() + lingerNanos;
+        while (rows < maxBatchSize) {
+            Request next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+            rows += next.bookings.size();
+        }
+        if (batchSizes != null) {
+            batchSizes.record(rows);
+        }
+        return batch;
+    }
+
+    // Fails the batch on any Throwable, Errors included, so the writer keeps serving the rest of the queue
+    private void write(List<Request> batch)
+    {
+        // Requests whose callers gave up waiting are dropped, the rest can no longer be withdrawn
+        batch.removeIf(request -> !request.claim());
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            List<Request> accepted = rejectTakenSeats(batch);
+            if (accepted.isEmpty()) {
+                return;
+            }
+            try {
+                insert(accepted);
+                accepted.forEach(request -> request.result.complete(request.bookings));
+            } catch (DataIntegrityViolationException e) {
+                // A seat was booked after the check (by another instance): retry one request at a time to find it
+                accepted.forEach(this::writeAlone);
+            }
+        } catch (Throwable e) {
+            batch.forEach(request -> request.result.completeExceptionally(e));
+        }
+    }
+
+    // One lookup per showtime for the whole batch; a request also loses to an earlier one in the same batch
+    private List<Request> rejectTakenSeats(List<Request> batch)
+    {
+        Map<Long, Set<Integer>> requested = new HashMap<>();
+        for (Request request : batch) {
+            for (Booking booking : request.bookings) {
+                requested.computeIfAbsent(booking.getShowtime().getId(), id -> new HashSet<>()).add(booking.getSeatNumber());
+            }
+        }
+        Map<Long, Set<Integer>> taken = new HashMap<>();
+        requested.forEach((showtimeId, seatNumbers) ->
+                taken.put(showtimeId, new HashSet<>(ReplicaRoutingDataSource.onPrimary(() -> bookingRepository.findBookedSeatNumbers(showtimeId, seatNumbers)))));
+
+        List<Request> accepted = new ArrayList<>(batch.size());
+        for (Request request : batch) {
+            List<Integer> conflicts = new ArrayList<>();
+            for (Booking booking : request.bookings) {
+                if (taken.get(booking.getShowtime().getId()).contains(booking.getSeatNumber())) {
+                    conflicts.add(booking.getSeatNumber());
+                }
+            }
+            if (!conflicts.isEmpty()) {
+                request.result.completeExceptionally(new SeatAlreadyBookedException(conflicts));
+                continue;
+            }
+            request.bookings.forEach(booking -> taken.get(booking.getShowtime().getId()).add(booking.getSeatNumber()));
+            accepted.add(request);
+        }
+        return accepted;
+    }
+
+    private void writeAlone(Request request)
+    {
+        try {
+            insert(List.of(request));
+            request.result.complete(request.bookings);
+        } catch (DataIntegrityViolationException e) {
+            if (ConstraintViolations.isViolated(e, Booking.SEAT_CONSTRAINT)) {
+                request.result.completeExceptionally(new SeatAlreadyBookedException(request.bookings.stream().map(Booking::getSeatNumber).toList()));
+            } else {
+                request.result.completeExceptionally(e);
+            }
+        } catch (RuntimeException e) {
+            request.result.completeExceptionally(e);
+        }
+    }
+
+    private static BookingOverloadedException stoppedException()
+    {
+        return new BookingOverloadedException("Bookings are not being accepted right now, please retry");
+    }
+
+    private static RuntimeException unwrap(Throwable cause)
+    {
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new CompletionException(cause);
+    }
+
+    private void insert(List<Request> requests)
+    {
+        List<Object[]> rows = new ArrayList<>();
+        for (Request request : requests) {
+            for (Booking booking : request.bookings) {
+                if (booking.getId() == null) {
+                    booking.setId(UuidV7Generator.next());
+                }
+                rows.add(new Object[]{booking.getId(), booking.getShowtime().getId(), booking.getSeatNumber(), booking.getUserId()});
+            }
+        }
+        transaction.executeWithoutResult(status -> jdbc.batchUpdate(INSERT, rows));
+    }
+
+    private static final class Request
+    {
+        private final List<Booking> bookings;
+        private final CompletableFuture<List<Booking>> result = new CompletableFuture<>();
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        Request(List<Booking> bookings)
+        {
+            this.bookings = bookings;
+        }
+
+        // Taken once, either by the writer to write it or by its caller to withdraw it
+        boolean claim()
+        {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+}
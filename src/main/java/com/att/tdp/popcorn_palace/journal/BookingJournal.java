@@ -0,0 +1,329 @@
+package com.att.tdp.popcorn_palace.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import static java.nio.file.StandardOpenOption.*;
+
+// Append-only booking log on memory-mapped segment files.
+// Every record is a fixed 48 bytes: a CRC32C of the payload, then the booking ID, showtime ID, seat number and
+// user ID. Segments are preallocated with zeros, so the first record whose checksum does not match ends the log,
+// including a record torn by a crash mid-write. A full segment is followed by a new one; segments wholly before
+// the drained position, which is kept in the checkpoint file, are deleted.
+// Appends may come from any thread. Reading and marking records drained is for one drainer at a time.
+public class BookingJournal implements Closeable
+{
+    static final int RECORD_SIZE = 48;
+    private static final String SEGMENT_SUFFIX = ".segment";
+    private static final String CHECKPOINT = "checkpoint";
+    private static final int CHECKPOINT_SIZE = 16;
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final boolean fsync;
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final AtomicLong pending = new AtomicLong();
+
+    private Segment active;
+    private volatile JournalPosition drained;
+
+    // fsync: force every append to disk before it returns, not only to the page cache
+    public BookingJournal(Path directory, long segmentSize, boolean fsync)
+    {
+        if (segmentSize < RECORD_SIZE) {
+            throw new IllegalArgumentException("Journal segment size must be at least " + RECORD_SIZE + " bytes");
+        }
+        this.directory = directory;
+        this.recordsPerSegment = (int) Math.min(segmentSize / RECORD_SIZE, Integer.MAX_VALUE / RECORD_SIZE);
+        this.fsync = fsync;
+        try {
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open the booking journal in " + directory, e);
+        }
+    }
+
+    // Write the bookings; once this returns they survive a crash of the process (and of the machine, with fsync)
+    public void append(List<JournaledBooking> bookings)
+    {
+        appendLock.lock();
+        try {
+            int forceFrom = active.limit;
+            for (JournaledBooking booking : bookings) {
+                if (active.limit == active.capacity) {
+                    force(active, forceFrom);
+                    roll();
+                    forceFrom = 0;
+                }
+                encode(active.buffer, active.limit, booking);
+                active.limit++;
+            }
+            force(active, forceFrom);
+            pending.addAndGet(bookings.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write to the booking journal", e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    // Up to max records after the drained position
+    public JournalBatch read(int max)
+    {
+        List<JournaledBooking> bookings = new ArrayList<>();
+        JournalPosition from = drained;
+        Segment segment = segments.get(from.segment());
+        int index = from.record();
+        while (bookings.size() < max) {
+            if (index < segment.limit) {
+                bookings.add(decode(segment.buffer, index++));
+                continue;
+            }
+            Map.Entry<Long, Segment> next = segments.higherEntry(segment.sequence);
+            if (next == null) {
+                break;
+            }
+            // The next segment only exists once this one is full, so its last records are visible by now
+            if (index < segment.limit) {
+                continue;
+            }
+            segment = next.getValue();
+            index = 0;
+        }
+        return new JournalBatch(bookings, new JournalPosition(segment.sequence, index));
+    }
+
+    // Called once a batch is safely in the database: moves the checkpoint past it and drops finished segments
+    public void markDrained(JournalBatch batch)
+    {
+        JournalPosition next = batch.next();
+        try {
+            writeCheckpoint(next);
+            drained = next;
+            pending.addAndGet(-batch.bookings().size());
+            for (Segment segment : segments.headMap(next.segment()).values()) {
+                segments.remove(segment.sequence);
+                Files.deleteIfExists(segment.path);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write the booking journal checkpoint", e);
+        }
+    }
+
+    // Records appended but not drained yet
+    public long pending()
+    {
+        return pending.get();
+    }
+
+    @Override
+    public void close()
+    {
+        appendLock.lock();
+        try {
+            active.buffer.force();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private void recover() throws IOException
+    {
+        Files.createDirectories(directory);
+        JournalPosition checkpoint = readCheckpoint();
+
+        List<Long> sequences;
+        try (Stream<Path> files = Files.list(directory)) {
+            sequences = files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+        for (Long sequence : sequences) {
+            if (checkpoint != null && sequence < checkpoint.segment()) {
+                // Drained before the crash, but not deleted yet
+                Files.deleteIfExists(segmentPath(sequence));
+            } else {
+                segments.put(sequence, Segment.open(segmentPath(sequence), sequence));
+            }
+        }
+        if (segments.isEmpty()) {
+            long sequence = checkpoint == null ? 0 : checkpoint.segment();
+            segments.put(sequence, Segment.create(segmentPath(sequence), sequence, recordsPerSegment));
+        }
+
+        // Appends resume after the last valid record; anything past it is a torn write and is zeroed
+        active = segments.lastEntry().getValue();
+        active.clearFrom(active.limit);
+
+        Segment first = segments.firstEntry().getValue();
+        drained = checkpoint != null && checkpoint.segment() == first.sequence
+                ? new JournalPosition(first.sequence, Math.min(checkpoint.record(), first.limit))
+                : new JournalPosition(first.sequence, 0);
+        long undrained = -drained.record();
+        for (Segment segment : segments.values()) {
+            undrained += segment.limit;
+        }
+        pending.set(undrained);
+    }
+
+    private void roll() throws IOException
+    {
+        long sequence = active.sequence + 1;
+        Segment next = Segment.create(segmentPath(sequence), sequence, recordsPerSegment);
+        segments.put(sequence, next);
+        active = next;
+    }
+
+    private void force(Segment segment, int fromRecord)
+    {
+        if (fsync && segment.limit > fromRecord) {
+            segment.buffer.force(fromRecord * RECORD_SIZE, (segment.limit - fromRecord) * RECORD_SIZE);
+        }
+    }
+
+    private Path segmentPath(long sequence)
+    {
+        return directory.resolve(String.format("%020d%s", sequence, SEGMENT_SUFFIX));
+    }
+
+    private JournalPosition readCheckpoint() throws IOException
+    {
+        Path path = directory.resolve(CHECKPOINT);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        // A damaged checkpoint only means replaying from the first segment; replayed rows are skipped by ID
+        if (buffer.capacity() != CHECKPOINT_SIZE || buffer.getInt(12) != checksum(buffer.slice(0, 12))) {
+            return null;
+        }
+        return new JournalPosition(buffer.getLong(0), buffer.getInt(8));
+    }
+
+    // Written to a temporary file and renamed over the old one, so a crash leaves either checkpoint intact
+    private void writeCheckpoint(JournalPosition position) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(CHECKPOINT_SIZE);
+        buffer.putLong(0, position.segment()).putInt(8, position.record());
+        buffer.putInt(12, checksum(buffer.slice(0, 12)));
+
+        Path temporary = directory.resolve(CHECKPOINT + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, CREATE, WRITE, TRUNCATE_EXISTING)) {
+            channel.write(buffer);
+            if (fsync) {
+                channel.force(true);
+            }
+        }
+        Files.move(temporary, directory.resolve(CHECKPOINT), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void encode(ByteBuffer buffer, int index, JournaledBooking booking)
+    {
+        int offset = index * RECORD_SIZE;
+        buffer.putLong(offset + 4, booking.id().getMostSignificantBits());
+        buffer.putLong(offset + 12, booking.id().getLeastSignificantBits());
+        buffer.putLong(offset + 20, booking.showtimeId());
+        buffer.putInt(offset + 28, booking.seatNumber());
+        buffer.putLong(offset + 32, booking.userId().getMostSignificantBits());
+        buffer.putLong(offset + 40, booking.userId().getLeastSignificantBits());
+        // The checksum goes in last, so a record is never valid before its payload is complete
+        buffer.putInt(offset, checksum(buffer.slice(offset + 4, RECORD_SIZE - 4)));
+    }
+
+    private static JournaledBooking decode(ByteBuffer buffer, int index)
+    {
+        JournaledBooking booking = tryDecode(buffer, index);
+        if (booking == null) {
+            throw new IllegalStateException("Corrupt booking journal record at index " + index);
+        }
+        return booking;
+    }
+
+    // Null for an empty or damaged slot
+    private static JournaledBooking tryDecode(ByteBuffer buffer, int index)
+    {
+        int offset = index * RECORD_SIZE;
+        long idHigh = buffer.getLong(offset + 4);
+        long idLow = buffer.getLong(offset + 12);
+        if ((idHigh == 0 && idLow == 0) || buffer.getInt(offset) != checksum(buffer.slice(offset + 4, RECORD_SIZE - 4))) {
+            return null;
+        }
+        return new JournaledBooking(new UUID(idHigh, idLow), buffer.getLong(offset + 20), buffer.getInt(offset + 28),
+                new UUID(buffer.getLong(offset + 32), buffer.getLong(offset + 40)));
+    }
+
+    private static int checksum(ByteBuffer bytes)
+    {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+
+    private static final class Segment
+    {
+        private final long sequence;
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+        // Records written so far; the volatile write publishes each record to the drainer
+        private volatile int limit;
+
+        private Segment(long sequence, Path path, MappedByteBuffer buffer, int capacity, int limit)
+        {
+            this.sequence = sequence;
+            this.path = path;
+            this.buffer = buffer;
+            this.capacity = capacity;
+            this.limit = limit;
+        }
+
+        static Segment create(Path path, long sequence, int capacity) throws IOException
+        {
+            try (FileChannel channel = FileChannel.open(path, CREATE_NEW, READ, WRITE)) {
+                return new Segment(sequence, path, channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) capacity * RECORD_SIZE), capacity, 0);
+            }
+        }
+
+        static Segment open(Path path, long sequence) throws IOException
+        {
+            try (FileChannel channel = FileChannel.open(path, READ, WRITE)) {
+                int capacity = (int) (channel.size() / RECORD_SIZE);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) capacity * RECORD_SIZE);
+                int limit = 0;
+                while (limit < capacity && tryDecode(buffer, limit) != null) {
+                    limit++;
+                }
+                return new Segment(sequence, path, buffer, capacity, limit);
+            }
+        }
+
+        // Only pages that hold data are written, so the untouched rest of a sparse file stays unallocated
+        void clearFrom(int record)
+        {
+            for (int offset = record * RECORD_SIZE; offset < capacity * RECORD_SIZE; offset += 8) {
+                if (buffer.getLong(offset) != 0) {
+                    buffer.putLong(offset, 0);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.att.tdp.popcorn_palace.journal;
+
+import com.att.tdp.popcorn_palace.metrics.ServiceMetrics;
+import com.att.tdp.popcorn_palace.model.Booking;
+import com.att.tdp.popcorn_palace.model.id.UuidV7Generator;
+import com.att.tdp.popcorn_palace.occupancy.SeatOccupancyRegistry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Optional write-behind mode for bookings (popcorn-palace.booking.journal.enabled).
+// A booking is acknowledged once it is in the local BookingJournal; a background drainer batch-inserts journaled
+// bookings into the bookings table. On startup, before the server takes requests, everything left in the journal
+// is replayed. Replays are idempotent: a row whose ID is already in the table is skipped.
+// The seat bitmap is the only check a seat is free before the acknowledgement, so this mode needs the bitmap
+// and a single instance writing bookings.
+// A row the database still rejects was acknowledged all the same, so it is never dropped: it goes to a dead-letter
+// journal under <directory>/dead-letter, which is kept across restarts and turns the health check DOWN until an
+// operator has dealt with the bookings in it and removed it.
+@Component
+public class BookingWriteBehind implements SmartLifecycle, MeterBinder, HealthIndicator
+{
+    private static final Logger log = LoggerFactory.getLogger(BookingWriteBehind.class);
+    private static final String DEAD_LETTER_DIRECTORY = "dead-letter";
+    private static final long DEAD_LETTER_SEGMENT_SIZE = 64 * 1024;
+    private static final String INSERT = "insert into bookings (id, showtime_id, seat_number, user_id) "
+            + "select cast(? as uuid), cast(? as bigint), cast(? as integer), cast(? as uuid) "
+            + "where not exists (select 1 from bookings where id = cast(? as uuid))";
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transaction;
+    private final ServiceMetrics metrics;
+    private final int drainBatchSize;
+    private final BookingJournal journal;
+    private final BookingJournal deadLetters;
+    private final ReentrantLock drainLock = new ReentrantLock();
+    private volatile boolean running;
+
+    public BookingWriteBehind(JdbcTemplate jdbc, PlatformTransactionManager transactionManager, SeatOccupancyRegistry seatOccupancy, ServiceMetrics metrics,
+                              @Value("${popcorn-palace.booking.journal.enabled:false}") boolean enabled,
+                              @Value("${popcorn-palace.booking.journal.directory:data/booking-journal}") Path directory,
+                              @Value("${popcorn-palace.booking.journal.segment-size:64MB}") DataSize segmentSize,
+                              @Value("${popcorn-palace.booking.journal.fsync:true}") boolean fsync,
+                              @Value("${popcorn-palace.booking.journal.drain-batch-size:1000}") int drainBatchSize)
+    {
+        if (enabled && !seatOccupancy.isEnabled()) {
+            throw new IllegalStateException("The booking journal requires the seat bitmap to be enabled");
+        }
+        this.jdbc = jdbc;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.metrics = metrics;
+        this.drainBatchSize = drainBatchSize;
+        this.journal = enabled ? new BookingJournal(directory, segmentSize.toBytes(), fsync) : null;
+        this.deadLetters = enabled ? new BookingJournal(directory.resolve(DEAD_LETTER_DIRECTORY), DEAD_LETTER_SEGMENT_SIZE, true) : null;
+    }
+
+    public boolean isEnabled()
+    {
+        return journal != null;
+    }
+
+    // Journal the bookings, giving them IDs; the caller acknowledges them as saved
+    public List<Booking> append(List<Booking> bookings)
+    {
+        for (Booking booking : bookings) {
+            if (booking.getId() == null) {
+                booking.setId(UuidV7Generator.next());
+            }
+        }
+        journal.append(bookings.stream()
+                .map(booking -> new JournaledBooking(booking.getId(), booking.getShowtime().getId(), booking.getSeatNumber(), booking.getUserId()))
+                .toList());
+        return bookings;
+    }
+
+    public long pending()
+    {
+        return journal == null ? 0 : journal.pending();
+    }
+
+    // Acknowledged bookings the database rejected, kept in the dead-letter journal
+    public long deadLetters()
+    {
+        return deadLetters == null ? 0 : deadLetters.pending();
+    }
+
+    @Override
+    public Health health()
+    {
+        long count = deadLetters();
+        if (count == 0) {
+            return Health.up().build();
+        }
+        return Health.down()
+                .withDetail("deadLetters", count)
+                .withDetail("reason", "Acknowledged bookings were rejected by the database; see the dead-letter journal")
+                .build();
+    }
+
+    // Move journaled bookings into the database; a failed batch stays in the journal and is retried next time
+    @Scheduled(fixedDelayString = "${popcorn-palace.booking.journal.drain-interval:100ms}")
+    public void drain()
+    {
+        if (journal == null || !drainLock.tryLock()) {
+            return;
+        }
+        try {
+            drainAll();
+        } catch (DataAccessException e) {
+            log.warn("Booking journal drain failed, {} bookings pending: {}", journal.pending(), e.getMessage());
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    // Replay whatever the last run left in the journal before the server accepts requests
+    @Override
+    public void start()
+    {
+        if (journal != null) {
+            drainLock.lock();
+            try {
+                drainAll();
+            } finally {
+                drainLock.unlock();
+            }
+        }
+        running = true;
+    }
+
+    // Waits for a scheduled drain in progress instead of skipping the last one
+    @Override
+    public void stop()
+    {
+        running = false;
+        if (journal != null) {
+            drainLock.lock();
+            try {
+                drainAll();
+            } catch (DataAccessException e) {
+                log.warn("Final booking journal drain failed, {} bookings left for the next start: {}", journal.pending(), e.getMessage());
+            } finally {
+                drainLock.unlock();
+                journal.close();
+                deadLetters.close();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning()
+    {
+        return running;
+    }
+
+    // Starts before the web server and stops after it
+    @Override
+    public int getPhase()
+    {
+        return 0;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry)
+    {
+        Gauge.builder("booking.journal.pending", this, BookingWriteBehind::pending).register(registry);
+        Gauge.builder("booking.journal.dead_letters", this, BookingWriteBehind::deadLetters).register(registry);
+    }
+
+    private void drainAll()
+    {
+        JournalBatch batch;
+        do {
+            batch = journal.read(drainBatchSize);
+            if (batch.bookings().isEmpty()) {
+                return;
+            }
+            insert(batch.bookings());
+            journal.markDrained(batch);
+            metrics.count("booking.journal.drained", batch.bookings().size());
+        } while (batch.bookings().size() == drainBatchSize);
+    }
+
+    private void insert(List<JournaledBooking> bookings)
+    {
+        try {
+            transaction.executeWithoutResult(status -> jdbc.batchUpdate(INSERT, bookings.stream().map(BookingWriteBehind::row).toList()));
+        } catch (DataIntegrityViolationException e) {
+            // One bad row must not hold back the rest: insert one at a time and dead-letter the rows the database
+            // rejects. They are written before the caller moves the checkpoint past them
+            for (JournaledBooking booking : bookings) {
+                try {
+                    jdbc.update(INSERT, row(booking));
+                } catch (DataIntegrityViolationException rejected) {
+                    deadLetters.append(List.of(booking));
+                    metrics.count("booking.journal.dead_lettered");
+                    log.error("Acknowledged booking {} for showtime {}, seat {} was rejected and moved to the dead-letter journal: {}",
+                            booking.id(), booking.showtimeId(), booking.seatNumber(), rejected.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+    }
+
+    private static Object[] row(JournaledBooking booking)
+    {
+        return new Object[]{booking.id(), booking.showtimeId(), booking.seatNumber(), booking.userId(), booking.id()};
+    }
+}
@@ -0,0 +1,9 @@
+package com.att.tdp.popcorn_palace.journal;
+
+import java.util.List;
+
+// Records read from the journal, and the position right after the last one
+public record JournalBatch(List<JournaledBooking> bookings, JournalPosition next)
+{
+
+}
@@ -0,0 +1,7 @@
+package com.att.tdp.popcorn_palace.journal;
+
+// A record slot in the journal: the segment's sequence number and the record's index within it
+public record JournalPosition(long segment, int record)
+{
+
+}
@@ -0,0 +1,9 @@
+package com.att.tdp.popcorn_palace.journal;
+
+import java.util.UUID;
+
+// The columns of one bookings row, as written to the journal
+public record JournaledBooking(UUID id, long showtimeId, int seatNumber, UUID userId)
+{
+
+}
@@ -0,0 +1,95 @@
+package com.att.tdp.popcorn_palace.metrics;
+
+import com.att.tdp.popcorn_palace.dto.Outcome;
+import com.att.tdp.popcorn_palace.errors.BookingOverloadedException;
+import com.att.tdp.popcorn_palace.errors.ErrorCode;
+import com.att.tdp.popcorn_palace.errors.NotFoundException;
+import com.att.tdp.popcorn_palace.errors.SeatAlreadyBookedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+// Timers for service operations, tagged with how the operation ended.
+// Percentile histograms for these are switched on in application.yaml (management.metrics.distribution).
+@Component
+public class ServiceMetrics
+{
+    public static final String SUCCESS = "success";
+    public static final String SEAT_TAKEN = "seat_taken";
+    public static final String NOT_FOUND = "not_found";
+    public static final String REJECTED = "rejected";
+    public static final String OVERLOADED = "overloaded";
+    public static final String ERROR = "error";
+
+    private final MeterRegistry meterRegistry;
+
+    public ServiceMetrics(MeterRegistry meterRegistry)
+    {
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Run the operation and record its latency under name, with an outcome tag added to the given tags.
+    // An operation may end badly by throwing or by returning an Outcome.Failure; both are tagged the same way
+    public <T> T time(String name, Supplier<T> operation, String... tags)
+    {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = ERROR;
+        try {
+            T result = operation.get();
+            outcome = result instanceof Outcome.Failure<?> failure ? outcome(failure.code()) : SUCCESS;
+            return result;
+        } catch (RuntimeException e) {
+            outcome = outcome(e);
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(name).tags(tags).tag("outcome", outcome).register(meterRegistry));
+        }
+    }
+
+    public void time(String name, Runnable operation, String... tags)
+    {
+        time(name, () -> {
+            operation.run();
+            return null;
+        }, tags);
+    }
+
+    public void count(String name, String... tags)
+    {
+        meterRegistry.counter(name, tags).increment();
+    }
+
+    public void count(String name, long amount, String... tags)
+    {
+        meterRegistry.counter(name, tags).increment(amount);
+    }
+
+    private static String outcome(ErrorCode code)
+    {
+        return switch (code) {
+            case SEAT_TAKEN -> SEAT_TAKEN;
+            case NOT_FOUND -> NOT_FOUND;
+            case OVERLOADED -> OVERLOADED;
+            default -> REJECTED;
+        };
+    }
+
+    private static String outcome(RuntimeException e)
+    {
+        if (e instanceof SeatAlreadyBookedException) {
+            return SEAT_TAKEN;
+        }
+        if (e instanceof NotFoundException) {
+            return NOT_FOUND;
+        }
+        if (e instanceof IllegalArgumentException) {
+            return REJECTED;
+        }
+        if (e instanceof BookingOverloadedException) {
+            return OVERLOADED;
+        }
+        return ERROR;
+    }
+}
@@ -1,13 +1,13 @@
 package com.att.tdp.popcorn_palace.model;
 
+import com.att.tdp.popcorn_palace.model.id.UuidV7;
 import jakarta.persistence.*;
 import lombok.*;
-import org.hibernate.annotations.GenericGenerator;
 
 import java.util.UUID;
 
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", uniqueConstraints = @UniqueConstraint(name = Booking.SEAT_CONSTRAINT, columnNames = {"showtime_id", "seat_number"}))
 
 @Getter
 @Setter
@@ -17,13 +17,15 @@ import java.util.UUID;
 
 public class Booking
 {
+    // One booking per seat and showtime, enforced by the database
+    public static final String SEAT_CONSTRAINT = "uk_bookings_showtime_seat";
+
     @Id
-    @GeneratedValue(generator = "UUID")
-    @GenericGenerator(name = "UUID", strategy = "org.hibernate.id.UUIDGenerator")
+    @UuidV7
     @Column(updatable = false, nullable = false, columnDefinition = "UUID")
     private UUID id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "showtime_id", nullable = false)
     private Showtime showtime;
 
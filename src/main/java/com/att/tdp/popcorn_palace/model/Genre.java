@@ -0,0 +1,23 @@
+package com.att.tdp.popcorn_palace.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// A genre name, stored once; movies refer to it by id (GenreDictionary)
+@Entity
+@Table(name = "genres")
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+
+public class Genre
+{
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(nullable = false, unique = true)
+    private String name;
+}
@@ -1,13 +1,18 @@
 package com.att.tdp.popcorn_palace.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.att.tdp.popcorn_palace.cache.SecondLevelCacheConfiguration;
+import com.att.tdp.popcorn_palace.dictionary.GenreConverter;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.List;
 
 @Entity
 @Table(name = "movies")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfiguration.MOVIE_REGION)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -23,7 +28,9 @@ public class Movie
     @Column(nullable = false, unique = true)
     private String title;
 
-    @Column(nullable = false)
+    // The genre's name in the API, its id in the genres dictionary in the table
+    @Column(name = "genre_id", nullable = false)
+    @Convert(converter = GenreConverter.class)
     private String genre;
 
     @Column(nullable = false)
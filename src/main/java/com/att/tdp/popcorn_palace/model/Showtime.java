@@ -1,12 +1,22 @@
 package com.att.tdp.popcorn_palace.model;
 
+import com.att.tdp.popcorn_palace.cache.SecondLevelCacheConfiguration;
+import com.att.tdp.popcorn_palace.dictionary.TheaterConverter;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name="showtimes")
+@Table(name="showtimes", indexes = {
+        // Showtime search: one index per leading filter, each ending in the (start_time, id) sort key
+        @Index(name = "idx_showtimes_theater_start_time", columnList = "theater_id, start_time, id"),
+        @Index(name = "idx_showtimes_movie_start_time", columnList = "movie_id, start_time, id"),
+        @Index(name = "idx_showtimes_start_time", columnList = "start_time, id")
+})
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfiguration.SHOWTIME_REGION)
 
 @Getter
 @Setter
@@ -15,15 +25,20 @@ import java.util.List;
 
 public class Showtime {
 
+    // No two showtimes of a theater may overlap; an exclusion constraint on PostgreSQL
+    public static final String OVERLAP_CONSTRAINT = "ex_showtimes_theater_overlap";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "movie_id", nullable = false)
     private Movie movie;
 
-    @Column(nullable = false)
+    // The theater's name in the API, its id in the theaters dictionary in the table
+    @Column(name = "theater_id", nullable = false)
+    @Convert(converter = TheaterConverter.class)
     private String theater;
 
     @Column(nullable = false)
@@ -0,0 +1,23 @@
+package com.att.tdp.popcorn_palace.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// A theater name, stored once; showtimes refer to it by id (TheaterDictionary)
+@Entity
+@Table(name = "theaters")
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+
+public class Theater
+{
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(nullable = false, unique = true)
+    private String name;
+}
@@ -0,0 +1,77 @@
+package com.att.tdp.popcorn_palace.occupancy;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Occupancy of a single showtime, one bit per seat (seat N is bit N - 1).
+// Claims and releases are lock-free CAS updates on the backing words.
+public class SeatBitmap
+{
+    private final int capacity;
+    private final AtomicLongArray words;
+
+    public SeatBitmap(int capacity)
+    {
+        this.capacity = capacity;
+        this.words = new AtomicLongArray((capacity + 63) >>> 6);
+    }
+
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    public boolean isTaken(int seatNumber)
+    {
+        int bit = seatNumber - 1;
+        return (words.get(bit >>> 6) & (1L << bit)) != 0;
+    }
+
+    // Returns false if the seat was already taken
+    public boolean tryClaim(int seatNumber)
+    {
+        int bit = seatNumber - 1;
+        int index = bit >>> 6;
+        long mask = 1L << bit;
+        long current;
+        do {
+            current = words.get(index);
+            if ((current & mask) != 0) {
+                return false;
+            }
+        } while (!words.compareAndSet(index, current, current | mask));
+        return true;
+    }
+
+    public void release(int seatNumber)
+    {
+        int bit = seatNumber - 1;
+        int index = bit >>> 6;
+        long mask = 1L << bit;
+        long current;
+        do {
+            current = words.get(index);
+            if ((current & mask) == 0) {
+                return;
+            }
+        } while (!words.compareAndSet(index, current, current & ~mask));
+    }
+
+    // Point-in-time copy of the backing words
+    public long[] snapshot()
+    {
+        long[] copy = new long[words.length()];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = words.get(i);
+        }
+        return copy;
+    }
+
+    public int takenCount()
+    {
+        int count = 0;
+        for (int i = 0; i < words.length(); i++) {
+            count += Long.bitCount(words.get(i));
+        }
+        return count;
+    }
+}
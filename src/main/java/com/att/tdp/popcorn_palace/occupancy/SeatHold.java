@@ -0,0 +1,72 @@
+package com.att.tdp.popcorn_palace.occupancy;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+// A temporary claim on a seat; it sits in a DelayQueue until it expires
+public class SeatHold implements Delayed
+{
+    private final UUID id;
+    private final Long showtimeId;
+    private final int seatNumber;
+    private final UUID userId;
+    private final Instant expiresAt;
+    private final long expiresAtNanos;
+
+    public SeatHold(UUID id, Long showtimeId, int seatNumber, UUID userId, long ttlNanos)
+    {
+        this.id = id;
+        this.showtimeId = showtimeId;
+        this.seatNumber = seatNumber;
+        this.userId = userId;
+        this.expiresAt = Instant.now().plusNanos(ttlNanos);
+        this.expiresAtNanos = System.nanoTime() + ttlNanos;
+    }
+
+    public UUID getId()
+    {
+        return id;
+    }
+
+    public Long getShowtimeId()
+    {
+        return showtimeId;
+    }
+
+    public int getSeatNumber()
+    {
+        return seatNumber;
+    }
+
+    public UUID getUserId()
+    {
+        return userId;
+    }
+
+    public Instant getExpiresAt()
+    {
+        return expiresAt;
+    }
+
+    public boolean isExpired()
+    {
+        return System.nanoTime() - expiresAtNanos >= 0;
+    }
+
+    @Override
+    public long getDelay(TimeUnit unit)
+    {
+        return unit.convert(expiresAtNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed other)
+    {
+        if (other instanceof SeatHold hold) {
+            return Long.compare(expiresAtNanos, hold.expiresAtNanos);
+        }
+        return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+    }
+}
@@ -0,0 +1,205 @@
+package com.att.tdp.popcorn_palace.occupancy;
+
+import com.att.tdp.popcorn_palace.cache.LoadingMap;
+import com.att.tdp.popcorn_palace.datasource.ReplicaRoutingDataSource;
+import com.att.tdp.popcorn_palace.repository.BookingRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import static com.att.tdp.popcorn_palace.validation.BookingValidator.MAX_SEAT_NUMBER;
+
+// In-memory seat occupancy per showtime, loaded lazily from the bookings table.
+// Used as the first-line availability check before the database is touched.
+// Seat holds exist only here. They are kept in a set of their own per showtime and claimed again in every bitmap
+// that is loaded, so evicting a bitmap does not free a held seat. Like the bitmaps, they belong to one instance:
+// another instance neither sees nor respects them.
+@Component
+public class SeatOccupancyRegistry
+{
+    private final BookingRepository bookingRepository;
+    private final boolean enabled;
+    private final LoadingMap<Long, SeatBitmap> bitmaps = new LoadingMap<>(this::load);
+    private final Map<Long, Set<Integer>> heldSeats = new ConcurrentHashMap<>();
+
+    public SeatOccupancyRegistry(BookingRepository bookingRepository,
+                                 @Value("${popcorn-palace.booking.seat-bitmap.enabled:true}") boolean enabled)
+    {
+        this.bookingRepository = bookingRepository;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    // True only if the seat is known to be taken; never loads from the database
+    public boolean isTaken(Long showtimeId, int seatNumber)
+    {
+        if (!enabled) {
+            return false;
+        }
+        SeatBitmap bitmap = bitmaps.getIfPresent(showtimeId);
+        return bitmap != null && bitmap.isTaken(seatNumber);
+    }
+
+    // Claim a seat, loading the showtime's bookings on first use
+    public boolean tryClaim(Long showtimeId, int seatNumber)
+    {
+        if (!enabled) {
+            return true;
+        }
+        return bitmaps.get(showtimeId).tryClaim(seatNumber);
+    }
+
+    // Claim all seats or none; returns the seats that were already taken
+    public List<Integer> tryClaimAll(Long showtimeId, List<Integer> seatNumbers)
+    {
+        if (!enabled) {
+            return List.of();
+        }
+        SeatBitmap bitmap = bitmaps.get(showtimeId);
+        List<Integer> claimed = new ArrayList<>(seatNumbers.size());
+        List<Integer> taken = new ArrayList<>();
+        for (Integer seatNumber : seatNumbers) {
+            if (bitmap.tryClaim(seatNumber)) {
+                claimed.add(seatNumber);
+            } else {
+                taken.add(seatNumber);
+            }
+        }
+        if (!taken.isEmpty()) {
+            claimed.forEach(bitmap::release);
+        }
+        return taken;
+    }
+
+    public void release(Long showtimeId, int seatNumber)
+    {
+        if (!enabled) {
+            return;
+        }
+        SeatBitmap bitmap = bitmaps.getIfPresent(showtimeId);
+        if (bitmap != null) {
+            bitmap.release(seatNumber);
+        }
+    }
+
+    // Claim a seat for a hold; false if it is taken. Without the bitmap nothing on the booking path would see the hold
+    public boolean hold(Long showtimeId, int seatNumber)
+    {
+        if (!enabled) {
+            throw new IllegalStateException("Seat holds require the seat bitmap to be enabled");
+        }
+        SeatBitmap bitmap = bitmaps.get(showtimeId);
+        if (!bitmap.tryClaim(seatNumber)) {
+            return false;
+        }
+        heldSeats.compute(showtimeId, (id, seats) -> {
+            Set<Integer> held = seats != null ? seats : new HashSet<>();
+            held.add(seatNumber);
+            return held;
+        });
+        // A bitmap loaded before the seat was added to the set misses the hold
+        applyToNewerBitmaps(showtimeId, bitmap, newer -> newer.tryClaim(seatNumber));
+        return true;
+    }
+
+    // End a hold and free its seat
+    public void releaseHold(Long showtimeId, int seatNumber)
+    {
+        if (endHold(showtimeId, seatNumber)) {
+            SeatBitmap bitmap = bitmaps.get(showtimeId);
+            bitmap.release(seatNumber);
+            // A bitmap loaded before the seat left the set still has it claimed
+            applyToNewerBitmaps(showtimeId, bitmap, newer -> newer.release(seatNumber));
+        }
+    }
+
+    // End a hold but keep its seat claimed, e.g. for the booking it turns into; false if there was no such hold
+    public boolean endHold(Long showtimeId, int seatNumber)
+    {
+        boolean[] removed = new boolean[1];
+        heldSeats.computeIfPresent(showtimeId, (id, seats) -> {
+            removed[0] = seats.remove(seatNumber);
+            return seats.isEmpty() ? null : seats;
+        });
+        return removed[0];
+    }
+
+    // Drop the showtime's bitmap once the surrounding transaction is over, so the next use reloads it; called when the database knows a booking the bitmap does not
+    public void evictAfterCompletion(Long showtimeId)
+    {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(showtimeId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization()
+        {
+            @Override
+            public void afterCompletion(int status)
+            {
+                evict(showtimeId);
+            }
+        });
+    }
+
+    // True if the showtime's bitmap is already in memory; deleted showtimes are evicted
+    public boolean isLoaded(Long showtimeId)
+    {
+        return enabled && bitmaps.getIfPresent(showtimeId) != null;
+    }
+
+    // Occupancy words of a showtime (bit N - 1 set means seat N is taken, held seats included).
+    // With the bitmap disabled this is built from a single projection query on every call.
+    public long[] snapshot(Long showtimeId)
+    {
+        SeatBitmap bitmap = enabled ? bitmaps.get(showtimeId) : load(showtimeId);
+        return bitmap.snapshot();
+    }
+
+    public void evict(Long showtimeId)
+    {
+        bitmaps.remove(showtimeId);
+    }
+
+    // From the primary: a bitmap loaded from a lagging replica would miss the latest bookings for as long as it is cached
+    private SeatBitmap load(Long showtimeId)
+    {
+        SeatBitmap bitmap = new SeatBitmap(MAX_SEAT_NUMBER);
+        for (Integer seatNumber : ReplicaRoutingDataSource.onPrimary(() -> bookingRepository.findSeatNumbersByShowtimeId(showtimeId))) {
+            bitmap.tryClaim(seatNumber);
+        }
+        List<Integer> held = new ArrayList<>();
+        heldSeats.computeIfPresent(showtimeId, (id, seats) -> {
+            held.addAll(seats);
+            return seats;
+        });
+        held.forEach(bitmap::tryClaim);
+        return bitmap;
+    }
+
+    // Repeat a hold change on every bitmap loaded since the given one, until it is the current one
+    private void applyToNewerBitmaps(Long showtimeId, SeatBitmap bitmap, Consumer<SeatBitmap> change)
+    {
+        SeatBitmap current = bitmaps.get(showtimeId);
+        while (current != bitmap) {
+            change.accept(current);
+            bitmap = current;
+            current = bitmaps.get(showtimeId);
+        }
+    }
+}
@@ -2,12 +2,32 @@ package com.att.tdp.popcorn_palace.repository;
 
 import com.att.tdp.popcorn_palace.model.Booking;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking,UUID>
 {
     boolean existsByShowtimeIdAndSeatNumber(Long showtimeId, int seatNumber);
+
+    @Query("select b.seatNumber from Booking b where b.showtime.id = :showtimeId")
+    List<Integer> findSeatNumbersByShowtimeId(@Param("showtimeId") Long showtimeId);
+
+    @Query("select b.seatNumber from Booking b where b.showtime.id = :showtimeId and b.seatNumber in :seatNumbers")
+    List<Integer> findBookedSeatNumbers(@Param("showtimeId") Long showtimeId, @Param("seatNumbers") Collection<Integer> seatNumbers);
+
+    // Set-based deletes: one statement, no bookings loaded into the persistence context
+    @Modifying
+    @Query("delete from Booking b where b.showtime.id = :showtimeId")
+    int bulkDeleteByShowtimeId(@Param("showtimeId") Long showtimeId);
+
+    @Modifying
+    @Query("delete from Booking b where b.showtime.id in (select s.id from Showtime s where s.movie.id = :movieId)")
+    int bulkDeleteByMovieId(@Param("movieId") Long movieId);
 }
 
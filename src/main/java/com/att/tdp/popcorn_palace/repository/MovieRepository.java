@@ -1,13 +1,34 @@
 package com.att.tdp.popcorn_palace.repository;
 
 import com.att.tdp.popcorn_palace.model.Movie;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface MovieRepository extends JpaRepository<Movie,Long>
 {
     Optional<Movie> findByTitle(String title);
+
+    List<Movie> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select m from Movie m order by m.id")
+    Stream<Movie> streamAllOrderById();
+
+    // Set-based delete; showtimes and their bookings have to be deleted first
+    @Modifying
+    @Query("delete from Movie m where m.id = :id")
+    int bulkDeleteById(@Param("id") Long id);
 }
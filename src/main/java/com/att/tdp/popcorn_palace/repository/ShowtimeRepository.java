@@ -1,13 +1,51 @@
 package com.att.tdp.popcorn_palace.repository;
 
+import com.att.tdp.popcorn_palace.dto.ShowtimeDTO;
 import com.att.tdp.popcorn_palace.model.Showtime;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface ShowtimeRepository extends JpaRepository<Showtime,Long>
+public interface ShowtimeRepository extends JpaRepository<Showtime,Long>, ShowtimeSearch
 {
-    List<Showtime> findAllByTheater(String theater);
+    // Exactly the ShowtimeDTO columns in one statement; movie.id is the foreign key column, so movies is not joined.
+    // Results go to the query cache, which drops them whenever the showtimes table is written
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    @Query("select new com.att.tdp.popcorn_palace.dto.ShowtimeDTO(s.id, s.movie.id, s.theater, s.start_time, s.end_time, s.price) "
+            + "from Showtime s where s.id = :id")
+    Optional<ShowtimeDTO> findDTOById(@Param("id") Long id);
+
+    // IDs of the showtimes of a theater overlapping [start, end). Only showtimes starting after `earliestStart` can
+    // (start minus the longest allowed showtime), so the database reads one bounded range of the
+    // (theater_id, start_time) index, from `end` backwards; with Limit.of(1) an overlap is usually the first row
+    @Query("select s.id from Showtime s "
+            + "where s.theater = :theater and s.start_time > :earliestStart and s.start_time < :end and s.end_time > :start "
+            + "and (:excludeId is null or s.id <> :excludeId) "
+            + "order by s.theater desc, s.start_time desc")
+    List<Long> findIdsOverlapping(@Param("theater") String theater, @Param("earliestStart") LocalDateTime earliestStart,
+                                  @Param("start") LocalDateTime start, @Param("end") LocalDateTime end,
+                                  @Param("excludeId") Long excludeId, Limit limit);
+
+    @Query("select s.id from Showtime s where s.movie.id = :movieId")
+    List<Long> findIdsByMovieId(@Param("movieId") Long movieId);
+
+    // Set-based deletes; bookings have to be deleted first
+    @Modifying
+    @Query("delete from Showtime s where s.id = :id")
+    int bulkDeleteById(@Param("id") Long id);
+
+    @Modifying
+    @Query("delete from Showtime s where s.movie.id = :movieId")
+    int bulkDeleteByMovieId(@Param("movieId") Long movieId);
 }
@@ -0,0 +1,15 @@
+package com.att.tdp.popcorn_palace.repository;
+
+import com.att.tdp.popcorn_palace.dto.ShowtimeDTO;
+import com.att.tdp.popcorn_palace.dto.ShowtimeFilter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Showtime search with keyset pagination; implemented in ShowtimeSearchImpl, part of ShowtimeRepository
+public interface ShowtimeSearch
+{
+    // Up to `limit` showtimes matching the filter, ordered by (start_time, id) and starting after the given key
+    // (afterStart and afterId are both null for the first page)
+    List<ShowtimeDTO> search(ShowtimeFilter filter, LocalDateTime afterStart, Long afterId, int limit);
+}
@@ -0,0 +1,71 @@
+package com.att.tdp.popcorn_palace.repository;
+
+import com.att.tdp.popcorn_palace.dictionary.TheaterDictionary;
+import com.att.tdp.popcorn_palace.dto.ShowtimeDTO;
+import com.att.tdp.popcorn_palace.dto.ShowtimeFilter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Only the criteria that are set make it into the query, so each combination gets its own plan and the database
+// can pick the matching index: (theater_id, start_time, id), (movie_id, start_time, id) or (start_time, id).
+// The order by names the whole index key, equality column included, so the rows come straight off the index and
+// a page is a range scan that stops after `limit` rows, however deep it is.
+// A theater that is not in the dictionary has no showtimes, so it is answered without a query (and not added).
+public class ShowtimeSearchImpl implements ShowtimeSearch
+{
+    private final EntityManager entityManager;
+    private final TheaterDictionary theaters;
+
+    public ShowtimeSearchImpl(EntityManager entityManager, TheaterDictionary theaters)
+    {
+        this.entityManager = entityManager;
+        this.theaters = theaters;
+    }
+
+    @Override
+    public List<ShowtimeDTO> search(ShowtimeFilter filter, LocalDateTime afterStart, Long afterId, int limit)
+    {
+        List<String> conditions = new ArrayList<>();
+        Map<String, Object> parameters = new HashMap<>();
+        String orderBy = "s.start_time, s.id";
+        if (filter.movieId() != null) {
+            conditions.add("s.movie.id = :movieId");
+            parameters.put("movieId", filter.movieId());
+            orderBy = "s.movie.id, s.start_time, s.id";
+        }
+        if (filter.theater() != null) {
+            if (theaters.find(filter.theater()) == null) {
+                return List.of();
+            }
+            conditions.add("s.theater = :theater");
+            parameters.put("theater", filter.theater());
+            orderBy = "s.theater, s.start_time, s.id";
+        }
+        if (filter.from() != null) {
+            conditions.add("s.start_time >= :from");
+            parameters.put("from", filter.from());
+        }
+        if (filter.to() != null) {
+            conditions.add("s.start_time < :to");
+            parameters.put("to", filter.to());
+        }
+        if (afterStart != null) {
+            conditions.add("(s.start_time, s.id) > (:afterStart, :afterId)");
+            parameters.put("afterStart", afterStart);
+            parameters.put("afterId", afterId);
+        }
+
+        String jpql = "select new com.att.tdp.popcorn_palace.dto.ShowtimeDTO(s.id, s.movie.id, s.theater, s.start_time, s.end_time, s.price) "
+                + "from Showtime s" + (conditions.isEmpty() ? "" : " where " + String.join(" and ", conditions))
+                + " order by " + orderBy;
+        TypedQuery<ShowtimeDTO> query = entityManager.createQuery(jpql, ShowtimeDTO.class).setMaxResults(limit);
+        parameters.forEach(query::setParameter);
+        return query.getResultList();
+    }
+}
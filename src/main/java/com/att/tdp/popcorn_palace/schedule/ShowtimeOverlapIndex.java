@@ -0,0 +1,37 @@
+package com.att.tdp.popcorn_palace.schedule;
+
+import com.att.tdp.popcorn_palace.repository.ShowtimeRepository;
+import com.att.tdp.popcorn_palace.validation.ShowtimeValidator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+// Overlap checks answered by one existence query on the (theater_id, start_time) index, without loading a theater's
+// schedule. Showtimes are at most ShowtimeValidator.MAX_DURATION long, so only those starting within that much of the
+// new start are read, however long the theater's history is. The query tests both ends of every candidate rather than assuming the stored showtimes never overlap: H2 has no
+// constraint behind that, and a PostgreSQL database from before the constraint may still hold overlapping rows.
+// The database enforces the same rule on PostgreSQL (see schema-postgresql.sql), which settles concurrent writers.
+@Component
+public class ShowtimeOverlapIndex
+{
+    private final ShowtimeRepository showtimeRepository;
+    private final Timer checkTimer;
+
+    public ShowtimeOverlapIndex(ShowtimeRepository showtimeRepository, MeterRegistry meterRegistry)
+    {
+        this.showtimeRepository = showtimeRepository;
+        this.checkTimer = Timer.builder("showtime.overlap.check").register(meterRegistry);
+    }
+
+    // Does [start, end) overlap any showtime in the theater, ignoring excludeId
+    public boolean overlaps(String theater, LocalDateTime start, LocalDateTime end, Long excludeId)
+    {
+        return checkTimer.record(() -> {
+            LocalDateTime earliestStart = start.minus(ShowtimeValidator.MAX_DURATION);
+            return !showtimeRepository.findIdsOverlapping(theater, earliestStart, start, end, excludeId, Limit.of(1)).isEmpty();
+        });
+    }
+}
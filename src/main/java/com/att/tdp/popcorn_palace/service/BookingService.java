@@ -1,43 +1,253 @@
 package com.att.tdp.popcorn_palace.service;
 
+import com.att.tdp.popcorn_palace.datasource.ReplicaRoutingDataSource;
+import com.att.tdp.popcorn_palace.dto.BatchBookingRequest;
+import com.att.tdp.popcorn_palace.dto.Outcome;
+import com.att.tdp.popcorn_palace.errors.ConstraintViolations;
+import com.att.tdp.popcorn_palace.errors.ErrorCode;
 import com.att.tdp.popcorn_palace.errors.NotFoundException;
+import com.att.tdp.popcorn_palace.errors.SeatAlreadyBookedException;
+import com.att.tdp.popcorn_palace.groupcommit.BookingGroupCommit;
+import com.att.tdp.popcorn_palace.journal.BookingWriteBehind;
+import com.att.tdp.popcorn_palace.metrics.ServiceMetrics;
 import com.att.tdp.popcorn_palace.model.Booking;
 import com.att.tdp.popcorn_palace.model.Showtime;
+import com.att.tdp.popcorn_palace.occupancy.SeatOccupancyRegistry;
 import com.att.tdp.popcorn_palace.repository.BookingRepository;
 import com.att.tdp.popcorn_palace.repository.ShowtimeRepository;
 import com.att.tdp.popcorn_palace.validation.BookingValidator;
-import jakarta.transaction.Transactional;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
-import java.util.UUID;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
 
+// Not @Transactional as a whole: each insert is its own transaction, and a caller waiting on the group commit
+// must not hold a pooled connection the writer needs.
+// A taken seat or a missing showtime is an Outcome.Failure internally; save and saveAll turn it into an exception,
+// while the controller calls tryBook and tryBookAll and answers it without throwing
 @Service
-@Transactional
 public class BookingService
 {
+    private static final String OPERATION_TIMER = "booking.operation";
+    private static final String STAGE_BITMAP = "bitmap";
+    private static final String STAGE_CLAIM = "claim";
+    private static final String STAGE_DATABASE = "database";
+
     private final BookingRepository bookingRepository;
     private final ShowtimeRepository showtimeRepository;
     private final BookingValidator bookingValidator;
+    private final SeatOccupancyRegistry seatOccupancy;
+    private final BookingWriteBehind writeBehind;
+    private final BookingGroupCommit groupCommit;
+    private final ServiceMetrics metrics;
 
-    public BookingService(BookingRepository bookingRepository, ShowtimeRepository showtimeRepository, BookingValidator bookingValidator)
+    public BookingService(BookingRepository bookingRepository, ShowtimeRepository showtimeRepository, BookingValidator bookingValidator, SeatOccupancyRegistry seatOccupancy, BookingWriteBehind writeBehind, BookingGroupCommit groupCommit, ServiceMetrics metrics)
     {
         this.bookingRepository = bookingRepository;
         this.showtimeRepository = showtimeRepository;
         this.bookingValidator = bookingValidator;
+        this.seatOccupancy = seatOccupancy;
+        this.writeBehind = writeBehind;
+        this.groupCommit = groupCommit;
+        this.metrics = metrics;
     }
 
     // Add booking
     public Booking save(Booking booking, Long showtimeId)
+    {
+        return tryBook(booking, showtimeId).orElseThrow();
+    }
+
+    // Add booking; a taken seat or a missing showtime is returned as a failure
+    public Outcome<Booking> tryBook(Booking booking, Long showtimeId)
+    {
+        return metrics.time(OPERATION_TIMER, () -> ReplicaRoutingDataSource.onPrimary(() -> book(booking, showtimeId)), "operation", "save");
+    }
+
+    // Add several bookings for one showtime, all or none
+    public List<Booking> saveAll(BatchBookingRequest request)
+    {
+        return tryBookAll(request).orElseThrow();
+    }
+
+    // Add several bookings for one showtime, all or none; a taken seat or a missing showtime is returned as a failure
+    public Outcome<List<Booking>> tryBookAll(BatchBookingRequest request)
+    {
+        return metrics.time(OPERATION_TIMER, () -> ReplicaRoutingDataSource.onPrimary(() -> bookAll(request)), "operation", "save_batch");
+    }
+
+    private Outcome<Booking> book(Booking booking, Long showtimeId)
     {
         bookingValidator.validateBooking(booking, showtimeId);
-        Showtime showtime = showtimeRepository.findById(showtimeId).orElseThrow(() -> new NotFoundException("Showtime not found with ID: " + showtimeId));
-        boolean seatTaken = bookingRepository.existsByShowtimeIdAndSeatNumber(showtimeId, booking.getSeatNumber());
+        int seatNumber = booking.getSeatNumber();
+
+        // Seats already known to be taken are rejected without a database round trip
+        if (seatOccupancy.isTaken(showtimeId, seatNumber)) {
+            return seatAlreadyBooked(STAGE_BITMAP, seatNumber);
+        }
+        Optional<Showtime> showtime = showtimeRepository.findById(showtimeId);
+        if (showtime.isEmpty()) {
+            return showtimeNotFound(showtimeId);
+        }
 
-        if (seatTaken) {
-            throw new IllegalArgumentException("Seat " + booking.getSeatNumber() + " is already booked for this showtime");
+        if (!seatOccupancy.tryClaim(showtimeId, seatNumber)) {
+            return seatAlreadyBooked(STAGE_CLAIM, seatNumber);
         }
-        //booking.setId(UUID.randomUUID());
+
+        booking.setShowtime(showtime.get());
+        return insert(booking, showtimeId);
+    }
+
+    // Add a booking for a seat already claimed in the SeatOccupancyRegistry (e.g. by a hold)
+    public Booking saveClaimed(Booking booking, Long showtimeId)
+    {
+        int seatNumber = booking.getSeatNumber();
+        Showtime showtime;
+        try {
+            showtime = ReplicaRoutingDataSource.onPrimary(() -> showtimeRepository.findById(showtimeId))
+                    .orElseThrow(() -> new NotFoundException("Showtime not found with ID: " + showtimeId));
+        } catch (RuntimeException e) {
+            seatOccupancy.release(showtimeId, seatNumber);
+            throw e;
+        }
+
         booking.setShowtime(showtime);
-        return bookingRepository.save(booking);
+        return insert(booking, showtimeId).orElseThrow();
+    }
+
+    // Insert without looking the seat up first: the unique (showtime_id, seat_number) constraint settles races,
+    // including ones with other instances the in-memory claim cannot see
+    private Outcome<Booking> insert(Booking booking, Long showtimeId)
+    {
+        if (writeBehind.isEnabled()) {
+            return Outcome.success(journal(List.of(booking), showtimeId).get(0));
+        }
+        if (groupCommit.isEnabled()) {
+            return groupCommit(List.of(booking), showtimeId).map(bookings -> bookings.get(0));
+        }
+        // saveAndFlush commits on its own, so the catch blocks below are what give the claim back on failure
+        int seatNumber = booking.getSeatNumber();
+        try {
+            return Outcome.success(bookingRepository.saveAndFlush(booking));
+        } catch (DataIntegrityViolationException e) {
+            if (!isSeatConflict(e)) {
+                seatOccupancy.release(showtimeId, seatNumber);
+                throw e;
+            }
+            seatOccupancy.evictAfterCompletion(showtimeId);
+            return seatAlreadyBooked(STAGE_DATABASE, seatNumber);
+        } catch (RuntimeException e) {
+            seatOccupancy.release(showtimeId, seatNumber);
+            throw e;
+        }
+    }
+
+    private Outcome<List<Booking>> bookAll(BatchBookingRequest request)
+    {
+        bookingValidator.validateBatch(request);
+        Long showtimeId = request.showtimeId();
+        List<Integer> seatNumbers = request.seatNumbers();
+
+        for (Integer seatNumber : seatNumbers) {
+            if (seatOccupancy.isTaken(showtimeId, seatNumber)) {
+                return seatAlreadyBooked(STAGE_BITMAP, seatNumber);
+            }
+        }
+        Optional<Showtime> showtime = showtimeRepository.findById(showtimeId);
+        if (showtime.isEmpty()) {
+            return showtimeNotFound(showtimeId);
+        }
+
+        List<Integer> taken = seatOccupancy.tryClaimAll(showtimeId, seatNumbers);
+        if (!taken.isEmpty()) {
+            return seatsAlreadyBooked(STAGE_CLAIM, taken);
+        }
+        // One lookup for the whole batch, so the error can name every seat that is taken
+        taken = bookingRepository.findBookedSeatNumbers(showtimeId, seatNumbers);
+        if (!taken.isEmpty()) {
+            seatNumbers.forEach(seatNumber -> seatOccupancy.release(showtimeId, seatNumber));
+            return seatsAlreadyBooked(STAGE_DATABASE, taken);
+        }
+
+        List<Booking> bookings = new ArrayList<>(seatNumbers.size());
+        for (Integer seatNumber : seatNumbers) {
+            Booking booking = new Booking();
+            booking.setShowtime(showtime.get());
+            booking.setSeatNumber(seatNumber);
+            booking.setUserId(request.userId());
+            bookings.add(booking);
+        }
+
+        if (writeBehind.isEnabled()) {
+            return Outcome.success(journal(bookings, showtimeId));
+        }
+        if (groupCommit.isEnabled()) {
+            return groupCommit(bookings, showtimeId);
+        }
+        try {
+            return Outcome.success(bookingRepository.saveAllAndFlush(bookings));
+        } catch (DataIntegrityViolationException e) {
+            if (!isSeatConflict(e)) {
+                seatNumbers.forEach(seatNumber -> seatOccupancy.release(showtimeId, seatNumber));
+                throw e;
+            }
+            // A seat was booked after the lookup; the constraint does not say which one
+            seatOccupancy.evictAfterCompletion(showtimeId);
+            return seatsAlreadyBooked(STAGE_DATABASE, seatNumbers);
+        } catch (RuntimeException e) {
+            seatNumbers.forEach(seatNumber -> seatOccupancy.release(showtimeId, seatNumber));
+            throw e;
+        }
+    }
+
+    // Write-behind: the claimed seats are the booking until the journal drains them into the table
+    private List<Booking> journal(List<Booking> bookings, Long showtimeId)
+    {
+        try {
+            return writeBehind.append(bookings);
+        } catch (RuntimeException e) {
+            bookings.forEach(booking -> seatOccupancy.release(showtimeId, booking.getSeatNumber()));
+            throw e;
+        }
+    }
+
+    // Group commit: the insert is written together with other callers' bookings, but fails only for this one's seats
+    private Outcome<List<Booking>> groupCommit(List<Booking> bookings, Long showtimeId)
+    {
+        try {
+            return Outcome.success(groupCommit.commit(bookings));
+        } catch (SeatAlreadyBookedException e) {
+            seatOccupancy.evictAfterCompletion(showtimeId);
+            metrics.count("booking.seat.rejected", "stage", STAGE_DATABASE);
+            return Outcome.failure(ErrorCode.SEAT_TAKEN, e.getMessage());
+        } catch (RuntimeException e) {
+            bookings.forEach(booking -> seatOccupancy.release(showtimeId, booking.getSeatNumber()));
+            throw e;
+        }
+    }
+
+    private static boolean isSeatConflict(DataIntegrityViolationException e)
+    {
+        return ConstraintViolations.isViolated(e, Booking.SEAT_CONSTRAINT);
+    }
+
+    // Count where in the booking path a seat conflict was detected, to see contention by stage
+    private <T> Outcome<T> seatsAlreadyBooked(String stage, List<Integer> seatNumbers)
+    {
+        metrics.count("booking.seat.rejected", "stage", stage);
+        return Outcome.failure(ErrorCode.SEAT_TAKEN, SeatAlreadyBookedException.message(seatNumbers));
+    }
+
+    private <T> Outcome<T> seatAlreadyBooked(String stage, int seatNumber)
+    {
+        metrics.count("booking.seat.rejected", "stage", stage);
+        return Outcome.failure(ErrorCode.SEAT_TAKEN, SeatAlreadyBookedException.message(seatNumber));
+    }
+
+    private static <T> Outcome<T> showtimeNotFound(Long showtimeId)
+    {
+        return Outcome.failure(ErrorCode.NOT_FOUND, "Showtime not found with ID: " + showtimeId);
     }
 }
@@ -0,0 +1,322 @@
+package com.att.tdp.popcorn_palace.service;
+
+import com.att.tdp.popcorn_palace.dictionary.GenreDictionary;
+import com.att.tdp.popcorn_palace.dto.ImportReport;
+import com.att.tdp.popcorn_palace.metrics.ServiceMetrics;
+import com.att.tdp.popcorn_palace.model.Movie;
+import com.att.tdp.popcorn_palace.validation.MovieValidator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Bulk catalog import. Rows are read, validated and normalized one line at a time and written with plain
+// JDBC batches, one transaction per batch: Movie.id is an IDENTITY column, which stops Hibernate from
+// batching inserts at all. A bad row is reported and skipped; it never aborts the rest of the file.
+@Service
+public class MovieImportService
+{
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final String INSERT_MOVIE =
+            "insert into movies (title, genre_id, duration, rating, release_year) values (?, ?, ?, ?, ?) on conflict do nothing";
+    private static final List<String> CSV_COLUMNS = List.of("title", "genre", "duration", "rating", "releaseyear");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MovieValidator movieValidator;
+    private final GenreDictionary genres;
+    private final ObjectReader movieReader;
+    private final ServiceMetrics metrics;
+    private final int batchSize;
+
+    public MovieImportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, MovieValidator movieValidator,
+                              GenreDictionary genres, ObjectMapper objectMapper, ServiceMetrics metrics,
+                              @Value("${popcorn-palace.movie-import.batch-size:1000}") int batchSize)
+    {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Import batch size must be at least 1");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.movieValidator = movieValidator;
+        this.genres = genres;
+        this.movieReader = objectMapper.readerFor(Movie.class);
+        this.metrics = metrics;
+        this.batchSize = batchSize;
+    }
+
+    // CSV with a header row naming the columns title, genre, duration, rating and releaseYear (any order)
+    public ImportReport importCsv(Reader reader)
+    {
+        return metrics.time("movie.operation", () -> {
+            try (BufferedReader lines = new BufferedReader(reader)) {
+                long lineNumber = 0;
+                String header;
+                do {
+                    header = lines.readLine();
+                    lineNumber++;
+                } while (header != null && header.isBlank());
+                if (header == null) {
+                    throw new IllegalArgumentException("CSV file is empty");
+                }
+                return importLines(lines, lineNumber, CsvRows.fromHeader(header));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, "operation", "import_csv");
+    }
+
+    // One JSON movie object per line, as produced by GET /movies/all with Accept: application/x-ndjson
+    public ImportReport importNdjson(Reader reader)
+    {
+        return metrics.time("movie.operation", () -> {
+            try (BufferedReader lines = new BufferedReader(reader)) {
+                return importLines(lines, 0, this::parseJson);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, "operation", "import_ndjson");
+    }
+
+    private ImportReport importLines(BufferedReader lines, long lineNumber, RowParser parser) throws IOException
+    {
+        Progress progress = new Progress();
+        List<PendingRow> batch = new ArrayList<>(batchSize);
+        String line;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            progress.received++;
+            Movie movie;
+            try {
+                movie = parser.parse(line);
+                movieValidator.validate(movie);
+            } catch (IllegalArgumentException e) {
+                progress.fail(lineNumber, e.getMessage());
+                continue;
+            }
+            movie.setTitle(movieValidator.cleanString(movie.getTitle()));
+            movie.setGenre(movieValidator.cleanString(movie.getGenre()));
+            batch.add(new PendingRow(lineNumber, movie));
+
+            if (batch.size() == batchSize) {
+                write(batch, progress);
+                batch.clear();
+            }
+        }
+        write(batch, progress);
+
+        // Duplicates are only found when their batch is written, after later rows were validated
+        progress.errors.sort(Comparator.comparingLong(ImportReport.RowError::line));
+        metrics.count("movie.import.rows", progress.imported, "result", "imported");
+        metrics.count("movie.import.rows", progress.failed, "result", "failed");
+        return new ImportReport(progress.received, progress.imported, progress.failed, progress.errors);
+    }
+
+    private void write(List<PendingRow> batch, Progress progress)
+    {
+        if (batch.isEmpty()) {
+            return;
+        }
+        int[] counts;
+        try {
+            counts = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(INSERT_MOVIE, batch, batch.size(),
+                    (statement, row) -> bind(statement, row.movie())))[0];
+        } catch (DataAccessException e) {
+            // Something other than a duplicate title broke the batch; retry row by row to find the culprit
+            writeOneByOne(batch, progress);
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            record(batch.get(i), counts[i], progress);
+        }
+    }
+
+    private void writeOneByOne(List<PendingRow> batch, Progress progress)
+    {
+        for (PendingRow row : batch) {
+            try {
+                record(row, jdbcTemplate.update(INSERT_MOVIE, statement -> bind(statement, row.movie())), progress);
+            } catch (DataAccessException e) {
+                progress.fail(row.line(), NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            }
+        }
+    }
+
+    private void record(PendingRow row, int count, Progress progress)
+    {
+        // SUCCESS_NO_INFO is what drivers report when they rewrite a batch into one multi-row insert
+        if (count > 0 || count == Statement.SUCCESS_NO_INFO) {
+            progress.imported++;
+        } else {
+            progress.fail(row.line(), "Movie with title '" + row.movie().getTitle() + "' already exists");
+        }
+    }
+
+    private void bind(PreparedStatement statement, Movie movie) throws SQLException
+    {
+        statement.setString(1, movie.getTitle());
+        statement.setInt(2, genres.intern(movie.getGenre()));
+        statement.setInt(3, movie.getDuration());
+        statement.setDouble(4, movie.getRating());
+        statement.setInt(5, movie.getReleaseYear());
+    }
+
+    private Movie parseJson(String line)
+    {
+        try {
+            Movie movie = movieReader.readValue(line);
+            movie.setId(null);
+            return movie;
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowParser
+    {
+        Movie parse(String line);
+    }
+
+    // Header-driven CSV rows; fields may be double-quoted, with "" for a literal quote.
+    // Records cannot span lines.
+    private static class CsvRows implements RowParser
+    {
+        private final Map<String, Integer> columns;
+
+        private CsvRows(Map<String, Integer> columns)
+        {
+            this.columns = columns;
+        }
+
+        // Column names are matched case-insensitively, so release_year and releaseYear both work
+        static CsvRows fromHeader(String header)
+        {
+            List<String> names = split(header);
+            Map<String, Integer> columns = new HashMap<>();
+            for (int i = 0; i < names.size(); i++) {
+                columns.put(names.get(i).trim().replace("_", "").toLowerCase(Locale.ROOT), i);
+            }
+            if (!columns.keySet().containsAll(CSV_COLUMNS)) {
+                throw new IllegalArgumentException("CSV header must name the columns title, genre, duration, rating and releaseYear");
+            }
+            return new CsvRows(columns);
+        }
+
+        @Override
+        public Movie parse(String line)
+        {
+            List<String> fields = split(line);
+            Movie movie = new Movie();
+            movie.setTitle(field(fields, "title"));
+            movie.setGenre(field(fields, "genre"));
+            movie.setDuration(parseInt(fields, "duration"));
+            movie.setRating(parseDouble(fields, "rating"));
+            movie.setReleaseYear(parseInt(fields, "releaseyear"));
+            return movie;
+        }
+
+        private String field(List<String> fields, String column)
+        {
+            int index = columns.get(column);
+            return index < fields.size() ? fields.get(index) : null;
+        }
+
+        private int parseInt(List<String> fields, String column)
+        {
+            String value = field(fields, column);
+            try {
+                return Integer.parseInt(value == null ? "" : value.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid " + column + ": '" + value + "'");
+            }
+        }
+
+        private double parseDouble(List<String> fields, String column)
+        {
+            String value = field(fields, column);
+            try {
+                return Double.parseDouble(value == null ? "" : value.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid " + column + ": '" + value + "'");
+            }
+        }
+
+        static List<String> split(String line)
+        {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (quoted) {
+                throw new IllegalArgumentException("Unterminated quoted field");
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+
+    private record PendingRow(long line, Movie movie)
+    {
+
+    }
+
+    private static class Progress
+    {
+        private long received;
+        private long imported;
+        private long failed;
+        private final List<ImportReport.RowError> errors = new ArrayList<>();
+
+        void fail(long line, String message)
+        {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ImportReport.RowError(line, message));
+            }
+        }
+    }
+}
@@ -1,59 +1,168 @@
 package com.att.tdp.popcorn_palace.service;
 
+import com.att.tdp.popcorn_palace.cache.MovieCache;
+import com.att.tdp.popcorn_palace.datasource.ReplicaRoutingDataSource;
+import com.att.tdp.popcorn_palace.dto.CursorPage;
 import com.att.tdp.popcorn_palace.errors.NotFoundException;
+import com.att.tdp.popcorn_palace.metrics.ServiceMetrics;
 import com.att.tdp.popcorn_palace.model.Movie;
+import com.att.tdp.popcorn_palace.occupancy.SeatOccupancyRegistry;
+import com.att.tdp.popcorn_palace.repository.BookingRepository;
 import com.att.tdp.popcorn_palace.repository.MovieRepository;
+import com.att.tdp.popcorn_palace.repository.ShowtimeRepository;
 import com.att.tdp.popcorn_palace.validation.MovieValidator;
+import jakarta.persistence.EntityManager;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class MovieService
 {
+    public static final int MAX_PAGE_SIZE = 1000;
+    private static final String OPERATION_TIMER = "movie.operation";
+
     private final MovieRepository movieRepository;
+    private final ShowtimeRepository showtimeRepository;
+    private final BookingRepository bookingRepository;
     private final MovieValidator movieValidator;
+    private final SeatOccupancyRegistry seatOccupancy;
+    private final MovieCache movieCache;
+    private final EntityManager entityManager;
+    private final ServiceMetrics metrics;
 
-    public MovieService(MovieRepository movieRepository, MovieValidator movieValidator)
+    public MovieService(MovieRepository movieRepository, ShowtimeRepository showtimeRepository, BookingRepository bookingRepository, MovieValidator movieValidator, SeatOccupancyRegistry seatOccupancy, MovieCache movieCache, EntityManager entityManager, ServiceMetrics metrics)
     {
         this.movieRepository = movieRepository;
+        this.showtimeRepository = showtimeRepository;
+        this.bookingRepository = bookingRepository;
         this.movieValidator = movieValidator;
+        this.seatOccupancy = seatOccupancy;
+        this.movieCache = movieCache;
+        this.entityManager = entityManager;
+        this.metrics = metrics;
     }
 
     // Get all movies
+    @Transactional(readOnly = true)
     public List<Movie> getAllMovies()
     {
-        return movieRepository.findAll();
+        return metrics.time(OPERATION_TIMER, () -> movieRepository.findAll(), "operation", "get_all");
+    }
+
+    // Get one page of movies ordered by ID, starting after the given ID
+    @Transactional(readOnly = true)
+    public CursorPage<Movie> getMoviesPage(Long afterId, int limit)
+    {
+        return metrics.time(OPERATION_TIMER, () -> {
+            if (limit < 1 || limit > MAX_PAGE_SIZE) {
+                throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+            }
+            List<Movie> movies = movieRepository.findByIdGreaterThanOrderByIdAsc(afterId == null ? 0L : afterId, Limit.of(limit));
+            String nextCursor = movies.size() < limit ? null : String.valueOf(movies.get(movies.size() - 1).getId());
+            return new CursorPage<>(movies, nextCursor);
+        }, "operation", "get_page");
+    }
+
+    // Hand every movie to the consumer one at a time, detaching each so memory stays bounded
+    @Transactional(readOnly = true)
+    public void streamAllMovies(Consumer<Movie> consumer)
+    {
+        metrics.time(OPERATION_TIMER, () -> {
+            try (Stream<Movie> movies = movieRepository.streamAllOrderById()) {
+                movies.forEach(movie -> {
+                    consumer.accept(movie);
+                    entityManager.detach(movie);
+                });
+            }
+        }, "operation", "stream_all");
+    }
+
+    // Get movie by Title
+    @Transactional(readOnly = true)
+    public Movie getByTitle(String title)
+    {
+        return metrics.time(OPERATION_TIMER, () -> {
+            String cleanedTitle = movieValidator.cleanString(title);
+            return movieCache.getByTitle(cleanedTitle, movieRepository::findByTitle).orElseThrow(() -> new NotFoundException("Movie not found with title: " + cleanedTitle));
+        }, "operation", "get_by_title");
+    }
+
+    // Get movie by ID
+    @Transactional(readOnly = true)
+    public Movie getById(Long id)
+    {
+        return metrics.time(OPERATION_TIMER, () -> movieCache.getById(id, movieRepository::findById).orElseThrow(() -> new NotFoundException("Movie not found with ID: " + id)), "operation", "get_by_id");
+    }
+
+    public Map<String, Map<String, Object>> getCacheStats()
+    {
+        return movieCache.stats();
     }
 
     // Add Movie
     public Movie save(Movie movie)
     {
-        movieValidator.validate(movie);
-        movie.setTitle(movieValidator.cleanString(movie.getTitle()));
-        movie.setGenre(movieValidator.cleanString(movie.getGenre()));
-        return movieRepository.save(movie);
+        return metrics.time(OPERATION_TIMER, () -> {
+            movieValidator.validate(movie);
+            movie.setTitle(movieValidator.cleanString(movie.getTitle()));
+            movie.setGenre(movieValidator.cleanString(movie.getGenre()));
+            Movie savedMovie = movieRepository.save(movie);
+            movieCache.invalidate(savedMovie);
+            return savedMovie;
+        }, "operation", "save");
     }
 
     // Upgrade movie by Title
     public Movie upgradeByTitle(Movie updatedMovie, String title)
+    {
+        return metrics.time(OPERATION_TIMER, () -> ReplicaRoutingDataSource.onPrimary(() -> upgradeMovie(updatedMovie, title)), "operation", "update");
+    }
+
+    // Delete movie by Title
+    @Transactional
+    public void deleteByTitle(String title)
+    {
+        metrics.time(OPERATION_TIMER, () -> deleteMovie(title), "operation", "delete");
+    }
+
+    private Movie upgradeMovie(Movie updatedMovie, String title)
     {
         String cleanedTitle = movieValidator.cleanString(title);
         Movie movieExist = movieRepository.findByTitle(cleanedTitle).orElseThrow(() -> new NotFoundException("Movie not found with title: " + cleanedTitle));
 
         movieValidator.validate(updatedMovie);
+        // Evict under the old title before a rename changes the key
+        movieCache.invalidate(movieExist);
         movieExist.setTitle(movieValidator.cleanString(updatedMovie.getTitle()));
         movieExist.setGenre(movieValidator.cleanString(updatedMovie.getGenre()));
         movieExist.setDuration(updatedMovie.getDuration());
         movieExist.setRating(updatedMovie.getRating());
         movieExist.setReleaseYear(updatedMovie.getReleaseYear());
-        return movieRepository.save(movieExist);
+        Movie savedMovie = movieRepository.save(movieExist);
+        movieCache.invalidate(savedMovie);
+        return savedMovie;
     }
 
-    // Delete movie by Title
-    public void deleteByTitle(String title)
+    private void deleteMovie(String title)
     {
         String cleanedTitle = movieValidator.cleanString(title);
         Movie movie = movieRepository.findByTitle(cleanedTitle).orElseThrow(() -> new NotFoundException("Movie not found with title: " + cleanedTitle));
-        movieRepository.delete(movie);
+
+        // One statement per table, children first, instead of loading and removing every showtime and booking
+        List<Long> showtimeIds = showtimeRepository.findIdsByMovieId(movie.getId());
+        bookingRepository.bulkDeleteByMovieId(movie.getId());
+        showtimeRepository.bulkDeleteByMovieId(movie.getId());
+        movieRepository.bulkDeleteById(movie.getId());
+        movieCache.invalidate(movie);
+
+        // Drop the seat bitmaps once the delete commits, so a concurrent booking cannot reload them first
+        for (Long showtimeId : showtimeIds) {
+            seatOccupancy.evictAfterCompletion(showtimeId);
+        }
     }
 }
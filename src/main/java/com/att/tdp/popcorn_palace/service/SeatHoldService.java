@@ -0,0 +1,150 @@
+package com.att.tdp.popcorn_palace.service;
+
+import com.att.tdp.popcorn_palace.datasource.ReplicaRoutingDataSource;
+import com.att.tdp.popcorn_palace.dto.SeatHoldRequest;
+import com.att.tdp.popcorn_palace.errors.NotFoundException;
+import com.att.tdp.popcorn_palace.errors.SeatAlreadyBookedException;
+import com.att.tdp.popcorn_palace.model.Booking;
+import com.att.tdp.popcorn_palace.occupancy.SeatHold;
+import com.att.tdp.popcorn_palace.occupancy.SeatOccupancyRegistry;
+import com.att.tdp.popcorn_palace.repository.BookingRepository;
+import com.att.tdp.popcorn_palace.repository.ShowtimeRepository;
+import com.att.tdp.popcorn_palace.validation.BookingValidator;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+
+// Short-lived seat reservations held in memory during checkout.
+// A hold claims the seat in the SeatOccupancyRegistry, so the normal booking path sees it as taken, also after the
+// showtime's bitmap is reloaded. Holds live in this instance only; with several instances behind a load balancer,
+// another instance can still book a held seat, and the hold's confirmation then fails on the seat constraint.
+@Service
+public class SeatHoldService implements MeterBinder
+{
+    private final SeatOccupancyRegistry seatOccupancy;
+    private final ShowtimeRepository showtimeRepository;
+    private final BookingRepository bookingRepository;
+    private final BookingService bookingService;
+    private final BookingValidator bookingValidator;
+    private final Duration ttl;
+
+    private final Map<UUID, SeatHold> holds = new ConcurrentHashMap<>();
+    private final DelayQueue<SeatHold> expiries = new DelayQueue<>();
+
+    public SeatHoldService(SeatOccupancyRegistry seatOccupancy, ShowtimeRepository showtimeRepository, BookingRepository bookingRepository,
+                           BookingService bookingService, BookingValidator bookingValidator,
+                           @Value("${popcorn-palace.booking.hold.ttl:5m}") Duration ttl)
+    {
+        this.seatOccupancy = seatOccupancy;
+        this.showtimeRepository = showtimeRepository;
+        this.bookingRepository = bookingRepository;
+        this.bookingService = bookingService;
+        this.bookingValidator = bookingValidator;
+        this.ttl = ttl;
+    }
+
+    // Hold a seat
+    public SeatHold hold(SeatHoldRequest request)
+    {
+        if (request == null) {
+            throw new IllegalArgumentException("Hold cannot be null");
+        }
+        Long showtimeId = request.showtimeId();
+        int seatNumber = request.seatNumber();
+        bookingValidator.validateBooking(new Booking(null, null, seatNumber, request.userId()), showtimeId);
+
+        if (seatOccupancy.isTaken(showtimeId, seatNumber)) {
+            throw seatUnavailable(seatNumber);
+        }
+        if (!ReplicaRoutingDataSource.onPrimary(() -> showtimeRepository.existsById(showtimeId))) {
+            throw new NotFoundException("Showtime not found with ID: " + showtimeId);
+        }
+        if (!seatOccupancy.hold(showtimeId, seatNumber)) {
+            throw seatUnavailable(seatNumber);
+        }
+        if (ReplicaRoutingDataSource.onPrimary(() -> bookingRepository.existsByShowtimeIdAndSeatNumber(showtimeId, seatNumber))) {
+            // Booked elsewhere; the seat stays claimed for that booking
+            seatOccupancy.endHold(showtimeId, seatNumber);
+            throw seatUnavailable(seatNumber);
+        }
+
+        SeatHold hold = new SeatHold(UUID.randomUUID(), showtimeId, seatNumber, request.userId(), ttl.toNanos());
+        holds.put(hold.getId(), hold);
+        expiries.add(hold);
+        return hold;
+    }
+
+    // Turn a live hold into a booking
+    public Booking confirm(UUID holdId)
+    {
+        SeatHold hold = holds.remove(holdId);
+        if (hold == null) {
+            throw holdNotFound(holdId);
+        }
+        if (hold.isExpired()) {
+            seatOccupancy.releaseHold(hold.getShowtimeId(), hold.getSeatNumber());
+            throw holdNotFound(holdId);
+        }
+        seatOccupancy.endHold(hold.getShowtimeId(), hold.getSeatNumber());
+
+        Booking booking = new Booking();
+        booking.setSeatNumber(hold.getSeatNumber());
+        booking.setUserId(hold.getUserId());
+        return bookingService.saveClaimed(booking, hold.getShowtimeId());
+    }
+
+    // Give a held seat back before it expires
+    public void release(UUID holdId)
+    {
+        SeatHold hold = holds.remove(holdId);
+        if (hold == null) {
+            throw holdNotFound(holdId);
+        }
+        seatOccupancy.releaseHold(hold.getShowtimeId(), hold.getSeatNumber());
+    }
+
+    public int activeHolds()
+    {
+        return holds.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry)
+    {
+        Gauge.builder("booking.holds.active", holds, Map::size).register(registry);
+    }
+
+    // Release every hold that has expired; holds confirmed or released meanwhile are skipped
+    @Scheduled(fixedDelayString = "${popcorn-palace.booking.hold.sweep-interval:1s}")
+    public void sweepExpired()
+    {
+        List<SeatHold> expired = new ArrayList<>();
+        expiries.drainTo(expired);
+        for (SeatHold hold : expired) {
+            if (holds.remove(hold.getId(), hold)) {
+                seatOccupancy.releaseHold(hold.getShowtimeId(), hold.getSeatNumber());
+            }
+        }
+    }
+
+    private NotFoundException holdNotFound(UUID holdId)
+    {
+        return new NotFoundException("Hold not found or expired with ID: " + holdId);
+    }
+
+    private SeatAlreadyBookedException seatUnavailable(int seatNumber)
+    {
+        return new SeatAlreadyBookedException(seatNumber);
+    }
+}
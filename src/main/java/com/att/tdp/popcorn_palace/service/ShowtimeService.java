@@ -1,83 +1,248 @@
 package com.att.tdp.popcorn_palace.service;
 
+import com.att.tdp.popcorn_palace.cache.MovieCache;
+import com.att.tdp.popcorn_palace.datasource.ReplicaRoutingDataSource;
+import com.att.tdp.popcorn_palace.dto.CursorPage;
+import com.att.tdp.popcorn_palace.dto.Outcome;
+import com.att.tdp.popcorn_palace.dto.SeatAvailability;
 import com.att.tdp.popcorn_palace.dto.ShowtimeDTO;
+import com.att.tdp.popcorn_palace.dto.ShowtimeFilter;
+import com.att.tdp.popcorn_palace.errors.ConstraintViolations;
+import com.att.tdp.popcorn_palace.errors.ErrorCode;
 import com.att.tdp.popcorn_palace.errors.NotFoundException;
+import com.att.tdp.popcorn_palace.metrics.ServiceMetrics;
 import com.att.tdp.popcorn_palace.model.Movie;
 import com.att.tdp.popcorn_palace.model.Showtime;
+import com.att.tdp.popcorn_palace.occupancy.SeatOccupancyRegistry;
+import com.att.tdp.popcorn_palace.repository.BookingRepository;
 import com.att.tdp.popcorn_palace.repository.ShowtimeRepository;
 import com.att.tdp.popcorn_palace.repository.MovieRepository;
+import com.att.tdp.popcorn_palace.schedule.ShowtimeOverlapIndex;
 import com.att.tdp.popcorn_palace.validation.ShowtimeValidator;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import static com.att.tdp.popcorn_palace.dto.ShowtimeDTO.convertToDTO;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+import static com.att.tdp.popcorn_palace.validation.BookingValidator.MAX_SEAT_NUMBER;
 
 @Service
 public class ShowtimeService
 {
+    private static final String OPERATION_TIMER = "showtime.operation";
+    public static final int MAX_PAGE_SIZE = 1000;
+
     private final ShowtimeRepository showtimeRepository;
     private final MovieRepository movieRepository;
+    private final BookingRepository bookingRepository;
     private final ShowtimeValidator showtimeValidator;
+    private final SeatOccupancyRegistry seatOccupancy;
+    private final ShowtimeOverlapIndex overlapIndex;
+    private final MovieCache movieCache;
+    private final ServiceMetrics metrics;
 
-    public ShowtimeService (ShowtimeRepository showtimeRepository, MovieRepository movieRepository, ShowtimeValidator showtimeValidator)
+    public ShowtimeService (ShowtimeRepository showtimeRepository, MovieRepository movieRepository, BookingRepository bookingRepository, ShowtimeValidator showtimeValidator, SeatOccupancyRegistry seatOccupancy, ShowtimeOverlapIndex overlapIndex, MovieCache movieCache, ServiceMetrics metrics)
     {
         this.showtimeRepository = showtimeRepository;
         this.movieRepository = movieRepository;
+        this.bookingRepository = bookingRepository;
         this.showtimeValidator = showtimeValidator;
+        this.seatOccupancy = seatOccupancy;
+        this.overlapIndex = overlapIndex;
+        this.movieCache = movieCache;
+        this.metrics = metrics;
     }
 
     // Get showtime by ID
+    @Transactional(readOnly = true)
     public ShowtimeDTO getShowtimeById(Long id)
     {
-        Showtime showtime = showtimeRepository.findById(id).orElseThrow(() -> new NotFoundException("Showtime not found with id: " + id));
-        return convertToDTO(showtime);
+        return metrics.time(OPERATION_TIMER, () -> showtimeRepository.findDTOById(id).orElseThrow(() -> new NotFoundException("Showtime not found with id: " + id)),
+                "operation", "get");
+    }
+
+    // Get the seat map of a showtime from the in-memory occupancy, without loading bookings
+    public SeatAvailability getSeatAvailability(Long showtimeId, boolean expand)
+    {
+        return metrics.time(OPERATION_TIMER, () -> {
+            // A loaded bitmap means the showtime exists, so only the first request for a showtime checks the table
+            if (!seatOccupancy.isLoaded(showtimeId) && !showtimeRepository.existsById(showtimeId)) {
+                throw new NotFoundException("Showtime not found with id: " + showtimeId);
+            }
+            return SeatAvailability.of(showtimeId, MAX_SEAT_NUMBER, seatOccupancy.snapshot(showtimeId), expand);
+        }, "operation", "get_seats");
+    }
+
+    // Search showtimes, earliest first, one page at a time; `after` is the nextCursor of the previous page
+    @Transactional(readOnly = true)
+    public CursorPage<ShowtimeDTO> search(ShowtimeFilter filter, String after, int limit)
+    {
+        return metrics.time(OPERATION_TIMER, () -> searchShowtimes(filter, after, limit), "operation", "search");
     }
 
     // Add showtime
     public Showtime save (Showtime showtime)
+    {
+        return trySave(showtime).orElseThrow();
+    }
+
+    // Add showtime; an overlap or a missing movie is returned as a failure
+    public Outcome<Showtime> trySave(Showtime showtime)
+    {
+        return metrics.time(OPERATION_TIMER, () -> ReplicaRoutingDataSource.onPrimary(() -> saveShowtime(showtime)), "operation", "save");
+    }
+
+    // Upgrade showtime by ID
+    public void upgradeById(Showtime updatedShowtime, Long id)
+    {
+        tryUpgradeById(updatedShowtime, id).orElseThrow();
+    }
+
+    // Upgrade showtime by ID; an overlap or a missing showtime or movie is returned as a failure
+    public Outcome<Showtime> tryUpgradeById(Showtime updatedShowtime, Long id)
+    {
+        return metrics.time(OPERATION_TIMER, () -> ReplicaRoutingDataSource.onPrimary(() -> upgradeShowtime(updatedShowtime, id)), "operation", "update");
+    }
+
+    // Delete showtime by ID
+    @Transactional
+    public void deleteById(Long showtimeId)
+    {
+        metrics.time(OPERATION_TIMER, () -> deleteShowtime(showtimeId), "operation", "delete");
+    }
+
+    private CursorPage<ShowtimeDTO> searchShowtimes(ShowtimeFilter filter, String after, int limit)
+    {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (filter.from() != null && filter.to() != null && !filter.from().isBefore(filter.to())) {
+            throw new IllegalArgumentException("From must be before to");
+        }
+        ShowtimeFilter cleaned = new ShowtimeFilter(filter.movieId(), showtimeValidator.cleanString(filter.theater()), filter.from(), filter.to());
+
+        Cursor cursor = after == null ? new Cursor(null, null) : Cursor.decode(after);
+        // One row more than the page tells whether there is a next page, so the last page never comes back empty
+        List<ShowtimeDTO> showtimes = showtimeRepository.search(cleaned, cursor.startTime(), cursor.id(), limit + 1);
+        if (showtimes.size() <= limit) {
+            return new CursorPage<>(showtimes, null);
+        }
+        List<ShowtimeDTO> page = showtimes.subList(0, limit);
+        ShowtimeDTO last = page.get(limit - 1);
+        return new CursorPage<>(page, new Cursor(last.getStartTime(), last.getId()).encode());
+    }
+
+    private Outcome<Showtime> saveShowtime(Showtime showtime)
     {
         showtimeValidator.validate(showtime);
         Long movieId = showtime.getMovie().getId();
 
-        Movie movie = movieRepository.findById(showtime.getMovie().getId()).orElseThrow(() -> new NotFoundException("Movie not found with ID: " + movieId));
-
-        if (isOverlappingWithExistingShowtimes(showtime)) {
-            throw new IllegalArgumentException("Showtime overlaps with an existing one in this theater");
+        Optional<Movie> movie = movieCache.getById(movieId, movieRepository::findById);
+        if (movie.isEmpty()) {
+            return movieNotFound(movieId);
         }
 
         showtime.setTheater(showtimeValidator.cleanString(showtime.getTheater()));
-        showtime.setMovie(movie);
-        return showtimeRepository.save(showtime);
+        if (isOverlappingWithExistingShowtimes(showtime, showtime.getId())) {
+            return overlapping();
+        }
+
+        showtime.setMovie(movie.get());
+        return write(showtime);
     }
 
-    // Upgrade showtime by ID
-    public void upgradeById(Showtime updatedShowtime, Long id)
+    private Outcome<Showtime> upgradeShowtime(Showtime updatedShowtime, Long id)
     {
-        Showtime showtimeExist = showtimeRepository.findById(id).orElseThrow(() -> new NotFoundException("Showtime not found with id: " +id));
+        Optional<Showtime> existing = showtimeRepository.findById(id);
+        if (existing.isEmpty()) {
+            return Outcome.failure(ErrorCode.NOT_FOUND, "Showtime not found with id: " + id);
+        }
+        Showtime showtimeExist = existing.get();
         showtimeValidator.validate(updatedShowtime);
         Long movieId = updatedShowtime.getMovie().getId();
 
-        Movie newMovie = movieRepository.findById(movieId).orElseThrow(() -> new NotFoundException("Movie not found with ID: " + movieId));
+        Optional<Movie> newMovie = movieCache.getById(movieId, movieRepository::findById);
+        if (newMovie.isEmpty()) {
+            return movieNotFound(movieId);
+        }
+
+        updatedShowtime.setTheater(showtimeValidator.cleanString(updatedShowtime.getTheater()));
+        if (isOverlappingWithExistingShowtimes(updatedShowtime, id)) {
+            return overlapping();
+        }
 
-        showtimeExist.setMovie(newMovie);
-        showtimeExist.setTheater(showtimeValidator.cleanString(updatedShowtime.getTheater()));
+        showtimeExist.setMovie(newMovie.get());
+        showtimeExist.setTheater(updatedShowtime.getTheater());
         showtimeExist.setStart_time(updatedShowtime.getStart_time());
         showtimeExist.setEnd_time(updatedShowtime.getEnd_time());
         showtimeExist.setPrice(updatedShowtime.getPrice());
-        showtimeRepository.save(showtimeExist);
+        return write(showtimeExist);
     }
 
-    // Delete showtime by ID
-    public void deleteById(Long showtimeId)
+    private void deleteShowtime(Long showtimeId)
     {
-        Showtime showtime = showtimeRepository.findById(showtimeId).orElseThrow(() -> new NotFoundException("Showtime not found with id: " + showtimeId));
-        showtimeRepository.delete(showtime);
+        if (!showtimeRepository.existsById(showtimeId)) {
+            throw new NotFoundException("Showtime not found with id: " + showtimeId);
+        }
+        // Bookings first, then the showtime, without loading either into the persistence context
+        bookingRepository.bulkDeleteByShowtimeId(showtimeId);
+        showtimeRepository.bulkDeleteById(showtimeId);
+        seatOccupancy.evictAfterCompletion(showtimeId);
     }
 
-    private boolean isOverlappingWithExistingShowtimes(Showtime showtime)
+    // A concurrent write can slip past the probe; on PostgreSQL the exclusion constraint rejects it
+    private Outcome<Showtime> write(Showtime showtime)
     {
-        return showtimeRepository.findAllByTheater(showtime.getTheater()).stream()
-                .anyMatch(existing ->
-                        showtime.getStart_time().isBefore(existing.getEnd_time()) &&
-                                showtime.getEnd_time().isAfter(existing.getStart_time())
-                );
+        try {
+            return Outcome.success(showtimeRepository.saveAndFlush(showtime));
+        } catch (DataIntegrityViolationException e) {
+            if (ConstraintViolations.isViolated(e, Showtime.OVERLAP_CONSTRAINT)) {
+                return overlapping();
+            }
+            throw e;
+        }
+    }
+
+    private boolean isOverlappingWithExistingShowtimes(Showtime showtime, Long excludeId)
+    {
+        return overlapIndex.overlaps(showtime.getTheater(), showtime.getStart_time(), showtime.getEnd_time(), excludeId);
+    }
+
+    private static Outcome<Showtime> overlapping()
+    {
+        return Outcome.failure(ErrorCode.SHOWTIME_OVERLAP, "Showtime overlaps with an existing one in this theater");
+    }
+
+    private static Outcome<Showtime> movieNotFound(Long movieId)
+    {
+        return Outcome.failure(ErrorCode.NOT_FOUND, "Movie not found with ID: " + movieId);
+    }
+
+    // The (start_time, id) key of the last showtime on a page, opaque to clients
+    private record Cursor(LocalDateTime startTime, Long id)
+    {
+        String encode()
+        {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString((startTime + "_" + id).getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor)
+        {
+            try {
+                String[] key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("_", 2);
+                if (key.length == 2) {
+                    return new Cursor(LocalDateTime.parse(key[0]), Long.valueOf(key[1]));
+                }
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                // Not one of ours
+            }
+            throw new IllegalArgumentException("Invalid cursor");
+        }
     }
 }
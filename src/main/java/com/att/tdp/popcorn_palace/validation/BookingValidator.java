@@ -1,11 +1,18 @@
 package com.att.tdp.popcorn_palace.validation;
 
+import com.att.tdp.popcorn_palace.dto.BatchBookingRequest;
 import com.att.tdp.popcorn_palace.model.Booking;
 import org.springframework.stereotype.Component;
 
+import java.util.HashSet;
+import java.util.Set;
+
 @Component
 public class BookingValidator
 {
+    public static final int MAX_SEAT_NUMBER = 300;
+    public static final int MAX_SEATS_PER_BATCH = 10;
+
     public void validateBooking(Booking booking, Long showtimeId)
     {
         if (booking == null) {
@@ -17,8 +24,36 @@ public class BookingValidator
         if (booking.getUserId() == null) {
             throw new IllegalArgumentException("User ID cannot be null");
         }
-        if (booking.getSeatNumber() < 1 || booking.getSeatNumber() > 300) {
+        if (booking.getSeatNumber() < 1 || booking.getSeatNumber() > MAX_SEAT_NUMBER) {
             throw new IllegalArgumentException("Incorrect seat number");
         }
     }
+
+    public void validateBatch(BatchBookingRequest request)
+    {
+        if (request == null) {
+            throw new IllegalArgumentException("Booking cannot be null");
+        }
+        if (request.showtimeId() == null) {
+            throw new IllegalArgumentException("Showtime ID is required");
+        }
+        if (request.userId() == null) {
+            throw new IllegalArgumentException("User ID cannot be null");
+        }
+        if (request.seatNumbers() == null || request.seatNumbers().isEmpty()) {
+            throw new IllegalArgumentException("At least one seat number is required");
+        }
+        if (request.seatNumbers().size() > MAX_SEATS_PER_BATCH) {
+            throw new IllegalArgumentException("Cannot book more than " + MAX_SEATS_PER_BATCH + " seats at once");
+        }
+        Set<Integer> seen = new HashSet<>();
+        for (Integer seatNumber : request.seatNumbers()) {
+            if (seatNumber == null || seatNumber < 1 || seatNumber > MAX_SEAT_NUMBER) {
+                throw new IllegalArgumentException("Incorrect seat number");
+            }
+            if (!seen.add(seatNumber)) {
+                throw new IllegalArgumentException("Seat " + seatNumber + " is requested more than once");
+            }
+        }
+    }
 }
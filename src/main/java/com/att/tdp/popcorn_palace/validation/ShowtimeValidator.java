@@ -3,9 +3,14 @@ package com.att.tdp.popcorn_palace.validation;
 import com.att.tdp.popcorn_palace.model.Showtime;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+
 @Component
 public class ShowtimeValidator
 {
+    // Also bounds how far back the overlap check has to look (ShowtimeOverlapIndex)
+    public static final Duration MAX_DURATION = Duration.ofHours(24);
+
     public void validate(Showtime showtime)
     {
         if (showtime == null) {
@@ -26,6 +31,9 @@ public class ShowtimeValidator
         if (showtime.getStart_time().isAfter(showtime.getEnd_time())) {
             throw new IllegalArgumentException("Start time cannot be after end time");
         }
+        if (Duration.between(showtime.getStart_time(), showtime.getEnd_time()).compareTo(MAX_DURATION) > 0) {
+            throw new IllegalArgumentException("Showtime cannot be longer than " + MAX_DURATION.toHours() + " hours");
+        }
         if (showtime.getPrice() < 0.0) {
             throw new IllegalArgumentException("Price cannot be negative");
         }
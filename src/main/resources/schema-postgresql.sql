@@ -0,0 +1,59 @@
+-- Runs after Hibernate has created the tables (spring.jpa.defer-datasource-initialization).
+
+-- Theaters and genres moved from name columns to ids in the theaters and genres dictionaries.
+-- Databases created before that still have showtimes.theater and movies.genre: carry their names over, then drop them.
+DO '
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns WHERE table_name = ''showtimes'' AND column_name = ''theater'') THEN
+        ALTER TABLE showtimes ADD COLUMN IF NOT EXISTS theater_id integer;
+        INSERT INTO theaters (name) SELECT DISTINCT theater FROM showtimes ON CONFLICT DO NOTHING;
+        UPDATE showtimes s SET theater_id = t.id FROM theaters t WHERE t.name = s.theater AND s.theater_id IS NULL;
+        ALTER TABLE showtimes DROP CONSTRAINT IF EXISTS ex_showtimes_theater_overlap;
+        ALTER TABLE showtimes DROP COLUMN theater;
+        ALTER TABLE showtimes ALTER COLUMN theater_id SET NOT NULL;
+        CREATE INDEX IF NOT EXISTS idx_showtimes_theater_start_time ON showtimes (theater_id, start_time, id);
+    END IF;
+    IF EXISTS (SELECT 1 FROM information_schema.columns WHERE table_name = ''movies'' AND column_name = ''genre'') THEN
+        ALTER TABLE movies ADD COLUMN IF NOT EXISTS genre_id integer;
+        INSERT INTO genres (name) SELECT DISTINCT genre FROM movies ON CONFLICT DO NOTHING;
+        UPDATE movies m SET genre_id = g.id FROM genres g WHERE g.name = m.genre AND m.genre_id IS NULL;
+        ALTER TABLE movies DROP COLUMN genre;
+        ALTER TABLE movies ALTER COLUMN genre_id SET NOT NULL;
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = ''fk_showtimes_theater'') THEN
+        ALTER TABLE showtimes ADD CONSTRAINT fk_showtimes_theater FOREIGN KEY (theater_id) REFERENCES theaters (id);
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = ''fk_movies_genre'') THEN
+        ALTER TABLE movies ADD CONSTRAINT fk_movies_genre FOREIGN KEY (genre_id) REFERENCES genres (id);
+    END IF;
+END
+';
+
+-- The overlap check used to probe (theater_id, end_time); nothing reads that index any more.
+DROP INDEX IF EXISTS idx_showtimes_theater_end_time;
+
+-- No two showtimes of a theater may overlap: [start_time, end_time) ranges of equal theaters are exclusive.
+-- btree_gist lets the GiST index compare the plain theater_id column with =.
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- Showtime updates used to skip the overlap check, so an older database can already hold overlapping showtimes.
+-- Adding the constraint would then fail and stop startup: list the overlapping pairs in a warning and leave the
+-- constraint out instead. It is added on the first startup after they are resolved (see Instructions.md).
+DO '
+DECLARE
+    conflicts text;
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = ''ex_showtimes_theater_overlap'') THEN
+        SELECT string_agg(a.id || ''/'' || b.id, '', '' ORDER BY a.id, b.id) INTO conflicts
+        FROM showtimes a
+        JOIN showtimes b ON b.theater_id = a.theater_id AND b.id > a.id
+            AND tsrange(b.start_time, b.end_time) && tsrange(a.start_time, a.end_time);
+        IF conflicts IS NULL THEN
+            ALTER TABLE showtimes ADD CONSTRAINT ex_showtimes_theater_overlap
+                EXCLUDE USING gist (theater_id WITH =, tsrange(start_time, end_time) WITH &&);
+        ELSE
+            RAISE WARNING ''ex_showtimes_theater_overlap not added, overlapping showtime id pairs: %'', conflicts;
+        END IF;
+    END IF;
+END
+';
@@ -0,0 +1,30 @@
+package com.att.tdp.popcorn_palace;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The prod profile starts without a single database round trip: the datasource points at a port nobody listens on
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:postgresql://localhost:1/popcorn-palace",
+        "spring.datasource.driverClassName=org.postgresql.Driver"
+})
+@ActiveProfiles("prod")
+public class ProdProfileStartupTest
+{
+    @Autowired
+    private HikariDataSource dataSource;
+
+    @DisplayName("Should start without inspecting or initializing the database")
+    @Test
+    void shouldStartWithoutDatabase()
+    {
+        // The pool only starts on the first connection request
+        assertNull(dataSource.getHikariPoolMXBean());
+    }
+}
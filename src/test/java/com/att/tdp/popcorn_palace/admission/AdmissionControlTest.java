@@ -0,0 +1,146 @@
+package com.att.tdp.popcorn_palace.admission;
+
+import com.att.tdp.popcorn_palace.dto.AdmissionStatus;
+import com.att.tdp.popcorn_palace.errors.AdmissionDeniedException;
+import com.att.tdp.popcorn_palace.errors.NotFoundException;
+import com.att.tdp.popcorn_palace.metrics.ServiceMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdmissionControlTest
+{
+    private static final Long SHOWTIME_ID = 100L;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp()
+    {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private AdmissionControl admissionControl(double rate, int burst, int queueCapacity, Duration turnTtl)
+    {
+        return new AdmissionControl(new ServiceMetrics(meterRegistry), true, rate, burst, queueCapacity, turnTtl);
+    }
+
+    @DisplayName("Should let bookings through while the showtime has tokens, then queue them in order")
+    @Test
+    void shouldQueueOnceTokensRunOut()
+    {
+        AdmissionControl admissionControl = admissionControl(0.001, 2, 100, Duration.ofSeconds(30));
+        admissionControl.admit(SHOWTIME_ID, null);
+        admissionControl.admit(SHOWTIME_ID, null);
+
+        AdmissionDeniedException first = assertThrows(AdmissionDeniedException.class, () -> admissionControl.admit(SHOWTIME_ID, null));
+        AdmissionDeniedException second = assertThrows(AdmissionDeniedException.class, () -> admissionControl.admit(SHOWTIME_ID, null));
+
+        assertEquals(1, first.getStatus().position());
+        assertEquals(2, second.getStatus().position());
+        assertFalse(first.getStatus().admitted());
+        assertEquals(15, first.getRetryAfterSeconds());
+        assertEquals(2, admissionControl.waiting());
+        assertEquals(2, meterRegistry.counter("booking.admission", "result", "direct").count());
+        assertEquals(2, meterRegistry.counter("booking.admission", "result", "queued").count());
+    }
+
+    @DisplayName("Should admit waiting tickets first come, first served, once each")
+    @Test
+    void shouldAdmitTicketsInOrder() throws InterruptedException
+    {
+        AdmissionControl admissionControl = admissionControl(5, 1, 100, Duration.ofSeconds(30));
+        admissionControl.admit(SHOWTIME_ID, null);
+        UUID first = assertThrows(AdmissionDeniedException.class, () -> admissionControl.admit(SHOWTIME_ID, null)).getStatus().ticket();
+        UUID second = assertThrows(AdmissionDeniedException.class, () -> admissionControl.admit(SHOWTIME_ID, null)).getStatus().ticket();
+
+        // A request that arrives without a ticket cannot jump the queue
+        assertEquals(3, assertThrows(AdmissionDeniedException.class, () -> admissionControl.admit(SHOWTIME_ID, null)).getStatus().position());
+
+        AdmissionStatus status = awaitAdmission(admissionControl, first);
+        assertEquals(new AdmissionStatus(first, SHOWTIME_ID, 0, true), status);
+        assertEquals(1, admissionControl.status(second).position());
+
+        admissionControl.admit(SHOWTIME_ID, first);
+        assertThrows(NotFoundException.class, () -> admissionControl.status(first));
+        // A used ticket is no pass: the caller queues again with a new one
+        UUID requeued = assertThrows(AdmissionDeniedException.class, () -> admissionControl.admit(SHOWTIME_ID, first)).getStatus().ticket();
+        assertNotEquals(first, requeued);
+    }
+
+    @DisplayName("Should turn requests away without a ticket when the queue is full")
+    @Test
+    void shouldRejectWhenQueueIsFull()
+    {
+        AdmissionControl admissionControl = admissionControl(0.001, 1, 2, Duration.ofSeconds(30));
+        admissionControl.admit(SHOWTIME_ID, null);
+        assertThrows(AdmissionDeniedException.class, () -> admissionControl.admit(SHOWTIME_ID, null));
+        assertThrows(AdmissionDeniedException.class, () -> admissionControl.admit(SHOWTIME_ID, null));
+
+        AdmissionDeniedException exception = assertThrows(AdmissionDeniedException.class, () -> admissionControl.admit(SHOWTIME_ID, null));
+
+        assertNull(exception.getStatus());
+        assertEquals("The waiting room for this showtime is full, please retry later", exception.getMessage());
+        assertEquals(2, admissionControl.waiting());
+    }
+
+    @DisplayName("Should keep a separate queue per showtime")
+    @Test
+    void shouldQueuePerShowtime()
+    {
+        AdmissionControl admissionControl = admissionControl(0.001, 1, 100, Duration.ofSeconds(30));
+        admissionControl.admit(SHOWTIME_ID, null);
+        UUID ticket = assertThrows(AdmissionDeniedException.class, () -> admissionControl.admit(SHOWTIME_ID, null)).getStatus().ticket();
+
+        assertDoesNotThrow(() -> admissionControl.admit(SHOWTIME_ID + 1, null));
+        // A ticket only counts for the showtime it was given for
+        assertEquals(1, assertThrows(AdmissionDeniedException.class, () -> admissionControl.admit(SHOWTIME_ID + 1, ticket)).getStatus().position());
+    }
+
+    @DisplayName("Should skip tickets nobody polls for the turn TTL")
+    @Test
+    void shouldSkipAbandonedTickets() throws InterruptedException
+    {
+        AdmissionControl admissionControl = admissionControl(4, 1, 100, Duration.ofMillis(100));
+        admissionControl.admit(SHOWTIME_ID, null);
+        UUID abandoned = assertThrows(AdmissionDeniedException.class, () -> admissionControl.admit(SHOWTIME_ID, null)).getStatus().ticket();
+        UUID polled = assertThrows(AdmissionDeniedException.class, () -> admissionControl.admit(SHOWTIME_ID, null)).getStatus().ticket();
+
+        awaitAdmission(admissionControl, polled);
+
+        assertThrows(NotFoundException.class, () -> admissionControl.status(abandoned));
+        assertEquals(1, meterRegistry.counter("booking.admission", "result", "abandoned").count());
+    }
+
+    @DisplayName("Should let everything through when disabled")
+    @Test
+    void shouldPassEverythingWhenDisabled()
+    {
+        AdmissionControl admissionControl = new AdmissionControl(new ServiceMetrics(meterRegistry), false, 0.001, 1, 1, Duration.ofSeconds(30));
+
+        for (int i = 0; i < 10; i++) {
+            admissionControl.admit(SHOWTIME_ID, null);
+        }
+        assertEquals(0, admissionControl.waiting());
+    }
+
+    // Poll like a client would, often enough that the ticket is never taken for abandoned
+    private static AdmissionStatus awaitAdmission(AdmissionControl admissionControl, UUID ticket) throws InterruptedException
+    {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (System.nanoTime() < deadline) {
+            AdmissionStatus status = admissionControl.status(ticket);
+            if (status.admitted()) {
+                return status;
+            }
+            Thread.sleep(10);
+        }
+        return fail("Ticket " + ticket + " was not admitted");
+    }
+}
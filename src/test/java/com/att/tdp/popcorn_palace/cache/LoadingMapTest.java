@@ -0,0 +1,120 @@
+package com.att.tdp.popcorn_palace.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoadingMapTest
+{
+    @DisplayName("Should load a key once when many virtual threads ask for it together")
+    @Test
+    void shouldLoadOnceUnderConcurrentMisses() throws Exception
+    {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        LoadingMap<Long, String> map = new LoadingMap<>(key -> {
+            loads.incrementAndGet();
+            await(release);
+            return "value-" + key;
+        });
+
+        List<Future<String>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 100; i++) {
+                results.add(executor.submit(() -> map.get(7L)));
+            }
+            release.countDown();
+            for (Future<String> result : results) {
+                assertEquals("value-7", result.get(5, TimeUnit.SECONDS));
+            }
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals("value-7", map.getIfPresent(7L));
+    }
+
+    @DisplayName("Should not cache a failed load")
+    @Test
+    void shouldRetryAfterFailedLoad()
+    {
+        AtomicInteger loads = new AtomicInteger();
+        LoadingMap<Long, String> map = new LoadingMap<>(key -> {
+            if (loads.incrementAndGet() == 1) {
+                throw new IllegalStateException("database unavailable");
+            }
+            return "value-" + key;
+        });
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> map.get(1L));
+
+        assertEquals("database unavailable", exception.getMessage());
+        assertNull(map.getIfPresent(1L));
+        assertEquals("value-1", map.get(1L));
+        assertEquals(2, loads.get());
+    }
+
+    @DisplayName("Should load again after a key is removed")
+    @Test
+    void shouldReloadAfterRemove()
+    {
+        AtomicInteger loads = new AtomicInteger();
+        LoadingMap<Long, Integer> map = new LoadingMap<>(key -> loads.incrementAndGet());
+
+        assertEquals(1, map.get(1L));
+        assertEquals(1, map.get(1L));
+        map.remove(1L);
+
+        assertNull(map.getIfPresent(1L));
+        assertEquals(2, map.get(1L));
+    }
+
+    @DisplayName("Should drop a load that was running when its key was removed")
+    @Test
+    void shouldCancelLoadInFlightOnRemove() throws Exception
+    {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        LoadingMap<Long, Integer> map = new LoadingMap<>(key -> {
+            int load = loads.incrementAndGet();
+            if (load == 1) {
+                started.countDown();
+                await(release);
+            }
+            return load;
+        });
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Integer> result = executor.submit(() -> map.get(1L));
+            started.await();
+            map.remove(1L);
+            release.countDown();
+
+            // The first load read data from before the remove, so the caller gets a fresh one
+            assertEquals(2, result.get(5, TimeUnit.SECONDS));
+        }
+
+        assertEquals(2, map.getIfPresent(1L));
+        assertEquals(2, loads.get());
+    }
+
+    private static void await(CountDownLatch latch)
+    {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.att.tdp.popcorn_palace.datasource;
+
+import com.att.tdp.popcorn_palace.dictionary.GenreDictionary;
+import com.att.tdp.popcorn_palace.errors.NotFoundException;
+import com.att.tdp.popcorn_palace.model.Movie;
+import com.att.tdp.popcorn_palace.service.MovieService;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Two in-memory H2 databases stand in for the primary and the replica. The replica gets the primary's schema but
+// none of its rows, so where a row shows up tells which pool served the statement
+@SpringBootTest(properties = {
+        "popcorn-palace.datasource.replica.enabled=true",
+        "popcorn-palace.datasource.replica.jdbc-url=jdbc:h2:mem:replica;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "popcorn-palace.datasource.replica.username=sa",
+        "popcorn-palace.datasource.replica.password=password"
+})
+public class ReadReplicaRoutingTest
+{
+    @Autowired
+    private MovieService movieService;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private HikariDataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private HikariDataSource replicaDataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private GenreDictionary genres;
+
+    @TempDir
+    Path directory;
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void setUp()
+    {
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+        if (replica.queryForObject("select count(*) from information_schema.tables where table_name = 'MOVIES'", Integer.class) == 0) {
+            String script = directory.resolve("schema.sql").toString();
+            primary.execute("script nodata to '" + script + "'");
+            replica.execute("runscript from '" + script + "'");
+        }
+    }
+
+    @DisplayName("Should serve read-only service methods from the replica")
+    @Test
+    void shouldReadFromReplica()
+    {
+        String title = "Replica Only " + UUID.randomUUID();
+        // The replica's dictionary tables are empty too: the genre ID is one the primary already handed out
+        replica.update("insert into movies (title, genre_id, duration, rating, release_year) values (?, ?, 100, 7.0, 2024)",
+                title, genres.intern("Drama"));
+
+        assertTrue(movieService.getAllMovies().stream().anyMatch(movie -> movie.getTitle().equals(title)));
+        assertEquals(0, count(primary, title));
+    }
+
+    @DisplayName("Should load the movie cache from the primary")
+    @Test
+    void shouldLoadMovieCacheFromPrimary()
+    {
+        String title = "Replica Only " + UUID.randomUUID();
+        replica.update("insert into movies (title, genre_id, duration, rating, release_year) values (?, ?, 100, 7.0, 2024)",
+                title, genres.intern("Drama"));
+
+        // A cached row outlives replication lag, so lookups by title never read the replica
+        assertThrows(NotFoundException.class, () -> movieService.getByTitle(title));
+    }
+
+    @DisplayName("Should write to the primary")
+    @Test
+    void shouldWriteToPrimary()
+    {
+        String title = "Primary " + UUID.randomUUID();
+        movieService.save(new Movie(null, title, "Drama", 100, 7.0, 2024, null));
+
+        assertEquals(1, count(primary, title));
+        assertEquals(0, count(replica, title));
+    }
+
+    @DisplayName("Should keep reads pinned to the primary there")
+    @Test
+    void shouldPinReadsToPrimary()
+    {
+        String title = "Pinned " + UUID.randomUUID();
+        movieService.save(new Movie(null, title, "Drama", 100, 7.0, 2024, null));
+
+        assertFalse(movieService.getAllMovies().stream().anyMatch(movie -> movie.getTitle().equals(title)));
+        assertTrue(ReplicaRoutingDataSource.onPrimary(() -> movieService.getAllMovies()).stream().anyMatch(movie -> movie.getTitle().equals(title)));
+    }
+
+    @DisplayName("Should report connection metrics per pool")
+    @Test
+    void shouldReportMetricsPerPool()
+    {
+        movieService.getAllMovies();
+
+        assertNotNull(meterRegistry.find("hikaricp.connections").tag("pool", "primary").gauge());
+        assertNotNull(meterRegistry.find("hikaricp.connections").tag("pool", "replica").gauge());
+        assertNotNull(meterRegistry.find("hikaricp.connections.acquire").tag("pool", "replica").timer());
+    }
+
+    private static int count(JdbcTemplate jdbc, String title)
+    {
+        return jdbc.queryForObject("select count(*) from movies where title = ?", Integer.class, title);
+    }
+}
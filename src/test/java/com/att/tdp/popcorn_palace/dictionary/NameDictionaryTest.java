@@ -0,0 +1,76 @@
+package com.att.tdp.popcorn_palace.dictionary;
+
+import com.att.tdp.popcorn_palace.dto.ShowtimeFilter;
+import com.att.tdp.popcorn_palace.model.Movie;
+import com.att.tdp.popcorn_palace.model.Showtime;
+import com.att.tdp.popcorn_palace.service.MovieService;
+import com.att.tdp.popcorn_palace.service.ShowtimeService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Theater and genre names are stored as dictionary IDs, while the entities and the API keep working with names
+@SpringBootTest
+public class NameDictionaryTest
+{
+    @Autowired
+    private TheaterDictionary theaters;
+
+    @Autowired
+    private MovieService movieService;
+
+    @Autowired
+    private ShowtimeService showtimeService;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @DisplayName("Should hand out one ID per name and map it back")
+    @Test
+    void shouldInternNamesOnce()
+    {
+        String name = "Dictionary Hall " + UUID.randomUUID();
+
+        Integer id = theaters.intern(name);
+
+        assertEquals(id, theaters.intern(name));
+        assertEquals(id, theaters.find(name));
+        assertEquals(name, theaters.name(id));
+        assertEquals(1, jdbc.queryForObject("select count(*) from theaters where name = ?", Integer.class, name));
+    }
+
+    @DisplayName("Should store showtimes and movies with dictionary IDs and read back names")
+    @Test
+    void shouldStoreIds()
+    {
+        String genre = "Dictionary Genre " + UUID.randomUUID();
+        String theater = "Dictionary Hall " + UUID.randomUUID();
+        Movie movie = movieService.save(new Movie(null, "Dictionary " + UUID.randomUUID(), genre, 100, 7.0, 2024, null));
+        LocalDateTime start = LocalDateTime.of(2037, 1, 1, 10, 0);
+        Showtime showtime = showtimeService.save(new Showtime(null, movie, theater, start, start.plusHours(2), 30.0, null));
+
+        assertEquals(theater, jdbc.queryForObject("select t.name from showtimes s join theaters t on t.id = s.theater_id where s.id = ?",
+                String.class, showtime.getId()));
+        assertEquals(genre, jdbc.queryForObject("select g.name from movies m join genres g on g.id = m.genre_id where m.id = ?",
+                String.class, movie.getId()));
+        assertEquals(theater, showtimeService.getShowtimeById(showtime.getId()).getTheater());
+        assertEquals(genre, movieService.getByTitle(movie.getTitle()).getGenre());
+    }
+
+    @DisplayName("Should not add a theater that is only searched for")
+    @Test
+    void shouldNotInternSearchedTheater()
+    {
+        String name = "Unknown Hall " + UUID.randomUUID();
+
+        assertTrue(showtimeService.search(new ShowtimeFilter(null, name, null, null), null, 10).items().isEmpty());
+        assertNull(theaters.find(name));
+    }
+}
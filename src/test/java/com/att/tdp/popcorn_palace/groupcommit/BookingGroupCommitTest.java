@@ -0,0 +1,241 @@
+package com.att.tdp.popcorn_palace.groupcommit;
+
+import com.att.tdp.popcorn_palace.errors.BookingOverloadedException;
+import com.att.tdp.popcorn_palace.errors.SeatAlreadyBookedException;
+import com.att.tdp.popcorn_palace.model.Booking;
+import com.att.tdp.popcorn_palace.model.Movie;
+import com.att.tdp.popcorn_palace.model.Showtime;
+import com.att.tdp.popcorn_palace.repository.BookingRepository;
+import com.att.tdp.popcorn_palace.repository.ShowtimeRepository;
+import com.att.tdp.popcorn_palace.service.MovieService;
+import com.att.tdp.popcorn_palace.service.ShowtimeService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Group commit against the test database: concurrent requests share batches, and each one gets its own outcome
+@SpringBootTest
+public class BookingGroupCommitTest
+{
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ShowtimeRepository showtimeRepository;
+
+    @Autowired
+    private MovieService movieService;
+
+    @Autowired
+    private ShowtimeService showtimeService;
+
+    private final ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor();
+    private final List<BookingGroupCommit> started = new ArrayList<>();
+    private Showtime showtime;
+
+    @BeforeEach
+    void setUp()
+    {
+        Movie movie = movieService.save(new Movie(null, "Group Commit " + UUID.randomUUID(), "Drama", 120, 7.0, 2024, null));
+        Showtime showtime = new Showtime();
+        showtime.setMovie(movie);
+        showtime.setTheater("Group Commit Hall " + UUID.randomUUID());
+        showtime.setStart_time(LocalDateTime.of(2035, 1, 1, 10, 0));
+        showtime.setEnd_time(LocalDateTime.of(2035, 1, 1, 12, 0));
+        showtime.setPrice(40.0);
+        this.showtime = showtimeRepository.findById(showtimeService.save(showtime).getId()).orElseThrow();
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        started.forEach(BookingGroupCommit::stop);
+        callers.shutdownNow();
+    }
+
+    @DisplayName("Should write concurrent requests in fewer batches than requests")
+    @Test
+    void shouldCoalesceConcurrentRequests() throws Exception
+    {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BookingGroupCommit groupCommit = groupCommit(bookingRepository, 10000);
+        groupCommit.bindTo(meterRegistry);
+        start(groupCommit);
+
+        List<Future<List<Booking>>> results = new ArrayList<>();
+        for (int seat = 1; seat <= 200; seat++) {
+            int seatNumber = seat;
+            results.add(callers.submit(() -> groupCommit.commit(List.of(booking(seatNumber)))));
+        }
+        for (Future<List<Booking>> result : results) {
+            assertNotNull(result.get().get(0).getId());
+        }
+
+        assertEquals(200, bookedRows());
+        long batches = meterRegistry.summary("booking.group_commit.batch_size").count();
+        assertTrue(batches < 200, "200 requests were written in " + batches + " batches");
+    }
+
+    @DisplayName("Should fail only the requests whose seats are taken")
+    @Test
+    void shouldIsolateConflicts() throws Exception
+    {
+        jdbc.update("insert into bookings (id, showtime_id, seat_number, user_id) values (?, ?, ?, ?)", UUID.randomUUID(), showtime.getId(), 5, UUID.randomUUID());
+        BookingGroupCommit groupCommit = groupCommit(bookingRepository, 10000);
+
+        // Queued in this order before the writer starts, so all four land in one batch
+        Future<List<Booking>> first = enqueue(groupCommit, 1, booking(1), booking(2));
+        Future<List<Booking>> booked = enqueue(groupCommit, 2, booking(5));
+        Future<List<Booking>> sameBatch = enqueue(groupCommit, 3, booking(2), booking(3));
+        Future<List<Booking>> last = enqueue(groupCommit, 4, booking(4));
+        start(groupCommit);
+
+        assertEquals(2, first.get().size());
+        assertEquals("Seat 5 is already booked for this showtime", failure(booked).getMessage());
+        assertEquals("Seat 2 is already booked for this showtime", failure(sameBatch).getMessage());
+        assertEquals(1, last.get().size());
+        assertEquals(List.of(1, 2, 4, 5), jdbc.queryForList("select seat_number from bookings where showtime_id = ? order by seat_number", Integer.class, showtime.getId()));
+    }
+
+    @DisplayName("Should fall back to one transaction per request when the constraint rejects the batch")
+    @Test
+    void shouldRetryRequestsAloneOnConstraintViolation() throws Exception
+    {
+        // Seat 7 is booked by another instance after the batch checked it
+        BookingRepository staleRepository = mock(BookingRepository.class);
+        when(staleRepository.findBookedSeatNumbers(anyLong(), any())).thenReturn(List.of());
+        jdbc.update("insert into bookings (id, showtime_id, seat_number, user_id) values (?, ?, ?, ?)", UUID.randomUUID(), showtime.getId(), 7, UUID.randomUUID());
+        BookingGroupCommit groupCommit = groupCommit(staleRepository, 10000);
+
+        Future<List<Booking>> first = enqueue(groupCommit, 1, booking(6));
+        Future<List<Booking>> conflicting = enqueue(groupCommit, 2, booking(7), booking(8));
+        start(groupCommit);
+
+        assertEquals(1, first.get().size());
+        assertInstanceOf(SeatAlreadyBookedException.class, failure(conflicting));
+        assertEquals(2, bookedRows());
+    }
+
+    @DisplayName("Should turn requests away once max-pending requests are waiting")
+    @Test
+    void shouldRejectWhenQueueIsFull() throws Exception
+    {
+        BookingGroupCommit groupCommit = groupCommit(bookingRepository, 1);
+        Future<List<Booking>> queued = enqueue(groupCommit, 1, booking(1));
+
+        assertThrows(BookingOverloadedException.class, () -> groupCommit.commit(List.of(booking(2))));
+
+        start(groupCommit);
+        assertEquals(1, queued.get().size());
+        assertEquals(1, bookedRows());
+    }
+
+    @DisplayName("Should withdraw a request the writer does not pick up within the commit timeout")
+    @Test
+    void shouldWithdrawRequestAfterCommitTimeout() throws Exception
+    {
+        BookingGroupCommit groupCommit = groupCommit(bookingRepository, 10000, Duration.ofMillis(50));
+
+        assertThrows(BookingOverloadedException.class, () -> groupCommit.commit(List.of(booking(1))));
+        assertEquals(0, groupCommit.pending());
+
+        start(groupCommit);
+        assertEquals(1, groupCommit.commit(List.of(booking(2))).size());
+        assertEquals(List.of(2), jdbc.queryForList("select seat_number from bookings where showtime_id = ?", Integer.class, showtime.getId()));
+    }
+
+    @DisplayName("Should turn requests away after stop")
+    @Test
+    void shouldRejectAfterStop() throws Exception
+    {
+        BookingGroupCommit groupCommit = groupCommit(bookingRepository, 10000);
+        start(groupCommit);
+        groupCommit.stop();
+
+        assertThrows(BookingOverloadedException.class, () -> groupCommit.commit(List.of(booking(1))));
+        assertEquals(0, bookedRows());
+    }
+
+    @DisplayName("Should fail the batch and keep writing when the writer hits an Error")
+    @Test
+    void shouldSurviveErrorInWriter() throws Exception
+    {
+        BookingRepository failingRepository = mock(BookingRepository.class);
+        when(failingRepository.findBookedSeatNumbers(anyLong(), any())).thenThrow(new OutOfMemoryError("test")).thenReturn(List.of());
+        BookingGroupCommit groupCommit = groupCommit(failingRepository, 10000);
+        start(groupCommit);
+
+        assertThrows(OutOfMemoryError.class, () -> groupCommit.commit(List.of(booking(1))));
+        assertEquals(1, groupCommit.commit(List.of(booking(2))).size());
+        assertEquals(1, bookedRows());
+    }
+
+    private BookingGroupCommit groupCommit(BookingRepository bookingRepository, int maxPending)
+    {
+        return groupCommit(bookingRepository, maxPending, Duration.ofSeconds(5));
+    }
+
+    private BookingGroupCommit groupCommit(BookingRepository bookingRepository, int maxPending, Duration commitTimeout)
+    {
+        return new BookingGroupCommit(jdbc, transactionManager, bookingRepository, true, 64, Duration.ofMillis(20), maxPending, Duration.ofMillis(100), commitTimeout);
+    }
+
+    private void start(BookingGroupCommit groupCommit)
+    {
+        groupCommit.start();
+        started.add(groupCommit);
+    }
+
+    // Submit a request and wait until it is queued, so the queue order is the call order
+    private Future<List<Booking>> enqueue(BookingGroupCommit groupCommit, int pendingAfter, Booking... bookings) throws InterruptedException
+    {
+        Future<List<Booking>> result = callers.submit(() -> groupCommit.commit(List.of(bookings)));
+        while (groupCommit.pending() < pendingAfter) {
+            Thread.sleep(1);
+        }
+        return result;
+    }
+
+    private static Throwable failure(Future<List<Booking>> result)
+    {
+        return assertThrows(ExecutionException.class, result::get).getCause();
+    }
+
+    private Booking booking(int seatNumber)
+    {
+        return new Booking(null, showtime, seatNumber, UUID.randomUUID());
+    }
+
+    private int bookedRows()
+    {
+        return jdbc.queryForObject("select count(*) from bookings where showtime_id = ?", Integer.class, showtime.getId());
+    }
+}
@@ -0,0 +1,158 @@
+package com.att.tdp.popcorn_palace.journal;
+
+import com.att.tdp.popcorn_palace.model.id.UuidV7Generator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BookingJournalTest
+{
+    private static final long SEGMENT_SIZE = 1024 * BookingJournal.RECORD_SIZE;
+
+    @TempDir
+    Path directory;
+
+    @DisplayName("Should replay undrained records after the journal is reopened")
+    @Test
+    void shouldReplayUndrainedRecords()
+    {
+        BookingJournal journal = new BookingJournal(directory, SEGMENT_SIZE, true);
+        List<JournaledBooking> bookings = bookings(10);
+        journal.append(bookings);
+
+        // Reopened without closing, as after a crash
+        BookingJournal reopened = new BookingJournal(directory, SEGMENT_SIZE, true);
+
+        assertEquals(10, reopened.pending());
+        assertEquals(bookings, reopened.read(100).bookings());
+    }
+
+    @DisplayName("Should not replay drained records")
+    @Test
+    void shouldNotReplayDrainedRecords()
+    {
+        BookingJournal journal = new BookingJournal(directory, SEGMENT_SIZE, true);
+        List<JournaledBooking> bookings = bookings(10);
+        journal.append(bookings);
+        journal.markDrained(journal.read(6));
+
+        BookingJournal reopened = new BookingJournal(directory, SEGMENT_SIZE, true);
+
+        assertEquals(4, reopened.pending());
+        assertEquals(bookings.subList(6, 10), reopened.read(100).bookings());
+    }
+
+    @DisplayName("Should end the log at a torn record and append over it")
+    @Test
+    void shouldStopAtTornRecord() throws Exception
+    {
+        BookingJournal journal = new BookingJournal(directory, SEGMENT_SIZE, true);
+        List<JournaledBooking> bookings = bookings(5);
+        journal.append(bookings);
+        // Half of the last record's payload never reached the file
+        try (FileChannel channel = FileChannel.open(segments().get(0), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(24), 4L * BookingJournal.RECORD_SIZE + 24);
+        }
+
+        BookingJournal reopened = new BookingJournal(directory, SEGMENT_SIZE, true);
+        JournaledBooking next = bookings(1).get(0);
+        reopened.append(List.of(next));
+
+        List<JournaledBooking> expected = new ArrayList<>(bookings.subList(0, 4));
+        expected.add(next);
+        assertEquals(expected, reopened.read(100).bookings());
+    }
+
+    @DisplayName("Should roll over to new segments and delete the drained ones")
+    @Test
+    void shouldRollAndDeleteDrainedSegments() throws Exception
+    {
+        BookingJournal journal = new BookingJournal(directory, 4 * BookingJournal.RECORD_SIZE, true);
+        List<JournaledBooking> bookings = bookings(10);
+        journal.append(bookings.subList(0, 3));
+        journal.append(bookings.subList(3, 10));
+        assertEquals(3, segments().size());
+
+        JournalBatch batch = journal.read(100);
+        assertEquals(bookings, batch.bookings());
+        journal.markDrained(batch);
+
+        assertEquals(1, segments().size());
+        assertEquals(0, journal.pending());
+        assertEquals(0, new BookingJournal(directory, 4 * BookingJournal.RECORD_SIZE, true).pending());
+    }
+
+    @DisplayName("Should keep every acknowledged record when the writing process is killed")
+    @Test
+    void shouldKeepAcknowledgedRecordsAfterKill() throws Exception
+    {
+        Process writer = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"), CrashWriter.class.getName(), directory.toString())
+                .redirectErrorStream(true)
+                .start();
+
+        Set<UUID> acknowledged = new HashSet<>();
+        try (BufferedReader output = new BufferedReader(new InputStreamReader(writer.getInputStream()))) {
+            String line;
+            while (acknowledged.size() < 2000 && (line = output.readLine()) != null) {
+                acknowledged.add(UUID.fromString(line));
+            }
+            writer.destroyForcibly().waitFor();
+        }
+        assertEquals(2000, acknowledged.size());
+
+        BookingJournal reopened = new BookingJournal(directory, SEGMENT_SIZE, true);
+        List<JournaledBooking> recovered = reopened.read(Integer.MAX_VALUE).bookings();
+        Set<UUID> recoveredIds = new HashSet<>();
+        recovered.forEach(booking -> assertTrue(recoveredIds.add(booking.id()), "duplicate " + booking.id()));
+
+        assertTrue(recoveredIds.containsAll(acknowledged));
+        assertEquals(recovered.size(), reopened.pending());
+    }
+
+    // Appends until killed, printing each booking ID once append has returned
+    public static class CrashWriter
+    {
+        public static void main(String[] args)
+        {
+            BookingJournal journal = new BookingJournal(Path.of(args[0]), SEGMENT_SIZE, false);
+            for (int seat = 1; ; seat++) {
+                JournaledBooking booking = new JournaledBooking(UuidV7Generator.next(), 1L, seat, UUID.randomUUID());
+                journal.append(List.of(booking));
+                System.out.println(booking.id());
+            }
+        }
+    }
+
+    private List<Path> segments() throws Exception
+    {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".segment")).sorted().toList();
+        }
+    }
+
+    private static List<JournaledBooking> bookings(int count)
+    {
+        List<JournaledBooking> bookings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            bookings.add(new JournaledBooking(UuidV7Generator.next(), 100L + i, i + 1, UUID.randomUUID()));
+        }
+        return bookings;
+    }
+}
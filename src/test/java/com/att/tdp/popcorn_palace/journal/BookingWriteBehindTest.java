@@ -0,0 +1,192 @@
+package com.att.tdp.popcorn_palace.journal;
+
+import com.att.tdp.popcorn_palace.errors.SeatAlreadyBookedException;
+import com.att.tdp.popcorn_palace.groupcommit.BookingGroupCommit;
+import com.att.tdp.popcorn_palace.metrics.ServiceMetrics;
+import com.att.tdp.popcorn_palace.model.Booking;
+import com.att.tdp.popcorn_palace.model.Movie;
+import com.att.tdp.popcorn_palace.model.Showtime;
+import com.att.tdp.popcorn_palace.occupancy.SeatOccupancyRegistry;
+import com.att.tdp.popcorn_palace.repository.BookingRepository;
+import com.att.tdp.popcorn_palace.repository.ShowtimeRepository;
+import com.att.tdp.popcorn_palace.service.BookingService;
+import com.att.tdp.popcorn_palace.service.MovieService;
+import com.att.tdp.popcorn_palace.service.ShowtimeService;
+import com.att.tdp.popcorn_palace.validation.BookingValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Write-behind against the test database: bookings are acknowledged from the journal and drained into the table
+// exactly once, including when the process dies after a drain committed but before the checkpoint moved
+@SpringBootTest
+public class BookingWriteBehindTest
+{
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ShowtimeRepository showtimeRepository;
+
+    @Autowired
+    private BookingGroupCommit groupCommit;
+
+    @Autowired
+    private MovieService movieService;
+
+    @Autowired
+    private ShowtimeService showtimeService;
+
+    @TempDir
+    Path directory;
+
+    private Long showtimeId;
+
+    @BeforeEach
+    void setUp()
+    {
+        Movie movie = movieService.save(new Movie(null, "Journal " + UUID.randomUUID(), "Drama", 120, 7.0, 2024, null));
+        Showtime showtime = new Showtime();
+        showtime.setMovie(movie);
+        showtime.setTheater("Journal Hall " + UUID.randomUUID());
+        showtime.setStart_time(LocalDateTime.of(2034, 1, 1, 10, 0));
+        showtime.setEnd_time(LocalDateTime.of(2034, 1, 1, 12, 0));
+        showtime.setPrice(40.0);
+        showtimeId = showtimeService.save(showtime).getId();
+    }
+
+    @DisplayName("Should acknowledge bookings from the journal and drain them into the table")
+    @Test
+    void shouldDrainAcknowledgedBookings()
+    {
+        SeatOccupancyRegistry seatOccupancy = new SeatOccupancyRegistry(bookingRepository, true);
+        BookingWriteBehind writeBehind = writeBehind(directory, seatOccupancy);
+        BookingService bookingService = bookingService(seatOccupancy, writeBehind);
+
+        for (int seat = 1; seat <= 20; seat++) {
+            assertNotNull(bookingService.save(new Booking(null, null, seat, UUID.randomUUID()), showtimeId).getId());
+        }
+        assertEquals(20, writeBehind.pending());
+        assertEquals(0, bookedRows());
+        // Seats waiting in the journal are already taken
+        assertThrows(SeatAlreadyBookedException.class, () -> bookingService.save(new Booking(null, null, 5, UUID.randomUUID()), showtimeId));
+
+        writeBehind.drain();
+
+        assertEquals(0, writeBehind.pending());
+        assertEquals(20, bookedRows());
+    }
+
+    @DisplayName("Should neither lose nor duplicate bookings replayed after a crash")
+    @Test
+    void shouldReplayWithoutDuplicates() throws Exception
+    {
+        SeatOccupancyRegistry seatOccupancy = new SeatOccupancyRegistry(bookingRepository, true);
+        BookingWriteBehind writeBehind = writeBehind(directory, seatOccupancy);
+        BookingService bookingService = bookingService(seatOccupancy, writeBehind);
+        List<UUID> acknowledged = new ArrayList<>();
+        for (int seat = 1; seat <= 50; seat++) {
+            acknowledged.add(bookingService.save(new Booking(null, null, seat, UUID.randomUUID()), showtimeId).getId());
+        }
+
+        // The journal as the crash left it: drained into the table, but the checkpoint never written
+        Path crashed = Files.createDirectory(directory.resolve("crashed"));
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(Files::isRegularFile).toList()) {
+                Files.copy(file, crashed.resolve(file.getFileName()));
+            }
+        }
+        writeBehind.drain();
+        assertEquals(50, bookedRows());
+
+        BookingWriteBehind restarted = writeBehind(crashed, new SeatOccupancyRegistry(bookingRepository, true));
+        assertEquals(50, restarted.pending());
+        restarted.start();
+
+        assertEquals(0, restarted.pending());
+        assertEquals(50, bookedRows());
+        for (UUID id : acknowledged) {
+            assertTrue(bookingRepository.existsById(id));
+        }
+    }
+
+    @DisplayName("Should keep the rows the database rejects in the dead-letter journal and report DOWN")
+    @Test
+    void shouldDeadLetterRejectedRows()
+    {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        SeatOccupancyRegistry seatOccupancy = new SeatOccupancyRegistry(bookingRepository, true);
+        BookingWriteBehind writeBehind = new BookingWriteBehind(jdbc, transactionManager, seatOccupancy, new ServiceMetrics(meterRegistry),
+                true, directory, DataSize.ofMegabytes(1), true, 100);
+        Showtime showtime = showtimeRepository.findById(showtimeId).orElseThrow();
+        // Seat 2 was booked by another instance the journal's seat bitmap never saw
+        jdbc.update("insert into bookings (id, showtime_id, seat_number, user_id) values (?, ?, ?, ?)", UUID.randomUUID(), showtimeId, 2, UUID.randomUUID());
+
+        List<Booking> bookings = new ArrayList<>();
+        for (int seat = 1; seat <= 3; seat++) {
+            bookings.add(new Booking(null, showtime, seat, UUID.randomUUID()));
+        }
+        writeBehind.append(bookings);
+        assertEquals(Status.UP, writeBehind.health().getStatus());
+        writeBehind.drain();
+
+        assertEquals(0, writeBehind.pending());
+        assertEquals(3, bookedRows());
+        assertTrue(bookingRepository.existsById(bookings.get(0).getId()));
+        assertFalse(bookingRepository.existsById(bookings.get(1).getId()));
+        assertTrue(bookingRepository.existsById(bookings.get(2).getId()));
+        assertEquals(1, meterRegistry.counter("booking.journal.dead_lettered").count());
+        assertEquals(1, writeBehind.deadLetters());
+        assertEquals(Status.DOWN, writeBehind.health().getStatus());
+        writeBehind.stop();
+
+        // The dead letter outlives a restart, with the booking it was acknowledged as
+        BookingWriteBehind restarted = writeBehind(directory, new SeatOccupancyRegistry(bookingRepository, true));
+        assertEquals(1, restarted.deadLetters());
+        assertEquals(Status.DOWN, restarted.health().getStatus());
+        BookingJournal deadLetters = new BookingJournal(directory.resolve("dead-letter"), DataSize.ofKilobytes(64).toBytes(), true);
+        JournaledBooking rejected = deadLetters.read(10).bookings().get(0);
+        assertEquals(bookings.get(1).getId(), rejected.id());
+        assertEquals(2, rejected.seatNumber());
+    }
+
+    private BookingWriteBehind writeBehind(Path journalDirectory, SeatOccupancyRegistry seatOccupancy)
+    {
+        return new BookingWriteBehind(jdbc, transactionManager, seatOccupancy, new ServiceMetrics(new SimpleMeterRegistry()),
+                true, journalDirectory, DataSize.ofMegabytes(1), true, 16);
+    }
+
+    private BookingService bookingService(SeatOccupancyRegistry seatOccupancy, BookingWriteBehind writeBehind)
+    {
+        return new BookingService(bookingRepository, showtimeRepository, new BookingValidator(), seatOccupancy, writeBehind, groupCommit, new ServiceMetrics(new SimpleMeterRegistry()));
+    }
+
+    private int bookedRows()
+    {
+        return jdbc.queryForObject("select count(*) from bookings where showtime_id = ?", Integer.class, showtimeId);
+    }
+}
@@ -0,0 +1,70 @@
+package com.att.tdp.popcorn_palace.model.id;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UuidV7GeneratorTest
+{
+    @DisplayName("Should generate version 7 UUIDs stamped with the current time")
+    @Test
+    void shouldGenerateVersion7()
+    {
+        long before = System.currentTimeMillis();
+        UUID uuid = UuidV7Generator.next();
+        long after = System.currentTimeMillis();
+
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+        // The counter may borrow a millisecond or two when IDs are generated faster than the clock ticks
+        assertTrue(UuidV7Generator.timestamp(uuid) >= before);
+        assertTrue(UuidV7Generator.timestamp(uuid) <= after + 100);
+    }
+
+    @DisplayName("Should generate strictly increasing UUIDs")
+    @Test
+    void shouldBeMonotonic()
+    {
+        UUID previous = UuidV7Generator.next();
+        for (int i = 0; i < 100_000; i++) {
+            UUID next = UuidV7Generator.next();
+            // UUID.compareTo compares signed halves, so compare the time-ordered half as unsigned
+            assertTrue(Long.compareUnsigned(next.getMostSignificantBits(), previous.getMostSignificantBits()) > 0);
+            previous = next;
+        }
+    }
+
+    @DisplayName("Should not repeat a UUID across threads")
+    @Test
+    void shouldBeUniqueAcrossThreads() throws Exception
+    {
+        List<Future<List<UUID>>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    List<UUID> ids = new ArrayList<>();
+                    for (int j = 0; j < 20_000; j++) {
+                        ids.add(UuidV7Generator.next());
+                    }
+                    return ids;
+                }));
+            }
+
+            Set<UUID> unique = new HashSet<>();
+            for (Future<List<UUID>> result : results) {
+                unique.addAll(result.get());
+            }
+            assertEquals(160_000, unique.size());
+        }
+    }
+}
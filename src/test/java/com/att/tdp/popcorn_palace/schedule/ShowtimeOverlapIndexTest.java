@@ -0,0 +1,82 @@
+package com.att.tdp.popcorn_palace.schedule;
+
+import com.att.tdp.popcorn_palace.model.Movie;
+import com.att.tdp.popcorn_palace.model.Showtime;
+import com.att.tdp.popcorn_palace.repository.ShowtimeRepository;
+import com.att.tdp.popcorn_palace.service.MovieService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs the overlap query against H2, which has no exclusion constraint, so the schedule can already hold overlaps
+@SpringBootTest
+public class ShowtimeOverlapIndexTest
+{
+    private static final LocalDateTime DAY = LocalDateTime.of(2033, 1, 1, 0, 0);
+
+    @Autowired
+    private ShowtimeOverlapIndex overlapIndex;
+
+    @Autowired
+    private ShowtimeRepository showtimeRepository;
+
+    @Autowired
+    private MovieService movieService;
+
+    private Movie movie;
+    private String theater;
+
+    @BeforeEach
+    void setUp()
+    {
+        movie = movieService.save(new Movie(null, "Overlap " + UUID.randomUUID(), "Drama", 120, 7.0, 2024, null));
+        theater = "Overlap Hall " + UUID.randomUUID();
+    }
+
+    @DisplayName("Should find an overlap hidden behind a showtime that ends earlier")
+    @Test
+    void shouldFindOverlapWithExistingOverlaps()
+    {
+        // A = [10, 30) and B = [20, 25) already overlap; the first showtime ending after 15 is B, which misses C
+        Long a = insert(10, 30);
+        insert(20, 25);
+
+        assertTrue(overlapIndex.overlaps(theater, DAY.plusHours(15), DAY.plusHours(18), null));
+        assertFalse(overlapIndex.overlaps(theater, DAY.plusHours(15), DAY.plusHours(18), a));
+    }
+
+    @DisplayName("Should accept showtimes that touch at either end")
+    @Test
+    void shouldAcceptAdjacentShowtimes()
+    {
+        insert(10, 12);
+        insert(14, 16);
+
+        assertFalse(overlapIndex.overlaps(theater, DAY.plusHours(12), DAY.plusHours(14), null));
+        assertTrue(overlapIndex.overlaps(theater, DAY.plusHours(11), DAY.plusHours(14), null));
+    }
+
+    @DisplayName("Should find an overlap with a showtime of the maximum duration")
+    @Test
+    void shouldFindOverlapWithLongestShowtime()
+    {
+        insert(0, 24);
+
+        assertTrue(overlapIndex.overlaps(theater, DAY.plusHours(23), DAY.plusHours(25), null));
+        assertFalse(overlapIndex.overlaps(theater, DAY.plusHours(24), DAY.plusHours(25), null));
+    }
+
+    // Saved straight through the repository, skipping the service's overlap check
+    private Long insert(int startHour, int endHour)
+    {
+        Showtime showtime = new Showtime(null, movie, theater, DAY.plusHours(startHour), DAY.plusHours(endHour), 40.0, null);
+        return showtimeRepository.save(showtime).getId();
+    }
+}
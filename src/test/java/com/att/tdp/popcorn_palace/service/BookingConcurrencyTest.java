@@ -0,0 +1,96 @@
+package com.att.tdp.popcorn_palace.service;
+
+import com.att.tdp.popcorn_palace.errors.SeatAlreadyBookedException;
+import com.att.tdp.popcorn_palace.model.Booking;
+import com.att.tdp.popcorn_palace.model.Movie;
+import com.att.tdp.popcorn_palace.model.Showtime;
+import com.att.tdp.popcorn_palace.repository.BookingRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs against the database with the in-memory seat bitmap off, so only the unique constraint stands
+// between concurrent bookings of the same seat
+@SpringBootTest(properties = "popcorn-palace.booking.seat-bitmap.enabled=false")
+public class BookingConcurrencyTest
+{
+    private static final int CLIENTS = 8;
+    private static final int SEATS = 100;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private ShowtimeService showtimeService;
+
+    @Autowired
+    private MovieService movieService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @DisplayName("Should book every seat exactly once when many clients race for all of them")
+    @Test
+    void shouldNeverDoubleBookUnderContention() throws Exception
+    {
+        Movie movie = movieService.save(new Movie(null, "Race " + UUID.randomUUID(), "Drama", 120, 7.0, 2024, null));
+        Showtime showtime = new Showtime();
+        showtime.setMovie(movie);
+        showtime.setTheater("Race Hall " + UUID.randomUUID());
+        showtime.setStart_time(LocalDateTime.of(2031, 1, 1, 10, 0));
+        showtime.setEnd_time(LocalDateTime.of(2031, 1, 1, 12, 0));
+        showtime.setPrice(40.0);
+        Long showtimeId = showtimeService.save(showtime).getId();
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<int[]>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(CLIENTS)) {
+            for (int client = 0; client < CLIENTS; client++) {
+                results.add(executor.submit(() -> {
+                    List<Integer> seats = new ArrayList<>(IntStream.rangeClosed(1, SEATS).boxed().toList());
+                    Collections.shuffle(seats);
+                    start.await();
+                    int booked = 0;
+                    int rejected = 0;
+                    for (int seat : seats) {
+                        try {
+                            bookingService.save(new Booking(null, null, seat, UUID.randomUUID()), showtimeId);
+                            booked++;
+                        } catch (SeatAlreadyBookedException e) {
+                            rejected++;
+                        }
+                    }
+                    return new int[]{booked, rejected};
+                }));
+            }
+            start.countDown();
+
+            int booked = 0;
+            int rejected = 0;
+            for (Future<int[]> result : results) {
+                booked += result.get()[0];
+                rejected += result.get()[1];
+            }
+            assertEquals(SEATS, booked);
+            assertEquals((CLIENTS - 1) * SEATS, rejected);
+        }
+
+        List<Integer> seats = bookingRepository.findSeatNumbersByShowtimeId(showtimeId);
+        assertEquals(SEATS, seats.size());
+        assertEquals(SEATS, seats.stream().distinct().count());
+    }
+}
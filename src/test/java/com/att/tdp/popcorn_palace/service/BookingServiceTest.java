@@ -1,15 +1,27 @@
 package com.att.tdp.popcorn_palace.service;
 
+import com.att.tdp.popcorn_palace.dto.BatchBookingRequest;
+import com.att.tdp.popcorn_palace.dto.Outcome;
+import com.att.tdp.popcorn_palace.errors.ErrorCode;
 import com.att.tdp.popcorn_palace.errors.NotFoundException;
+import com.att.tdp.popcorn_palace.errors.SeatAlreadyBookedException;
+import com.att.tdp.popcorn_palace.groupcommit.BookingGroupCommit;
+import com.att.tdp.popcorn_palace.journal.BookingWriteBehind;
+import com.att.tdp.popcorn_palace.metrics.ServiceMetrics;
 import com.att.tdp.popcorn_palace.model.Booking;
 import com.att.tdp.popcorn_palace.model.Showtime;
+import com.att.tdp.popcorn_palace.occupancy.SeatOccupancyRegistry;
 import com.att.tdp.popcorn_palace.repository.BookingRepository;
 import com.att.tdp.popcorn_palace.repository.ShowtimeRepository;
 import com.att.tdp.popcorn_palace.validation.BookingValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -28,7 +40,7 @@ public class BookingServiceTest
         bookingRepository = mock(BookingRepository.class);
         showtimeRepository = mock(ShowtimeRepository.class);
         BookingValidator bookingValidator = new BookingValidator();
-        bookingService = new BookingService(bookingRepository, showtimeRepository, bookingValidator);
+        bookingService = new BookingService(bookingRepository, showtimeRepository, bookingValidator, new SeatOccupancyRegistry(bookingRepository, true), mock(BookingWriteBehind.class), mock(BookingGroupCommit.class), new ServiceMetrics(new SimpleMeterRegistry()));
     }
 
     @DisplayName("Should save valid booking")
@@ -45,8 +57,7 @@ public class BookingServiceTest
         showtime.setId(showtimeId);
 
         when(showtimeRepository.findById(showtimeId)).thenReturn(Optional.of(showtime));
-        when(bookingRepository.existsByShowtimeIdAndSeatNumber(showtimeId, 25)).thenReturn(false);
-        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(bookingRepository.saveAndFlush(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         Booking savedBooking = bookingService.save(booking, showtimeId);
 
@@ -54,14 +65,14 @@ public class BookingServiceTest
         assertEquals(showtime, savedBooking.getShowtime());
         assertEquals(25, savedBooking.getSeatNumber());
         assertEquals(userId, savedBooking.getUserId());
-        verify(bookingRepository, times(1)).save(booking);
+        verify(bookingRepository, times(1)).saveAndFlush(booking);
     }
     @DisplayName("Should throw exception when booking is null")
     @Test
     void shouldThrowExceptionWhenBookingIsNull()
     {
         BookingValidator bookingValidator = new BookingValidator();
-        BookingService bookingService = new BookingService(bookingRepository, showtimeRepository, bookingValidator);
+        BookingService bookingService = new BookingService(bookingRepository, showtimeRepository, bookingValidator, new SeatOccupancyRegistry(bookingRepository, true), mock(BookingWriteBehind.class), mock(BookingGroupCommit.class), new ServiceMetrics(new SimpleMeterRegistry()));
 
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
             bookingService.save(null, 123L);
@@ -79,7 +90,7 @@ public class BookingServiceTest
         booking.setSeatNumber(25);
 
         BookingValidator bookingValidator = new BookingValidator();
-        BookingService bookingService = new BookingService(bookingRepository, showtimeRepository, bookingValidator);
+        BookingService bookingService = new BookingService(bookingRepository, showtimeRepository, bookingValidator, new SeatOccupancyRegistry(bookingRepository, true), mock(BookingWriteBehind.class), mock(BookingGroupCommit.class), new ServiceMetrics(new SimpleMeterRegistry()));
 
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
             bookingService.save(booking, null);
@@ -98,7 +109,7 @@ public class BookingServiceTest
         Long showtimeId = 1L;
 
         BookingValidator bookingValidator = new BookingValidator();
-        BookingService bookingService = new BookingService(bookingRepository, showtimeRepository, bookingValidator);
+        BookingService bookingService = new BookingService(bookingRepository, showtimeRepository, bookingValidator, new SeatOccupancyRegistry(bookingRepository, true), mock(BookingWriteBehind.class), mock(BookingGroupCommit.class), new ServiceMetrics(new SimpleMeterRegistry()));
 
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
             bookingService.save(booking, showtimeId);
@@ -114,7 +125,7 @@ public class BookingServiceTest
         BookingValidator bookingValidator = new BookingValidator();
         BookingRepository bookingRepository = mock(BookingRepository.class);
         ShowtimeRepository showtimeRepository = mock(ShowtimeRepository.class);
-        BookingService bookingService = new BookingService(bookingRepository, showtimeRepository, bookingValidator);
+        BookingService bookingService = new BookingService(bookingRepository, showtimeRepository, bookingValidator, new SeatOccupancyRegistry(bookingRepository, true), mock(BookingWriteBehind.class), mock(BookingGroupCommit.class), new ServiceMetrics(new SimpleMeterRegistry()));
 
         Booking bookingLow = new Booking();
         bookingLow.setUserId(UUID.randomUUID());
@@ -152,15 +163,16 @@ public class BookingServiceTest
         BookingValidator bookingValidator = new BookingValidator();
 
         when(showtimeRepository.findById(showtimeId)).thenReturn(Optional.of(showtime));
-        when(bookingRepository.existsByShowtimeIdAndSeatNumber(showtimeId, 10)).thenReturn(true);
+        when(bookingRepository.saveAndFlush(any(Booking.class))).thenThrow(seatConflict());
 
-        BookingService bookingService = new BookingService(bookingRepository, showtimeRepository, bookingValidator);
+        BookingService bookingService = new BookingService(bookingRepository, showtimeRepository, bookingValidator, new SeatOccupancyRegistry(bookingRepository, true), mock(BookingWriteBehind.class), mock(BookingGroupCommit.class), new ServiceMetrics(new SimpleMeterRegistry()));
 
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
             bookingService.save(booking, showtimeId);
         });
 
         assertEquals("Seat 10 is already booked for this showtime", exception.getMessage());
+        verify(bookingRepository, never()).existsByShowtimeIdAndSeatNumber(any(), anyInt());
     }
 
     @DisplayName("Should throw exception when showtime is not found")
@@ -178,7 +190,7 @@ public class BookingServiceTest
 
         when(showtimeRepository.findById(showtimeId)).thenReturn(Optional.empty());
 
-        BookingService bookingService = new BookingService(bookingRepository, showtimeRepository, bookingValidator);
+        BookingService bookingService = new BookingService(bookingRepository, showtimeRepository, bookingValidator, new SeatOccupancyRegistry(bookingRepository, true), mock(BookingWriteBehind.class), mock(BookingGroupCommit.class), new ServiceMetrics(new SimpleMeterRegistry()));
 
         NotFoundException exception = assertThrows(NotFoundException.class, () -> {
             bookingService.save(booking, showtimeId);
@@ -186,5 +198,242 @@ public class BookingServiceTest
 
         assertEquals("Showtime not found with ID: 999", exception.getMessage());
     }
-}
 
+    @DisplayName("Should reject a seat already claimed in memory without touching the database")
+    @Test
+    void shouldRejectSeatTakenInMemoryWithoutDatabaseLookup()
+    {
+        Long showtimeId = 7L;
+        Showtime showtime = new Showtime();
+        showtime.setId(showtimeId);
+
+        when(showtimeRepository.findById(showtimeId)).thenReturn(Optional.of(showtime));
+        when(bookingRepository.findSeatNumbersByShowtimeId(showtimeId)).thenReturn(List.of(12));
+
+        Booking first = new Booking();
+        first.setUserId(UUID.randomUUID());
+        first.setSeatNumber(12);
+        assertThrows(IllegalArgumentException.class, () -> bookingService.save(first, showtimeId));
+
+        clearInvocations(showtimeRepository, bookingRepository);
+
+        Booking second = new Booking();
+        second.setUserId(UUID.randomUUID());
+        second.setSeatNumber(12);
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            bookingService.save(second, showtimeId);
+        });
+
+        assertEquals("Seat 12 is already booked for this showtime", exception.getMessage());
+        verifyNoInteractions(showtimeRepository, bookingRepository);
+    }
+
+    @DisplayName("Should release the seat claim when the insert fails")
+    @Test
+    void shouldReleaseSeatClaimWhenInsertFails()
+    {
+        Long showtimeId = 8L;
+        Showtime showtime = new Showtime();
+        showtime.setId(showtimeId);
+
+        when(showtimeRepository.findById(showtimeId)).thenReturn(Optional.of(showtime));
+        when(bookingRepository.saveAndFlush(any(Booking.class))).thenThrow(new IllegalStateException("insert failed"));
+
+        Booking booking = new Booking();
+        booking.setUserId(UUID.randomUUID());
+        booking.setSeatNumber(30);
+        assertThrows(IllegalStateException.class, () -> bookingService.save(booking, showtimeId));
+
+        reset(bookingRepository);
+        when(bookingRepository.saveAndFlush(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Booking retry = new Booking();
+        retry.setUserId(UUID.randomUUID());
+        retry.setSeatNumber(30);
+        assertEquals(30, bookingService.save(retry, showtimeId).getSeatNumber());
+    }
+
+    @DisplayName("Should save all seats of a batch in one call")
+    @Test
+    void shouldSaveBatchOfSeats()
+    {
+        Long showtimeId = 20L;
+        Showtime showtime = new Showtime();
+        showtime.setId(showtimeId);
+        UUID userId = UUID.randomUUID();
+
+        when(showtimeRepository.findById(showtimeId)).thenReturn(Optional.of(showtime));
+        when(bookingRepository.saveAllAndFlush(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<Booking> saved = bookingService.saveAll(new BatchBookingRequest(showtimeId, userId, List.of(4, 5, 6, 7)));
+
+        assertEquals(4, saved.size());
+        assertEquals(List.of(4, 5, 6, 7), saved.stream().map(Booking::getSeatNumber).toList());
+        assertTrue(saved.stream().allMatch(booking -> booking.getShowtime() == showtime && userId.equals(booking.getUserId())));
+        verify(bookingRepository, times(1)).findBookedSeatNumbers(showtimeId, List.of(4, 5, 6, 7));
+        verify(bookingRepository, times(1)).saveAllAndFlush(anyList());
+        verify(bookingRepository, never()).saveAndFlush(any());
+    }
+
+    @DisplayName("Should book none of the seats when one of them is taken")
+    @Test
+    void shouldRejectWholeBatchWhenOneSeatTaken()
+    {
+        Long showtimeId = 21L;
+        Showtime showtime = new Showtime();
+        showtime.setId(showtimeId);
+
+        when(showtimeRepository.findById(showtimeId)).thenReturn(Optional.of(showtime));
+        when(bookingRepository.findBookedSeatNumbers(showtimeId, List.of(8, 9, 10))).thenReturn(List.of(9));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            bookingService.saveAll(new BatchBookingRequest(showtimeId, UUID.randomUUID(), List.of(8, 9, 10)));
+        });
+
+        assertEquals("Seat 9 is already booked for this showtime", exception.getMessage());
+        verify(bookingRepository, never()).saveAllAndFlush(anyList());
+
+        // The seats that were free must not stay claimed in memory
+        when(bookingRepository.saveAllAndFlush(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(bookingRepository.findBookedSeatNumbers(showtimeId, List.of(8, 10))).thenReturn(List.of());
+        assertEquals(2, bookingService.saveAll(new BatchBookingRequest(showtimeId, UUID.randomUUID(), List.of(8, 10))).size());
+    }
+
+    @DisplayName("Should throw exception when a seat is requested twice in a batch")
+    @Test
+    void shouldThrowExceptionWhenBatchHasDuplicateSeats()
+    {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            bookingService.saveAll(new BatchBookingRequest(1L, UUID.randomUUID(), List.of(3, 4, 3)));
+        });
+
+        assertEquals("Seat 3 is requested more than once", exception.getMessage());
+        verifyNoInteractions(showtimeRepository, bookingRepository);
+    }
+
+    @DisplayName("Should time bookings by outcome and count where seat conflicts were caught")
+    @Test
+    void shouldRecordBookingOutcomes()
+    {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BookingService bookingService = new BookingService(bookingRepository, showtimeRepository, new BookingValidator(), new SeatOccupancyRegistry(bookingRepository, true), mock(BookingWriteBehind.class), mock(BookingGroupCommit.class), new ServiceMetrics(meterRegistry));
+
+        Long showtimeId = 30L;
+        Showtime showtime = new Showtime();
+        showtime.setId(showtimeId);
+
+        when(showtimeRepository.findById(showtimeId)).thenReturn(Optional.of(showtime));
+        when(showtimeRepository.findById(31L)).thenReturn(Optional.empty());
+        when(bookingRepository.saveAndFlush(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(bookingRepository.saveAndFlush(argThat(booking -> booking != null && booking.getSeatNumber() == 2))).thenThrow(seatConflict());
+
+        bookingService.save(new Booking(null, null, 1, UUID.randomUUID()), showtimeId);
+        assertThrows(IllegalArgumentException.class, () -> bookingService.save(new Booking(null, null, 1, UUID.randomUUID()), showtimeId));
+        assertThrows(IllegalArgumentException.class, () -> bookingService.save(new Booking(null, null, 2, UUID.randomUUID()), showtimeId));
+        assertThrows(NotFoundException.class, () -> bookingService.save(new Booking(null, null, 1, UUID.randomUUID()), 31L));
+
+        assertEquals(1, meterRegistry.get("booking.operation").tags("operation", "save", "outcome", "success").timer().count());
+        assertEquals(2, meterRegistry.get("booking.operation").tags("operation", "save", "outcome", "seat_taken").timer().count());
+        assertEquals(1, meterRegistry.get("booking.operation").tags("operation", "save", "outcome", "not_found").timer().count());
+        assertEquals(1, meterRegistry.get("booking.seat.rejected").tag("stage", "bitmap").counter().count());
+        assertEquals(1, meterRegistry.get("booking.seat.rejected").tag("stage", "database").counter().count());
+    }
+
+    @DisplayName("Should return a taken seat and a missing showtime as failures, and throw them without a stack trace")
+    @Test
+    void shouldReturnRejectionsAsOutcomes()
+    {
+        Long showtimeId = 35L;
+        Showtime showtime = new Showtime();
+        showtime.setId(showtimeId);
+
+        when(showtimeRepository.findById(showtimeId)).thenReturn(Optional.of(showtime));
+        when(showtimeRepository.findById(36L)).thenReturn(Optional.empty());
+        when(bookingRepository.saveAndFlush(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertInstanceOf(Outcome.Success.class, bookingService.tryBook(new Booking(null, null, 3, UUID.randomUUID()), showtimeId));
+        Outcome<Booking> taken = bookingService.tryBook(new Booking(null, null, 3, UUID.randomUUID()), showtimeId);
+        Outcome<List<Booking>> missing = bookingService.tryBookAll(new BatchBookingRequest(36L, UUID.randomUUID(), List.of(4, 5)));
+
+        assertEquals(new Outcome.Failure<>(ErrorCode.SEAT_TAKEN, "Seat 3 is already booked for this showtime"), taken);
+        assertEquals(new Outcome.Failure<>(ErrorCode.NOT_FOUND, "Showtime not found with ID: 36"), missing);
+        SeatAlreadyBookedException exception = assertThrows(SeatAlreadyBookedException.class, taken::orElseThrow);
+        assertEquals(0, exception.getStackTrace().length);
+    }
+
+    @DisplayName("Should report the seat as taken when a concurrent booking wins at the database")
+    @Test
+    void shouldTranslateSeatConstraintViolation()
+    {
+        Long showtimeId = 40L;
+        Showtime showtime = new Showtime();
+        showtime.setId(showtimeId);
+
+        when(showtimeRepository.findById(showtimeId)).thenReturn(Optional.of(showtime));
+        when(bookingRepository.findSeatNumbersByShowtimeId(showtimeId)).thenReturn(List.of(), List.of(15));
+        when(bookingRepository.saveAndFlush(any(Booking.class))).thenThrow(seatConflict());
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            bookingService.save(new Booking(null, null, 15, UUID.randomUUID()), showtimeId);
+        });
+        assertEquals("Seat 15 is already booked for this showtime", exception.getMessage());
+
+        // The bitmap was stale, so it is reloaded and now rejects the seat in memory
+        clearInvocations(bookingRepository);
+        assertThrows(IllegalArgumentException.class, () -> bookingService.save(new Booking(null, null, 15, UUID.randomUUID()), showtimeId));
+        verify(bookingRepository, times(1)).findSeatNumbersByShowtimeId(showtimeId);
+        verify(bookingRepository, never()).saveAndFlush(any());
+    }
+
+    @DisplayName("Should pass through integrity violations other than a taken seat")
+    @Test
+    void shouldNotTranslateOtherConstraintViolations()
+    {
+        Long showtimeId = 41L;
+        Showtime showtime = new Showtime();
+        showtime.setId(showtimeId);
+
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("fk",
+                new ConstraintViolationException("fk", null, "fk_bookings_showtime"));
+        when(showtimeRepository.findById(showtimeId)).thenReturn(Optional.of(showtime));
+        when(bookingRepository.saveAndFlush(any(Booking.class))).thenThrow(violation);
+
+        assertSame(violation, assertThrows(DataIntegrityViolationException.class,
+                () -> bookingService.save(new Booking(null, null, 16, UUID.randomUUID()), showtimeId)));
+    }
+
+    @DisplayName("Should book through the group commit and keep the seat bitmap in step with its outcome")
+    @Test
+    void shouldBookThroughGroupCommit()
+    {
+        BookingGroupCommit groupCommit = mock(BookingGroupCommit.class);
+        when(groupCommit.isEnabled()).thenReturn(true);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BookingService bookingService = new BookingService(bookingRepository, showtimeRepository, new BookingValidator(), new SeatOccupancyRegistry(bookingRepository, true), mock(BookingWriteBehind.class), groupCommit, new ServiceMetrics(meterRegistry));
+
+        Long showtimeId = 42L;
+        Showtime showtime = new Showtime();
+        showtime.setId(showtimeId);
+        when(showtimeRepository.findById(showtimeId)).thenReturn(Optional.of(showtime));
+        when(groupCommit.commit(anyList()))
+                .thenThrow(new SeatAlreadyBookedException(17))
+                .thenThrow(new IllegalStateException("connection lost"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertThrows(SeatAlreadyBookedException.class, () -> bookingService.save(new Booking(null, null, 17, UUID.randomUUID()), showtimeId));
+        assertThrows(IllegalStateException.class, () -> bookingService.save(new Booking(null, null, 18, UUID.randomUUID()), showtimeId));
+        // The failed write gave seat 18 back, so it can be booked again
+        assertEquals(18, bookingService.save(new Booking(null, null, 18, UUID.randomUUID()), showtimeId).getSeatNumber());
+
+        assertEquals(1, meterRegistry.get("booking.seat.rejected").tag("stage", "database").counter().count());
+        // The conflict made the bitmap reload the showtime's seats
+        verify(bookingRepository, times(2)).findSeatNumbersByShowtimeId(showtimeId);
+        verify(bookingRepository, never()).saveAndFlush(any());
+    }
+
+    private static DataIntegrityViolationException seatConflict()
+    {
+        return new DataIntegrityViolationException("duplicate key",
+                new ConstraintViolationException("duplicate key", null, Booking.SEAT_CONSTRAINT));
+    }
+}
@@ -0,0 +1,107 @@
+package com.att.tdp.popcorn_palace.service;
+
+import com.att.tdp.popcorn_palace.dictionary.GenreDictionary;
+import com.att.tdp.popcorn_palace.dto.ImportReport;
+import com.att.tdp.popcorn_palace.metrics.ServiceMetrics;
+import com.att.tdp.popcorn_palace.validation.MovieValidator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class MovieImportServiceTest
+{
+    private JdbcTemplate jdbcTemplate;
+    private List<Integer> batchSizes;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp()
+    {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        batchSizes = new ArrayList<>();
+        // Every row is inserted except titles starting with "Dup", which hit the unique constraint
+        when(jdbcTemplate.batchUpdate(anyString(), any(Collection.class), anyInt(), any(ParameterizedPreparedStatementSetter.class))).thenAnswer(invocation -> {
+            Collection<?> rows = invocation.getArgument(1);
+            batchSizes.add(rows.size());
+            return new int[][]{rows.stream().mapToInt(row -> row.toString().contains("title=Dup") ? 0 : 1).toArray()};
+        });
+    }
+
+    private MovieImportService importService(int batchSize)
+    {
+        return new MovieImportService(jdbcTemplate, mock(PlatformTransactionManager.class), new MovieValidator(), mock(GenreDictionary.class), new ObjectMapper(),
+                new ServiceMetrics(new SimpleMeterRegistry()), batchSize);
+    }
+
+    @DisplayName("Should import valid CSV rows and report the rest by line number")
+    @Test
+    void shouldImportCsvAndReportBadRows()
+    {
+        String csv = """
+                title,genre,duration,rating,release_year
+                "Alien, The",Sci-Fi,117,8.5,1979
+                Dup Heat,Crime,170,8.3,1995
+                Broken,Drama,abc,5.0,2000
+                Too Good,Drama,100,11,2000
+                  Big   Fish ,Drama,125,8.0,2003
+                """;
+
+        ImportReport report = importService(1000).importCsv(new StringReader(csv));
+
+        assertEquals(5, report.received());
+        assertEquals(2, report.imported());
+        assertEquals(3, report.failed());
+        assertEquals(List.of(
+                new ImportReport.RowError(3, "Movie with title 'Dup Heat' already exists"),
+                new ImportReport.RowError(4, "Invalid duration: 'abc'"),
+                new ImportReport.RowError(5, "Movie rating must be between 0.0 and 10.0")
+        ), report.errors());
+        assertEquals(List.of(3), batchSizes);
+    }
+
+    @DisplayName("Should write NDJSON rows in batches of the configured size")
+    @Test
+    void shouldWriteNdjsonInBatches()
+    {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 5; i++) {
+            ndjson.append("{\"title\":\"Movie ").append(i).append("\",\"genre\":\"Drama\",\"duration\":90,\"rating\":7.0,\"releaseYear\":2020}\n");
+        }
+        ndjson.append("{not json\n");
+
+        ImportReport report = importService(2).importNdjson(new StringReader(ndjson.toString()));
+
+        assertEquals(6, report.received());
+        assertEquals(5, report.imported());
+        assertEquals(1, report.failed());
+        assertEquals(6, report.errors().get(0).line());
+        assertTrue(report.errors().get(0).message().startsWith("Invalid JSON"));
+        assertEquals(List.of(2, 2, 1), batchSizes);
+    }
+
+    @DisplayName("Should reject a CSV file whose header is missing columns")
+    @Test
+    void shouldRejectCsvWithoutRequiredColumns()
+    {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            importService(1000).importCsv(new StringReader("title,genre\nHeat,Crime\n"));
+        });
+
+        assertEquals("CSV header must name the columns title, genre, duration, rating and releaseYear", exception.getMessage());
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -1,14 +1,28 @@
 package com.att.tdp.popcorn_palace.service;
 
+import com.att.tdp.popcorn_palace.cache.MovieCache;
+import com.att.tdp.popcorn_palace.dto.CursorPage;
 import com.att.tdp.popcorn_palace.errors.NotFoundException;
+import com.att.tdp.popcorn_palace.metrics.ServiceMetrics;
 import com.att.tdp.popcorn_palace.model.Movie;
+import com.att.tdp.popcorn_palace.occupancy.SeatOccupancyRegistry;
+import com.att.tdp.popcorn_palace.repository.BookingRepository;
 import com.att.tdp.popcorn_palace.repository.MovieRepository;
+import com.att.tdp.popcorn_palace.repository.ShowtimeRepository;
 import com.att.tdp.popcorn_palace.validation.MovieValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -23,7 +37,7 @@ public class MovieServiceTest
     {
         movieRepository = mock(MovieRepository.class);
         MovieValidator movieValidator = new MovieValidator();
-        movieService = new MovieService(movieRepository, movieValidator);
+        movieService = new MovieService(movieRepository, mock(ShowtimeRepository.class), mock(BookingRepository.class), movieValidator, new SeatOccupancyRegistry(mock(BookingRepository.class), true), new MovieCache(100, Duration.ofMinutes(10)), mock(EntityManager.class), new ServiceMetrics(new SimpleMeterRegistry()));
     }
 
     // SAVE
@@ -33,7 +47,7 @@ public class MovieServiceTest
     {
         MovieRepository movieRepository = mock(MovieRepository.class);
         MovieValidator movieValidator = new MovieValidator();
-        MovieService movieService = new MovieService(movieRepository, movieValidator);
+        MovieService movieService = new MovieService(movieRepository, mock(ShowtimeRepository.class), mock(BookingRepository.class), movieValidator, new SeatOccupancyRegistry(mock(BookingRepository.class), true), new MovieCache(100, Duration.ofMinutes(10)), mock(EntityManager.class), new ServiceMetrics(new SimpleMeterRegistry()));
 
         Movie movie = new Movie(null, "  Inception  ", "  Sci-Fi  ", 148, 8.8, 2010, null);
 
@@ -56,7 +70,7 @@ public class MovieServiceTest
     {
         MovieRepository movieRepository = mock(MovieRepository.class);
         MovieValidator movieValidator = new MovieValidator();
-        MovieService movieService = new MovieService(movieRepository, movieValidator);
+        MovieService movieService = new MovieService(movieRepository, mock(ShowtimeRepository.class), mock(BookingRepository.class), movieValidator, new SeatOccupancyRegistry(mock(BookingRepository.class), true), new MovieCache(100, Duration.ofMinutes(10)), mock(EntityManager.class), new ServiceMetrics(new SimpleMeterRegistry()));
 
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
             movieService.save(null);
@@ -74,7 +88,7 @@ public class MovieServiceTest
     {
         MovieRepository movieRepository = mock(MovieRepository.class);
         MovieValidator movieValidator = new MovieValidator();
-        MovieService movieService = new MovieService(movieRepository, movieValidator);
+        MovieService movieService = new MovieService(movieRepository, mock(ShowtimeRepository.class), mock(BookingRepository.class), movieValidator, new SeatOccupancyRegistry(mock(BookingRepository.class), true), new MovieCache(100, Duration.ofMinutes(10)), mock(EntityManager.class), new ServiceMetrics(new SimpleMeterRegistry()));
 
         String originalTitle = "Inception";
         String cleanedTitle = "Inception";
@@ -101,7 +115,7 @@ public class MovieServiceTest
     {
         MovieRepository movieRepository = mock(MovieRepository.class);
         MovieValidator movieValidator = new MovieValidator();
-        MovieService movieService = new MovieService(movieRepository, movieValidator);
+        MovieService movieService = new MovieService(movieRepository, mock(ShowtimeRepository.class), mock(BookingRepository.class), movieValidator, new SeatOccupancyRegistry(mock(BookingRepository.class), true), new MovieCache(100, Duration.ofMinutes(10)), mock(EntityManager.class), new ServiceMetrics(new SimpleMeterRegistry()));
 
         String title = "Unknown Movie";
         Movie updatedMovie = new Movie();
@@ -123,8 +137,10 @@ public class MovieServiceTest
     void shouldDeleteMovieByTitle()
     {
         MovieRepository movieRepository = mock(MovieRepository.class);
+        ShowtimeRepository showtimeRepository = mock(ShowtimeRepository.class);
+        BookingRepository bookingRepository = mock(BookingRepository.class);
         MovieValidator movieValidator = new MovieValidator();
-        MovieService movieService = new MovieService(movieRepository, movieValidator);
+        MovieService movieService = new MovieService(movieRepository, showtimeRepository, bookingRepository, movieValidator, new SeatOccupancyRegistry(mock(BookingRepository.class), true), new MovieCache(100, Duration.ofMinutes(10)), mock(EntityManager.class), new ServiceMetrics(new SimpleMeterRegistry()));
 
         String title = "The Matrix";
         Movie movie = new Movie(1L, title, "Action", 136, 8.7, 1999, null);
@@ -133,7 +149,34 @@ public class MovieServiceTest
 
         movieService.deleteByTitle(title);
 
-        verify(movieRepository, times(1)).delete(movie);
+        // Children first, one statement per table, and nothing removed entity by entity
+        var order = inOrder(bookingRepository, showtimeRepository, movieRepository);
+        order.verify(bookingRepository).bulkDeleteByMovieId(1L);
+        order.verify(showtimeRepository).bulkDeleteByMovieId(1L);
+        order.verify(movieRepository).bulkDeleteById(1L);
+        verify(movieRepository, never()).delete(any());
+    }
+
+    @DisplayName("Should drop the seat bitmaps of a deleted movie's showtimes")
+    @Test
+    void shouldEvictSeatBitmapsOfDeletedShowtimes()
+    {
+        ShowtimeRepository showtimeRepository = mock(ShowtimeRepository.class);
+        BookingRepository seatSource = mock(BookingRepository.class);
+        SeatOccupancyRegistry seatOccupancy = new SeatOccupancyRegistry(seatSource, true);
+        MovieService movieService = new MovieService(movieRepository, showtimeRepository, mock(BookingRepository.class), new MovieValidator(), seatOccupancy, new MovieCache(100, Duration.ofMinutes(10)), mock(EntityManager.class), new ServiceMetrics(new SimpleMeterRegistry()));
+
+        Movie movie = new Movie(1L, "The Matrix", "Action", 136, 8.7, 1999, null);
+        when(movieRepository.findByTitle("The Matrix")).thenReturn(Optional.of(movie));
+        when(showtimeRepository.findIdsByMovieId(1L)).thenReturn(List.of(10L, 11L));
+        when(seatSource.findSeatNumbersByShowtimeId(anyLong())).thenReturn(List.of(5));
+        seatOccupancy.isTaken(10L, 5);
+        seatOccupancy.isTaken(11L, 5);
+
+        movieService.deleteByTitle("The Matrix");
+
+        assertFalse(seatOccupancy.isLoaded(10L));
+        assertFalse(seatOccupancy.isLoaded(11L));
     }
     @DisplayName("Should throw exception when movie not found for delete")
     @Test
@@ -141,7 +184,7 @@ public class MovieServiceTest
     {
         MovieRepository movieRepository = mock(MovieRepository.class);
         MovieValidator movieValidator = new MovieValidator();
-        MovieService movieService = new MovieService(movieRepository, movieValidator);
+        MovieService movieService = new MovieService(movieRepository, mock(ShowtimeRepository.class), mock(BookingRepository.class), movieValidator, new SeatOccupancyRegistry(mock(BookingRepository.class), true), new MovieCache(100, Duration.ofMinutes(10)), mock(EntityManager.class), new ServiceMetrics(new SimpleMeterRegistry()));
 
         String title = "Unknown Movie";
         when(movieRepository.findByTitle(title)).thenReturn(Optional.empty());
@@ -151,7 +194,7 @@ public class MovieServiceTest
         });
 
         assertEquals("Movie not found with title: Unknown Movie", exception.getMessage());
-        verify(movieRepository, never()).delete(any());
+        verify(movieRepository, never()).bulkDeleteById(any());
     }
 
 
@@ -162,7 +205,7 @@ public class MovieServiceTest
     {
         MovieRepository movieRepository = mock(MovieRepository.class);
         MovieValidator movieValidator = new MovieValidator();
-        MovieService movieService = new MovieService(movieRepository, movieValidator);
+        MovieService movieService = new MovieService(movieRepository, mock(ShowtimeRepository.class), mock(BookingRepository.class), movieValidator, new SeatOccupancyRegistry(mock(BookingRepository.class), true), new MovieCache(100, Duration.ofMinutes(10)), mock(EntityManager.class), new ServiceMetrics(new SimpleMeterRegistry()));
 
         Movie movie1 = new Movie(1L, "Inception", "Sci-Fi", 148, 8.8, 2010, null);
         Movie movie2 = new Movie(2L, "Interstellar", "Sci-Fi", 169, 8.6, 2014, null);
@@ -177,4 +220,145 @@ public class MovieServiceTest
         assertTrue(result.contains(movie2));
         verify(movieRepository, times(1)).findAll();
     }
+
+
+    // CACHE
+    @DisplayName("Should serve repeated title lookups from the cache")
+    @Test
+    void shouldServeRepeatedTitleLookupsFromCache()
+    {
+        Movie movie = new Movie(1L, "Inception", "Sci-Fi", 148, 8.8, 2010, null);
+        when(movieRepository.findByTitle("Inception")).thenReturn(Optional.of(movie));
+
+        assertEquals(movie, movieService.getByTitle("Inception"));
+        assertEquals(movie, movieService.getByTitle("  Inception "));
+        assertEquals(movie, movieService.getById(1L));
+
+        verify(movieRepository, times(1)).findByTitle("Inception");
+        verify(movieRepository, never()).findById(any());
+    }
+
+    @DisplayName("Should invalidate the old title when a movie is renamed")
+    @Test
+    void shouldInvalidateOldTitleOnRename()
+    {
+        Movie movie = new Movie(1L, "Inception", "Sci-Fi", 148, 8.8, 2010, null);
+        when(movieRepository.findByTitle("Inception")).thenReturn(Optional.of(movie));
+        when(movieRepository.save(any(Movie.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        movieService.getByTitle("Inception");
+
+        movieService.upgradeByTitle(new Movie(null, "Inception 2", "Sci-Fi", 150, 9.0, 2026, null), "Inception");
+        when(movieRepository.findByTitle("Inception")).thenReturn(Optional.empty());
+        when(movieRepository.findById(1L)).thenReturn(Optional.of(movie));
+
+        assertThrows(NotFoundException.class, () -> movieService.getByTitle("Inception"));
+        assertEquals("Inception 2", movieService.getById(1L).getTitle());
+        verify(movieRepository, times(1)).findById(1L);
+    }
+
+    @DisplayName("Should invalidate the cache when a movie is deleted")
+    @Test
+    void shouldInvalidateCacheOnDelete()
+    {
+        Movie movie = new Movie(1L, "The Matrix", "Action", 136, 8.7, 1999, null);
+        when(movieRepository.findByTitle("The Matrix")).thenReturn(Optional.of(movie));
+        movieService.getByTitle("The Matrix");
+
+        movieService.deleteByTitle("The Matrix");
+        when(movieRepository.findByTitle("The Matrix")).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> movieService.getByTitle("The Matrix"));
+    }
+
+    @DisplayName("Should not cache a lookup that was loading when the movie was deleted")
+    @Test
+    void shouldNotCacheLoadRacingDelete()
+    {
+        Movie movie = new Movie(1L, "The Matrix", "Action", 136, 8.7, 1999, null);
+        // The delete lands between the lookup's query and its put
+        when(movieRepository.findByTitle("The Matrix")).thenAnswer(invocation -> {
+            doReturn(Optional.of(movie)).when(movieRepository).findByTitle("The Matrix");
+            movieService.deleteByTitle("The Matrix");
+            doReturn(Optional.empty()).when(movieRepository).findByTitle("The Matrix");
+            return Optional.of(movie);
+        });
+
+        assertEquals(movie, movieService.getByTitle("The Matrix"));
+        assertThrows(NotFoundException.class, () -> movieService.getByTitle("The Matrix"));
+    }
+
+    @DisplayName("Should invalidate the cache only once the transaction is over")
+    @Test
+    void shouldInvalidateAfterCompletion()
+    {
+        MovieCache movieCache = new MovieCache(100, Duration.ofMinutes(10));
+        Movie movie = new Movie(1L, "The Matrix", "Action", 136, 8.7, 1999, null);
+        movieCache.getById(1L, id -> Optional.of(movie));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            movieCache.invalidate(movie);
+            assertEquals(Optional.of(movie), movieCache.getById(1L, id -> Optional.empty()));
+            TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(Optional.empty(), movieCache.getById(1L, id -> Optional.empty()));
+    }
+
+
+    // PAGINATION
+    @DisplayName("Should return a page with a cursor when it is full")
+    @Test
+    void shouldReturnPageWithCursorWhenFull()
+    {
+        Movie movie1 = new Movie(11L, "Inception", "Sci-Fi", 148, 8.8, 2010, null);
+        Movie movie2 = new Movie(12L, "Interstellar", "Sci-Fi", 169, 8.6, 2014, null);
+        when(movieRepository.findByIdGreaterThanOrderByIdAsc(10L, Limit.of(2))).thenReturn(List.of(movie1, movie2));
+
+        CursorPage<Movie> page = movieService.getMoviesPage(10L, 2);
+
+        assertEquals(List.of(movie1, movie2), page.items());
+        assertEquals("12", page.nextCursor());
+    }
+
+    @DisplayName("Should return no cursor on the last page")
+    @Test
+    void shouldReturnNoCursorOnLastPage()
+    {
+        Movie movie = new Movie(1L, "Inception", "Sci-Fi", 148, 8.8, 2010, null);
+        when(movieRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(50))).thenReturn(List.of(movie));
+
+        CursorPage<Movie> page = movieService.getMoviesPage(null, 50);
+
+        assertEquals(List.of(movie), page.items());
+        assertNull(page.nextCursor());
+    }
+
+    @DisplayName("Should throw exception when page limit is out of range")
+    @Test
+    void shouldThrowExceptionWhenLimitOutOfRange()
+    {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            movieService.getMoviesPage(null, 0);
+        });
+
+        assertEquals("Limit must be between 1 and 1000", exception.getMessage());
+        verify(movieRepository, never()).findByIdGreaterThanOrderByIdAsc(any(), any());
+    }
+
+    @DisplayName("Should stream every movie in order")
+    @Test
+    void shouldStreamEveryMovie()
+    {
+        Movie movie1 = new Movie(1L, "Inception", "Sci-Fi", 148, 8.8, 2010, null);
+        Movie movie2 = new Movie(2L, "Interstellar", "Sci-Fi", 169, 8.6, 2014, null);
+        when(movieRepository.streamAllOrderById()).thenReturn(Stream.of(movie1, movie2));
+
+        List<Movie> streamed = new ArrayList<>();
+        movieService.streamAllMovies(streamed::add);
+
+        assertEquals(List.of(movie1, movie2), streamed);
+    }
 }
@@ -0,0 +1,214 @@
+package com.att.tdp.popcorn_palace.service;
+
+import com.att.tdp.popcorn_palace.dto.SeatHoldRequest;
+import com.att.tdp.popcorn_palace.errors.NotFoundException;
+import com.att.tdp.popcorn_palace.groupcommit.BookingGroupCommit;
+import com.att.tdp.popcorn_palace.journal.BookingWriteBehind;
+import com.att.tdp.popcorn_palace.metrics.ServiceMetrics;
+import com.att.tdp.popcorn_palace.model.Booking;
+import com.att.tdp.popcorn_palace.model.Showtime;
+import com.att.tdp.popcorn_palace.occupancy.SeatHold;
+import com.att.tdp.popcorn_palace.occupancy.SeatOccupancyRegistry;
+import com.att.tdp.popcorn_palace.repository.BookingRepository;
+import com.att.tdp.popcorn_palace.repository.ShowtimeRepository;
+import com.att.tdp.popcorn_palace.validation.BookingValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class SeatHoldServiceTest
+{
+    private static final Long SHOWTIME_ID = 100L;
+
+    private BookingRepository bookingRepository;
+    private ShowtimeRepository showtimeRepository;
+    private SeatOccupancyRegistry seatOccupancy;
+    private BookingService bookingService;
+
+    @BeforeEach
+    void setUp()
+    {
+        bookingRepository = mock(BookingRepository.class);
+        showtimeRepository = mock(ShowtimeRepository.class);
+        seatOccupancy = new SeatOccupancyRegistry(bookingRepository, true);
+        bookingService = new BookingService(bookingRepository, showtimeRepository, new BookingValidator(), seatOccupancy, mock(BookingWriteBehind.class), mock(BookingGroupCommit.class), new ServiceMetrics(new SimpleMeterRegistry()));
+
+        Showtime showtime = new Showtime();
+        showtime.setId(SHOWTIME_ID);
+        when(showtimeRepository.existsById(SHOWTIME_ID)).thenReturn(true);
+        when(showtimeRepository.findById(SHOWTIME_ID)).thenReturn(Optional.of(showtime));
+        when(bookingRepository.saveAndFlush(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    private SeatHoldService holdService(Duration ttl)
+    {
+        return new SeatHoldService(seatOccupancy, showtimeRepository, bookingRepository, bookingService, new BookingValidator(), ttl);
+    }
+
+    @DisplayName("Should make a held seat unavailable to regular bookings")
+    @Test
+    void shouldBlockRegularBookingOfHeldSeat()
+    {
+        SeatHoldService seatHoldService = holdService(Duration.ofMinutes(5));
+        seatHoldService.hold(new SeatHoldRequest(SHOWTIME_ID, 15, UUID.randomUUID()));
+
+        Booking booking = new Booking();
+        booking.setUserId(UUID.randomUUID());
+        booking.setSeatNumber(15);
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            bookingService.save(booking, SHOWTIME_ID);
+        });
+
+        assertEquals("Seat 15 is already booked for this showtime", exception.getMessage());
+        verify(bookingRepository, never()).saveAndFlush(any());
+    }
+
+    @DisplayName("Should reject holds when the seat bitmap is disabled")
+    @Test
+    void shouldRejectHoldsWithoutBitmap()
+    {
+        seatOccupancy = new SeatOccupancyRegistry(bookingRepository, false);
+        bookingService = new BookingService(bookingRepository, showtimeRepository, new BookingValidator(), seatOccupancy, mock(BookingWriteBehind.class), mock(BookingGroupCommit.class), new ServiceMetrics(new SimpleMeterRegistry()));
+        SeatHoldService seatHoldService = holdService(Duration.ofMinutes(5));
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> {
+            seatHoldService.hold(new SeatHoldRequest(SHOWTIME_ID, 15, UUID.randomUUID()));
+        });
+
+        assertEquals("Seat holds require the seat bitmap to be enabled", exception.getMessage());
+        assertEquals(0, seatHoldService.activeHolds());
+        assertThrows(IllegalStateException.class, () -> seatOccupancy.hold(SHOWTIME_ID, 15));
+        // No hold was taken, so nobody is told the seat is held while it can still be booked
+        assertNotNull(bookingService.save(new Booking(null, null, 15, UUID.randomUUID()), SHOWTIME_ID));
+    }
+
+    @DisplayName("Should keep a held seat taken after the showtime's bitmap is reloaded")
+    @Test
+    void shouldKeepHoldAcrossBitmapReload()
+    {
+        SeatHoldService seatHoldService = holdService(Duration.ofMinutes(5));
+        SeatHold hold = seatHoldService.hold(new SeatHoldRequest(SHOWTIME_ID, 17, UUID.randomUUID()));
+
+        // What a database-stage seat conflict or a delete does to the bitmap
+        seatOccupancy.evict(SHOWTIME_ID);
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            bookingService.save(new Booking(null, null, 17, UUID.randomUUID()), SHOWTIME_ID);
+        });
+        assertEquals("Seat 17 is already booked for this showtime", exception.getMessage());
+        verify(bookingRepository, never()).saveAndFlush(any());
+
+        assertEquals(17, seatHoldService.confirm(hold.getId()).getSeatNumber());
+    }
+
+    @DisplayName("Should free a held seat once, in the bitmap loaded after an eviction")
+    @Test
+    void shouldReleaseHoldAfterBitmapReload()
+    {
+        SeatHoldService seatHoldService = holdService(Duration.ofMinutes(5));
+        SeatHold hold = seatHoldService.hold(new SeatHoldRequest(SHOWTIME_ID, 18, UUID.randomUUID()));
+        seatOccupancy.evict(SHOWTIME_ID);
+
+        seatHoldService.release(hold.getId());
+
+        assertNotNull(bookingService.save(new Booking(null, null, 18, UUID.randomUUID()), SHOWTIME_ID));
+        seatOccupancy.releaseHold(SHOWTIME_ID, 18);
+        assertTrue(seatOccupancy.isTaken(SHOWTIME_ID, 18));
+    }
+
+    @DisplayName("Should turn a hold into a booking on confirmation")
+    @Test
+    void shouldConfirmHoldIntoBooking()
+    {
+        SeatHoldService seatHoldService = holdService(Duration.ofMinutes(5));
+        UUID userId = UUID.randomUUID();
+        SeatHold hold = seatHoldService.hold(new SeatHoldRequest(SHOWTIME_ID, 16, userId));
+
+        Booking booking = seatHoldService.confirm(hold.getId());
+
+        assertEquals(16, booking.getSeatNumber());
+        assertEquals(userId, booking.getUserId());
+        assertEquals(SHOWTIME_ID, booking.getShowtime().getId());
+        assertEquals(0, seatHoldService.activeHolds());
+        assertTrue(seatOccupancy.isTaken(SHOWTIME_ID, 16));
+        verify(bookingRepository, times(1)).saveAndFlush(booking);
+    }
+
+    @DisplayName("Should release expired holds in the sweep")
+    @Test
+    void shouldReleaseExpiredHoldsOnSweep()
+    {
+        SeatHoldService seatHoldService = holdService(Duration.ZERO);
+        SeatHold first = seatHoldService.hold(new SeatHoldRequest(SHOWTIME_ID, 20, UUID.randomUUID()));
+        seatHoldService.hold(new SeatHoldRequest(SHOWTIME_ID, 21, UUID.randomUUID()));
+
+        seatHoldService.sweepExpired();
+
+        assertEquals(0, seatHoldService.activeHolds());
+        assertFalse(seatOccupancy.isTaken(SHOWTIME_ID, 20));
+        assertFalse(seatOccupancy.isTaken(SHOWTIME_ID, 21));
+
+        NotFoundException exception = assertThrows(NotFoundException.class, () -> {
+            seatHoldService.confirm(first.getId());
+        });
+        assertEquals("Hold not found or expired with ID: " + first.getId(), exception.getMessage());
+        verify(bookingRepository, never()).saveAndFlush(any());
+    }
+
+    @DisplayName("Should not let the sweep release a seat that was already confirmed")
+    @Test
+    void shouldKeepConfirmedSeatAfterSweep()
+    {
+        SeatHoldService seatHoldService = holdService(Duration.ofMillis(50));
+        SeatHold hold = seatHoldService.hold(new SeatHoldRequest(SHOWTIME_ID, 30, UUID.randomUUID()));
+        seatHoldService.confirm(hold.getId());
+
+        await(hold);
+        seatHoldService.sweepExpired();
+
+        assertTrue(seatOccupancy.isTaken(SHOWTIME_ID, 30));
+    }
+
+    @DisplayName("Should reject a second hold on the same seat")
+    @Test
+    void shouldRejectSecondHoldOnSameSeat()
+    {
+        SeatHoldService seatHoldService = holdService(Duration.ofMinutes(5));
+        seatHoldService.hold(new SeatHoldRequest(SHOWTIME_ID, 40, UUID.randomUUID()));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            seatHoldService.hold(new SeatHoldRequest(SHOWTIME_ID, 40, UUID.randomUUID()));
+        });
+
+        assertEquals("Seat 40 is already booked for this showtime", exception.getMessage());
+    }
+
+    @DisplayName("Should free the seat when a hold is released")
+    @Test
+    void shouldFreeSeatWhenHoldReleased()
+    {
+        SeatHoldService seatHoldService = holdService(Duration.ofMinutes(5));
+        SeatHold hold = seatHoldService.hold(new SeatHoldRequest(SHOWTIME_ID, 41, UUID.randomUUID()));
+
+        seatHoldService.release(hold.getId());
+
+        assertFalse(seatOccupancy.isTaken(SHOWTIME_ID, 41));
+        assertNotNull(seatHoldService.hold(new SeatHoldRequest(SHOWTIME_ID, 41, UUID.randomUUID())));
+    }
+
+    private static void await(SeatHold hold)
+    {
+        while (!hold.isExpired()) {
+            Thread.onSpinWait();
+        }
+    }
+}
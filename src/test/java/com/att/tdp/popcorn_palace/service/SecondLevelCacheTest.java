@@ -0,0 +1,167 @@
+package com.att.tdp.popcorn_palace.service;
+
+import com.att.tdp.popcorn_palace.cache.SecondLevelCacheConfiguration;
+import com.att.tdp.popcorn_palace.errors.NotFoundException;
+import com.att.tdp.popcorn_palace.model.Movie;
+import com.att.tdp.popcorn_palace.model.Showtime;
+import com.att.tdp.popcorn_palace.repository.MovieRepository;
+import com.att.tdp.popcorn_palace.repository.ShowtimeRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Hit rates and invalidation of the Movie and Showtime second-level cache regions and the query cache
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+public class SecondLevelCacheTest
+{
+    @Autowired
+    private ShowtimeService showtimeService;
+
+    @Autowired
+    private MovieService movieService;
+
+    @Autowired
+    private ShowtimeRepository showtimeRepository;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private TransactionTemplate transaction;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Movie movie;
+    private Long showtimeId;
+    private LocalDateTime start;
+
+    @BeforeEach
+    void setUp()
+    {
+        movie = movieService.save(new Movie(null, "Cached " + UUID.randomUUID(), "Drama", 120, 7.0, 2024, null));
+        start = LocalDateTime.of(2033, 1, 1, 10, 0);
+        showtimeId = showtimeService.save(showtime(movie, "Cache Hall " + UUID.randomUUID(), start, 40.0)).getId();
+
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @DisplayName("Should load a showtime from the database once and then from the cache")
+    @Test
+    void shouldServeRepeatedShowtimeLoadsFromCache()
+    {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(40.0, showtimeRepository.findById(showtimeId).orElseThrow().getPrice());
+        }
+
+        CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(SecondLevelCacheConfiguration.SHOWTIME_REGION);
+        assertEquals(1, region.getMissCount());
+        assertEquals(4, region.getHitCount());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @DisplayName("Should read the new values of a cached showtime after upgradeById")
+    @Test
+    void shouldInvalidateShowtimeOnUpgradeById()
+    {
+        showtimeRepository.findById(showtimeId).orElseThrow();
+
+        showtimeService.upgradeById(showtime(movie, "Cache Hall Updated " + UUID.randomUUID(), start.plusDays(1), 55.0), showtimeId);
+
+        Showtime reloaded = showtimeRepository.findById(showtimeId).orElseThrow();
+        assertEquals(55.0, reloaded.getPrice());
+        assertEquals(start.plusDays(1), reloaded.getStart_time());
+        assertTrue(reloaded.getTheater().startsWith("Cache Hall Updated"));
+        assertEquals(55.0, showtimeService.getShowtimeById(showtimeId).getPrice());
+    }
+
+    @DisplayName("Should read the new values of a cached movie after upgradeByTitle")
+    @Test
+    void shouldInvalidateMovieOnUpgradeByTitle()
+    {
+        movieRepository.findById(movie.getId()).orElseThrow();
+        String newTitle = "Renamed " + UUID.randomUUID();
+
+        movieService.upgradeByTitle(new Movie(null, newTitle, "Comedy", 95, 8.1, 2025, null), movie.getTitle());
+
+        Movie reloaded = movieRepository.findById(movie.getId()).orElseThrow();
+        assertEquals(newTitle, reloaded.getTitle());
+        assertEquals("Comedy", reloaded.getGenre());
+        assertEquals(8.1, reloaded.getRating());
+        assertTrue(statistics.getDomainDataRegionStatistics(SecondLevelCacheConfiguration.MOVIE_REGION).getHitCount() >= 1);
+    }
+
+    @DisplayName("Should answer repeated ShowtimeDTO reads from the query cache until the showtime changes")
+    @Test
+    void shouldCacheDtoQueryUntilShowtimeChanges()
+    {
+        showtimeService.getShowtimeById(showtimeId);
+        showtimeService.getShowtimeById(showtimeId);
+
+        assertEquals(1, statistics.getQueryCacheMissCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        showtimeService.upgradeById(showtime(movie, "Cache Hall Requery " + UUID.randomUUID(), start, 60.0), showtimeId);
+
+        assertEquals(60.0, showtimeService.getShowtimeById(showtimeId).getPrice());
+    }
+
+    @DisplayName("Should see showtimes added after a movie was cached")
+    @Test
+    void shouldKeepShowtimesCollectionCoherent()
+    {
+        assertEquals(1, showtimeCount(movie.getId()));
+
+        showtimeService.save(showtime(movie, "Cache Hall Extra " + UUID.randomUUID(), start, 45.0));
+
+        assertEquals(2, showtimeCount(movie.getId()));
+    }
+
+    @DisplayName("Should not return a cached showtime after it is deleted")
+    @Test
+    void shouldEvictShowtimeOnDelete()
+    {
+        showtimeRepository.findById(showtimeId).orElseThrow();
+        showtimeService.getShowtimeById(showtimeId);
+
+        showtimeService.deleteById(showtimeId);
+
+        assertTrue(showtimeRepository.findById(showtimeId).isEmpty());
+        assertThrows(NotFoundException.class, () -> showtimeService.getShowtimeById(showtimeId));
+    }
+
+    private int showtimeCount(Long movieId)
+    {
+        return transaction.execute(status -> movieRepository.findById(movieId).orElseThrow().getShowtimes().size());
+    }
+
+    private static Showtime showtime(Movie movie, String theater, LocalDateTime start, double price)
+    {
+        Showtime showtime = new Showtime();
+        showtime.setMovie(new Movie(movie.getId(), null, null, 0, 0, 0, null));
+        showtime.setTheater(theater);
+        showtime.setStart_time(start);
+        showtime.setEnd_time(start.plusHours(2));
+        showtime.setPrice(price);
+        return showtime;
+    }
+}
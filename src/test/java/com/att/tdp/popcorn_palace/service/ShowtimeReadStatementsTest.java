@@ -0,0 +1,108 @@
+package com.att.tdp.popcorn_palace.service;
+
+import com.att.tdp.popcorn_palace.dto.ShowtimeDTO;
+import com.att.tdp.popcorn_palace.model.Booking;
+import com.att.tdp.popcorn_palace.model.Movie;
+import com.att.tdp.popcorn_palace.model.Showtime;
+import com.att.tdp.popcorn_palace.repository.BookingRepository;
+import com.att.tdp.popcorn_palace.repository.ShowtimeRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Counts the SQL statements behind the showtime read paths using Hibernate statistics
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+public class ShowtimeReadStatementsTest
+{
+    @Autowired
+    private ShowtimeService showtimeService;
+
+    @Autowired
+    private MovieService movieService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private ShowtimeRepository showtimeRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Long showtimeId;
+    private Long movieId;
+
+    @BeforeEach
+    void setUp()
+    {
+        Movie movie = movieService.save(new Movie(null, "Statements " + UUID.randomUUID(), "Drama", 120, 7.0, 2024, null));
+        movieId = movie.getId();
+        Showtime showtime = new Showtime();
+        showtime.setMovie(movie);
+        showtime.setTheater("Statements Hall " + UUID.randomUUID());
+        showtime.setStart_time(LocalDateTime.of(2032, 1, 1, 10, 0));
+        showtime.setEnd_time(LocalDateTime.of(2032, 1, 1, 12, 0));
+        showtime.setPrice(40.0);
+        showtimeId = showtimeService.save(showtime).getId();
+
+        // Measure cold reads, not second-level cache hits
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @DisplayName("Should read a ShowtimeDTO with one statement and no entities")
+    @Test
+    void shouldReadDtoWithOneStatement()
+    {
+        ShowtimeDTO dto = showtimeService.getShowtimeById(showtimeId);
+
+        assertEquals(movieId, dto.getMovieId());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @DisplayName("Should not load the movie when loading a showtime")
+    @Test
+    void shouldLoadShowtimeWithoutMovie()
+    {
+        Showtime showtime = showtimeRepository.findById(showtimeId).orElseThrow();
+
+        assertFalse(Hibernate.isInitialized(showtime.getMovie()));
+        assertEquals(movieId, showtime.getMovie().getId());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getEntityLoadCount());
+    }
+
+    @DisplayName("Should not load the showtime when loading a booking")
+    @Test
+    void shouldLoadBookingWithoutShowtime()
+    {
+        UUID bookingId = bookingService.save(new Booking(null, null, 1, UUID.randomUUID()), showtimeId).getId();
+        statistics.clear();
+
+        Booking booking = bookingRepository.findById(bookingId).orElseThrow();
+
+        assertFalse(Hibernate.isInitialized(booking.getShowtime()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getEntityLoadCount());
+    }
+}
@@ -0,0 +1,108 @@
+package com.att.tdp.popcorn_palace.service;
+
+import com.att.tdp.popcorn_palace.dto.CursorPage;
+import com.att.tdp.popcorn_palace.dto.ShowtimeDTO;
+import com.att.tdp.popcorn_palace.dto.ShowtimeFilter;
+import com.att.tdp.popcorn_palace.model.Movie;
+import com.att.tdp.popcorn_palace.model.Showtime;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Showtime search against the test database: filters, and keyset pages that neither skip nor repeat a showtime
+@SpringBootTest
+public class ShowtimeSearchTest
+{
+    private static final LocalDateTime DAY = LocalDateTime.of(2036, 1, 1, 0, 0);
+
+    @Autowired
+    private ShowtimeService showtimeService;
+
+    @Autowired
+    private MovieService movieService;
+
+    private Movie drama;
+    private Movie comedy;
+    private String hallA;
+    private String hallB;
+    private final List<Long> dramaIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp()
+    {
+        drama = movieService.save(new Movie(null, "Search Drama " + UUID.randomUUID(), "Drama", 120, 7.0, 2024, null));
+        comedy = movieService.save(new Movie(null, "Search Comedy " + UUID.randomUUID(), "Comedy", 90, 6.0, 2024, null));
+        hallA = "Search Hall " + UUID.randomUUID();
+        hallB = "Search Hall " + UUID.randomUUID();
+        // Both halls show the drama at the same times, so the id has to break the ties
+        for (int i = 0; i < 4; i++) {
+            dramaIds.add(save(drama, hallA, DAY.plusHours(10 + 3 * i)));
+            dramaIds.add(save(drama, hallB, DAY.plusHours(10 + 3 * i)));
+        }
+        save(comedy, hallA, DAY.plusDays(1).plusHours(10));
+    }
+
+    @DisplayName("Should page through a movie's showtimes in (start time, id) order")
+    @Test
+    void shouldPageThroughMovieShowtimes()
+    {
+        List<ShowtimeDTO> showtimes = all(new ShowtimeFilter(drama.getId(), null, null, null), 3);
+
+        assertEquals(dramaIds, showtimes.stream().map(ShowtimeDTO::getId).toList());
+        assertTrue(showtimes.stream().allMatch(showtime -> showtime.getMovieId().equals(drama.getId())));
+    }
+
+    @DisplayName("Should filter by theater and start time window")
+    @Test
+    void shouldFilterByTheaterAndWindow()
+    {
+        List<ShowtimeDTO> showtimes = all(new ShowtimeFilter(null, hallA, DAY.plusHours(13), DAY.plusHours(19)), 1);
+
+        assertEquals(List.of(DAY.plusHours(13), DAY.plusHours(16)), showtimes.stream().map(ShowtimeDTO::getStartTime).toList());
+        assertTrue(showtimes.stream().allMatch(showtime -> showtime.getTheater().equals(hallA)));
+    }
+
+    @DisplayName("Should combine movie and theater filters and end without an empty page")
+    @Test
+    void shouldCombineFilters()
+    {
+        CursorPage<ShowtimeDTO> page = showtimeService.search(new ShowtimeFilter(comedy.getId(), hallA, null, null), null, 1);
+
+        assertEquals(1, page.items().size());
+        assertEquals(DAY.plusDays(1).plusHours(10), page.items().get(0).getStartTime());
+        assertNull(page.nextCursor());
+    }
+
+    private List<ShowtimeDTO> all(ShowtimeFilter filter, int limit)
+    {
+        List<ShowtimeDTO> showtimes = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<ShowtimeDTO> page = showtimeService.search(filter, cursor, limit);
+            assertTrue(page.items().size() <= limit);
+            showtimes.addAll(page.items());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return showtimes;
+    }
+
+    private Long save(Movie movie, String theater, LocalDateTime start)
+    {
+        Showtime showtime = new Showtime();
+        showtime.setMovie(movie);
+        showtime.setTheater(theater);
+        showtime.setStart_time(start);
+        showtime.setEnd_time(start.plusHours(2));
+        showtime.setPrice(40.0);
+        return showtimeService.save(showtime).getId();
+    }
+}
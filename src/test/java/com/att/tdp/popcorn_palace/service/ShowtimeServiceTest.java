@@ -1,16 +1,33 @@
 package com.att.tdp.popcorn_palace.service;
 
+import com.att.tdp.popcorn_palace.cache.MovieCache;
+import com.att.tdp.popcorn_palace.dto.CursorPage;
+import com.att.tdp.popcorn_palace.dto.Outcome;
+import com.att.tdp.popcorn_palace.dto.SeatAvailability;
 import com.att.tdp.popcorn_palace.dto.ShowtimeDTO;
+import com.att.tdp.popcorn_palace.dto.ShowtimeFilter;
+import com.att.tdp.popcorn_palace.errors.ErrorCode;
 import com.att.tdp.popcorn_palace.errors.NotFoundException;
+import com.att.tdp.popcorn_palace.errors.ShowtimeOverlapException;
+import com.att.tdp.popcorn_palace.metrics.ServiceMetrics;
 import com.att.tdp.popcorn_palace.model.Movie;
 import com.att.tdp.popcorn_palace.model.Showtime;
+import com.att.tdp.popcorn_palace.occupancy.SeatOccupancyRegistry;
+import com.att.tdp.popcorn_palace.repository.BookingRepository;
 import com.att.tdp.popcorn_palace.repository.MovieRepository;
 import com.att.tdp.popcorn_palace.repository.ShowtimeRepository;
+import com.att.tdp.popcorn_palace.schedule.ShowtimeOverlapIndex;
 import com.att.tdp.popcorn_palace.validation.ShowtimeValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.DisplayName;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -27,7 +44,7 @@ public class ShowtimeServiceTest
         ShowtimeRepository showtimeRepository = mock(ShowtimeRepository.class);
         MovieRepository movieRepository = mock(MovieRepository.class);
         ShowtimeValidator showtimeValidator = new ShowtimeValidator();
-        ShowtimeService showtimeService = new ShowtimeService(showtimeRepository, movieRepository, showtimeValidator);
+        ShowtimeService showtimeService = new ShowtimeService(showtimeRepository, movieRepository, mock(BookingRepository.class), showtimeValidator, new SeatOccupancyRegistry(mock(BookingRepository.class), true), new ShowtimeOverlapIndex(showtimeRepository, new SimpleMeterRegistry()), new MovieCache(100, Duration.ofMinutes(10)), new ServiceMetrics(new SimpleMeterRegistry()));
 
         Movie movie = new Movie();
         movie.setId(1L);
@@ -40,8 +57,8 @@ public class ShowtimeServiceTest
         showtime.setPrice(50.0);
 
         when(movieRepository.findById(1L)).thenReturn(Optional.of(movie));
-        when(showtimeRepository.findAllByTheater("Main Hall")).thenReturn(Collections.emptyList());
-        when(showtimeRepository.save(any(Showtime.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(showtimeRepository.findIdsOverlapping(eq("Main Hall"), any(), any(), any(), any(), any())).thenReturn(Collections.emptyList());
+        when(showtimeRepository.saveAndFlush(any(Showtime.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         Showtime saved = showtimeService.save(showtime);
 
@@ -51,7 +68,7 @@ public class ShowtimeServiceTest
         assertEquals(LocalDateTime.of(2025, 3, 25, 18, 0), saved.getStart_time());
         assertEquals(LocalDateTime.of(2025, 3, 25, 20, 0), saved.getEnd_time());
         assertEquals(50.0, saved.getPrice());
-        verify(showtimeRepository, times(1)).save(showtime);
+        verify(showtimeRepository, times(1)).saveAndFlush(showtime);
     }
     @DisplayName("Should throw NotFoundException when movie not found")
     @Test
@@ -60,7 +77,7 @@ public class ShowtimeServiceTest
         ShowtimeRepository showtimeRepository = mock(ShowtimeRepository.class);
         MovieRepository movieRepository = mock(MovieRepository.class);
         ShowtimeValidator showtimeValidator = new ShowtimeValidator();
-        ShowtimeService showtimeService = new ShowtimeService(showtimeRepository, movieRepository, showtimeValidator);
+        ShowtimeService showtimeService = new ShowtimeService(showtimeRepository, movieRepository, mock(BookingRepository.class), showtimeValidator, new SeatOccupancyRegistry(mock(BookingRepository.class), true), new ShowtimeOverlapIndex(showtimeRepository, new SimpleMeterRegistry()), new MovieCache(100, Duration.ofMinutes(10)), new ServiceMetrics(new SimpleMeterRegistry()));
 
         Movie movie = new Movie();
         movie.setId(42L);
@@ -79,7 +96,25 @@ public class ShowtimeServiceTest
         });
 
         assertEquals("Movie not found with ID: 42", exception.getMessage());
-        verify(showtimeRepository, never()).save(any());
+        verify(showtimeRepository, never()).saveAndFlush(any());
+    }
+
+    @DisplayName("Should reject a showtime longer than the maximum duration")
+    @Test
+    void shouldRejectShowtimeLongerThanMaxDuration()
+    {
+        ShowtimeRepository showtimeRepository = mock(ShowtimeRepository.class);
+        ShowtimeService showtimeService = new ShowtimeService(showtimeRepository, mock(MovieRepository.class), mock(BookingRepository.class), new ShowtimeValidator(), new SeatOccupancyRegistry(mock(BookingRepository.class), true), new ShowtimeOverlapIndex(showtimeRepository, new SimpleMeterRegistry()), new MovieCache(100, Duration.ofMinutes(10)), new ServiceMetrics(new SimpleMeterRegistry()));
+
+        Movie movie = new Movie();
+        movie.setId(1L);
+        LocalDateTime start = LocalDateTime.of(2025, 3, 25, 18, 0);
+        Showtime showtime = new Showtime(null, movie, "Main Hall", start, start.plus(ShowtimeValidator.MAX_DURATION).plusMinutes(1), 45.0, null);
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> showtimeService.save(showtime));
+
+        assertEquals("Showtime cannot be longer than 24 hours", exception.getMessage());
+        verify(showtimeRepository, never()).saveAndFlush(any());
     }
     @DisplayName("Should throw exception when showtime overlaps with existing")
     @Test
@@ -88,7 +123,7 @@ public class ShowtimeServiceTest
         ShowtimeRepository showtimeRepository = mock(ShowtimeRepository.class);
         MovieRepository movieRepository = mock(MovieRepository.class);
         ShowtimeValidator showtimeValidator = new ShowtimeValidator();
-        ShowtimeService showtimeService = new ShowtimeService(showtimeRepository, movieRepository, showtimeValidator);
+        ShowtimeService showtimeService = new ShowtimeService(showtimeRepository, movieRepository, mock(BookingRepository.class), showtimeValidator, new SeatOccupancyRegistry(mock(BookingRepository.class), true), new ShowtimeOverlapIndex(showtimeRepository, new SimpleMeterRegistry()), new MovieCache(100, Duration.ofMinutes(10)), new ServiceMetrics(new SimpleMeterRegistry()));
 
         Movie movie = new Movie();
         movie.setId(1L);
@@ -100,23 +135,95 @@ public class ShowtimeServiceTest
         newShowtime.setEnd_time(LocalDateTime.of(2025, 3, 25, 20, 0));
         newShowtime.setPrice(45.0);
 
-        Showtime existingShowtime = new Showtime();
-        existingShowtime.setStart_time(LocalDateTime.of(2025, 3, 25, 19, 0));
-        existingShowtime.setEnd_time(LocalDateTime.of(2025, 3, 25, 21, 0));
-
         when(movieRepository.findById(1L)).thenReturn(Optional.of(movie));
-        when(showtimeRepository.findAllByTheater("Main Hall")).thenReturn(List.of(existingShowtime));
+        when(showtimeRepository.findIdsOverlapping(eq("Main Hall"), any(), any(), any(), any(), any())).thenReturn(List.of(5L));
 
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
             showtimeService.save(newShowtime);
         });
 
         assertEquals("Showtime overlaps with an existing one in this theater", exception.getMessage());
-        verify(showtimeRepository, never()).save(any());
+        verify(showtimeRepository, never()).saveAndFlush(any());
+    }
+
+    @DisplayName("Should return an overlap as a failure and tag the operation as rejected")
+    @Test
+    void shouldReturnOverlapAsOutcome()
+    {
+        ShowtimeRepository showtimeRepository = mock(ShowtimeRepository.class);
+        MovieRepository movieRepository = mock(MovieRepository.class);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ShowtimeService showtimeService = new ShowtimeService(showtimeRepository, movieRepository, mock(BookingRepository.class), new ShowtimeValidator(), new SeatOccupancyRegistry(mock(BookingRepository.class), true), new ShowtimeOverlapIndex(showtimeRepository, new SimpleMeterRegistry()), new MovieCache(100, Duration.ofMinutes(10)), new ServiceMetrics(meterRegistry));
+
+        Movie movie = new Movie();
+        movie.setId(1L);
+        Showtime newShowtime = new Showtime(null, movie, "Main Hall", LocalDateTime.of(2025, 3, 25, 18, 0), LocalDateTime.of(2025, 3, 25, 20, 0), 45.0, null);
+
+        when(movieRepository.findById(1L)).thenReturn(Optional.of(movie));
+        when(showtimeRepository.findIdsOverlapping(eq("Main Hall"), any(), any(), any(), any(), any())).thenReturn(List.of(5L));
+
+        Outcome<Showtime> outcome = showtimeService.trySave(newShowtime);
+
+        assertEquals(new Outcome.Failure<>(ErrorCode.SHOWTIME_OVERLAP, "Showtime overlaps with an existing one in this theater"), outcome);
+        assertEquals(0, assertThrows(ShowtimeOverlapException.class, outcome::orElseThrow).getStackTrace().length);
+        assertEquals(1, meterRegistry.get("showtime.operation").tags("operation", "save", "outcome", "rejected").timer().count());
+    }
+
+    @DisplayName("Should check overlaps with one index probe on the cleaned theater name")
+    @Test
+    void shouldProbeDatabaseForOverlap()
+    {
+        ShowtimeRepository showtimeRepository = mock(ShowtimeRepository.class);
+        MovieRepository movieRepository = mock(MovieRepository.class);
+        ShowtimeValidator showtimeValidator = new ShowtimeValidator();
+        ShowtimeService showtimeService = new ShowtimeService(showtimeRepository, movieRepository, mock(BookingRepository.class), showtimeValidator, new SeatOccupancyRegistry(mock(BookingRepository.class), true), new ShowtimeOverlapIndex(showtimeRepository, new SimpleMeterRegistry()), new MovieCache(100, Duration.ofMinutes(10)), new ServiceMetrics(new SimpleMeterRegistry()));
+
+        Movie movie = new Movie();
+        movie.setId(1L);
+
+        Showtime showtime = new Showtime();
+        showtime.setMovie(movie);
+        showtime.setTheater("  Hall   2 ");
+        showtime.setStart_time(LocalDateTime.of(2025, 3, 25, 19, 30));
+        showtime.setEnd_time(LocalDateTime.of(2025, 3, 25, 21, 0));
+
+        when(movieRepository.findById(1L)).thenReturn(Optional.of(movie));
+        when(showtimeRepository.findIdsOverlapping("Hall 2", LocalDateTime.of(2025, 3, 25, 19, 30).minus(ShowtimeValidator.MAX_DURATION), LocalDateTime.of(2025, 3, 25, 19, 30), LocalDateTime.of(2025, 3, 25, 21, 0), null, Limit.of(1)))
+                .thenReturn(List.of(1L));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            showtimeService.save(showtime);
+        });
+
+        assertEquals("Showtime overlaps with an existing one in this theater", exception.getMessage());
+        verify(showtimeRepository, never()).saveAndFlush(any());
     }
 
+    @DisplayName("Should accept a showtime that ends when the next one in the theater starts")
+    @Test
+    void shouldAcceptShowtimeEndingAtNextStart()
+    {
+        ShowtimeRepository showtimeRepository = mock(ShowtimeRepository.class);
+        MovieRepository movieRepository = mock(MovieRepository.class);
+        ShowtimeService showtimeService = new ShowtimeService(showtimeRepository, movieRepository, mock(BookingRepository.class), new ShowtimeValidator(), new SeatOccupancyRegistry(mock(BookingRepository.class), true), new ShowtimeOverlapIndex(showtimeRepository, new SimpleMeterRegistry()), new MovieCache(100, Duration.ofMinutes(10)), new ServiceMetrics(new SimpleMeterRegistry()));
 
+        Movie movie = new Movie();
+        movie.setId(1L);
 
+        Showtime showtime = new Showtime();
+        showtime.setMovie(movie);
+        showtime.setTheater("Hall 4");
+        showtime.setStart_time(LocalDateTime.of(2025, 3, 25, 16, 0));
+        showtime.setEnd_time(LocalDateTime.of(2025, 3, 25, 18, 0));
+
+        when(movieRepository.findById(1L)).thenReturn(Optional.of(movie));
+        // The next showtime starts at 18:00; the query only matches showtimes starting before the new end
+        when(showtimeRepository.findIdsOverlapping("Hall 4", LocalDateTime.of(2025, 3, 25, 16, 0).minus(ShowtimeValidator.MAX_DURATION), LocalDateTime.of(2025, 3, 25, 16, 0), LocalDateTime.of(2025, 3, 25, 18, 0), null, Limit.of(1)))
+                .thenReturn(Collections.emptyList());
+        when(showtimeRepository.saveAndFlush(any(Showtime.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertSame(showtime, showtimeService.save(showtime));
+    }
 
     @DisplayName("Should upgrade valid showtime")
     @Test
@@ -125,7 +232,7 @@ public class ShowtimeServiceTest
         ShowtimeRepository showtimeRepository = mock(ShowtimeRepository.class);
         MovieRepository movieRepository = mock(MovieRepository.class);
         ShowtimeValidator showtimeValidator = new ShowtimeValidator();
-        ShowtimeService showtimeService = new ShowtimeService(showtimeRepository, movieRepository, showtimeValidator);
+        ShowtimeService showtimeService = new ShowtimeService(showtimeRepository, movieRepository, mock(BookingRepository.class), showtimeValidator, new SeatOccupancyRegistry(mock(BookingRepository.class), true), new ShowtimeOverlapIndex(showtimeRepository, new SimpleMeterRegistry()), new MovieCache(100, Duration.ofMinutes(10)), new ServiceMetrics(new SimpleMeterRegistry()));
 
         Long showtimeId = 1L;
         Long movieId = 10L;
@@ -158,7 +265,7 @@ public class ShowtimeServiceTest
         assertEquals(LocalDateTime.of(2025, 3, 25, 20, 0), existingShowtime.getEnd_time());
         assertEquals(70.0, existingShowtime.getPrice());
 
-        verify(showtimeRepository, times(1)).save(existingShowtime);
+        verify(showtimeRepository, times(1)).saveAndFlush(existingShowtime);
     }
     @DisplayName("Should throw exception when showtime not found for update")
     @Test
@@ -167,7 +274,7 @@ public class ShowtimeServiceTest
         ShowtimeRepository showtimeRepository = mock(ShowtimeRepository.class);
         MovieRepository movieRepository = mock(MovieRepository.class);
         ShowtimeValidator showtimeValidator = new ShowtimeValidator();
-        ShowtimeService showtimeService = new ShowtimeService(showtimeRepository, movieRepository, showtimeValidator);
+        ShowtimeService showtimeService = new ShowtimeService(showtimeRepository, movieRepository, mock(BookingRepository.class), showtimeValidator, new SeatOccupancyRegistry(mock(BookingRepository.class), true), new ShowtimeOverlapIndex(showtimeRepository, new SimpleMeterRegistry()), new MovieCache(100, Duration.ofMinutes(10)), new ServiceMetrics(new SimpleMeterRegistry()));
 
         Long showtimeId = 999L;
         Showtime updatedShowtime = new Showtime();
@@ -188,7 +295,7 @@ public class ShowtimeServiceTest
         ShowtimeRepository showtimeRepository = mock(ShowtimeRepository.class);
         MovieRepository movieRepository = mock(MovieRepository.class);
         ShowtimeValidator showtimeValidator = new ShowtimeValidator();
-        ShowtimeService showtimeService = new ShowtimeService(showtimeRepository, movieRepository, showtimeValidator);
+        ShowtimeService showtimeService = new ShowtimeService(showtimeRepository, movieRepository, mock(BookingRepository.class), showtimeValidator, new SeatOccupancyRegistry(mock(BookingRepository.class), true), new ShowtimeOverlapIndex(showtimeRepository, new SimpleMeterRegistry()), new MovieCache(100, Duration.ofMinutes(10)), new ServiceMetrics(new SimpleMeterRegistry()));
 
         Long showtimeId = 1L;
         Long movieId = 5L;
@@ -215,39 +322,88 @@ public class ShowtimeServiceTest
         assertEquals("Movie not found with ID: 5", exception.getMessage());
     }
 
-
-    //
-    @DisplayName("Should return ShowtimeDTO if showtime exists")
+    @DisplayName("Should reject an update that moves a showtime onto another one")
     @Test
-    void shouldReturnShowtimeDTOIfFound()
+    void shouldRejectOverlappingUpdate()
     {
         ShowtimeRepository showtimeRepository = mock(ShowtimeRepository.class);
         MovieRepository movieRepository = mock(MovieRepository.class);
-        ShowtimeValidator showtimeValidator = new ShowtimeValidator();
-        ShowtimeService showtimeService = new ShowtimeService(showtimeRepository, movieRepository, showtimeValidator);
+        ShowtimeService showtimeService = new ShowtimeService(showtimeRepository, movieRepository, mock(BookingRepository.class), new ShowtimeValidator(), new SeatOccupancyRegistry(mock(BookingRepository.class), true), new ShowtimeOverlapIndex(showtimeRepository, new SimpleMeterRegistry()), new MovieCache(100, Duration.ofMinutes(10)), new ServiceMetrics(new SimpleMeterRegistry()));
 
-        Long showtimeId = 1L;
+        Movie movie = new Movie();
+        movie.setId(10L);
+        Showtime existingShowtime = new Showtime();
+        existingShowtime.setId(1L);
+
+        Showtime updated = new Showtime();
+        updated.setMovie(movie);
+        updated.setTheater("Main Hall");
+        updated.setStart_time(LocalDateTime.of(2025, 3, 25, 18, 0));
+        updated.setEnd_time(LocalDateTime.of(2025, 3, 25, 20, 0));
+
+        when(showtimeRepository.findById(1L)).thenReturn(Optional.of(existingShowtime));
+        when(movieRepository.findById(10L)).thenReturn(Optional.of(movie));
+        // The showtime being updated is excluded from its own overlap check
+        when(showtimeRepository.findIdsOverlapping("Main Hall", LocalDateTime.of(2025, 3, 25, 18, 0).minus(ShowtimeValidator.MAX_DURATION), LocalDateTime.of(2025, 3, 25, 18, 0), LocalDateTime.of(2025, 3, 25, 20, 0), 1L, Limit.of(1)))
+                .thenReturn(List.of(2L));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            showtimeService.upgradeById(updated, 1L);
+        });
+
+        assertEquals("Showtime overlaps with an existing one in this theater", exception.getMessage());
+        verify(showtimeRepository, never()).saveAndFlush(any());
+    }
+
+    @DisplayName("Should answer an overlap caught by the database constraint like one caught by the probe")
+    @Test
+    void shouldTranslateOverlapConstraintViolation()
+    {
+        ShowtimeRepository showtimeRepository = mock(ShowtimeRepository.class);
+        MovieRepository movieRepository = mock(MovieRepository.class);
+        ShowtimeService showtimeService = new ShowtimeService(showtimeRepository, movieRepository, mock(BookingRepository.class), new ShowtimeValidator(), new SeatOccupancyRegistry(mock(BookingRepository.class), true), new ShowtimeOverlapIndex(showtimeRepository, new SimpleMeterRegistry()), new MovieCache(100, Duration.ofMinutes(10)), new ServiceMetrics(new SimpleMeterRegistry()));
 
         Movie movie = new Movie();
         movie.setId(1L);
-        movie.setTitle("Inception");
-
         Showtime showtime = new Showtime();
-        showtime.setId(showtimeId);
         showtime.setMovie(movie);
         showtime.setTheater("Main Hall");
         showtime.setStart_time(LocalDateTime.of(2025, 3, 25, 18, 0));
         showtime.setEnd_time(LocalDateTime.of(2025, 3, 25, 20, 0));
-        showtime.setPrice(50.0);
 
-        when(showtimeRepository.findById(showtimeId)).thenReturn(Optional.of(showtime));
+        when(movieRepository.findById(1L)).thenReturn(Optional.of(movie));
+        when(showtimeRepository.saveAndFlush(any(Showtime.class))).thenThrow(new DataIntegrityViolationException("conflicting key value",
+                new ConstraintViolationException("conflicting key value", null, Showtime.OVERLAP_CONSTRAINT)));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> showtimeService.save(showtime));
+
+        assertEquals("Showtime overlaps with an existing one in this theater", exception.getMessage());
+    }
+
+
+    //
+    @DisplayName("Should return ShowtimeDTO if showtime exists")
+    @Test
+    void shouldReturnShowtimeDTOIfFound()
+    {
+        ShowtimeRepository showtimeRepository = mock(ShowtimeRepository.class);
+        MovieRepository movieRepository = mock(MovieRepository.class);
+        ShowtimeValidator showtimeValidator = new ShowtimeValidator();
+        ShowtimeService showtimeService = new ShowtimeService(showtimeRepository, movieRepository, mock(BookingRepository.class), showtimeValidator, new SeatOccupancyRegistry(mock(BookingRepository.class), true), new ShowtimeOverlapIndex(showtimeRepository, new SimpleMeterRegistry()), new MovieCache(100, Duration.ofMinutes(10)), new ServiceMetrics(new SimpleMeterRegistry()));
+
+        Long showtimeId = 1L;
+
+        ShowtimeDTO projection = new ShowtimeDTO(showtimeId, 1L, "Main Hall", LocalDateTime.of(2025, 3, 25, 18, 0), LocalDateTime.of(2025, 3, 25, 20, 0), 50.0);
+
+        when(showtimeRepository.findDTOById(showtimeId)).thenReturn(Optional.of(projection));
 
         ShowtimeDTO dto = showtimeService.getShowtimeById(showtimeId);
 
         assertNotNull(dto);
-        assertEquals(movie.getId(), dto.getMovieId());
+        assertEquals(1L, dto.getMovieId());
         assertEquals("Main Hall", dto.getTheater());
         assertEquals(50.0, dto.getPrice());
+        verify(showtimeRepository, never()).findById(any());
     }
     @DisplayName("Should throw exception if showtime not found")
     @Test
@@ -256,11 +412,11 @@ public class ShowtimeServiceTest
         ShowtimeRepository showtimeRepository = mock(ShowtimeRepository.class);
         MovieRepository movieRepository = mock(MovieRepository.class);
         ShowtimeValidator showtimeValidator = new ShowtimeValidator();
-        ShowtimeService showtimeService = new ShowtimeService(showtimeRepository, movieRepository, showtimeValidator);
+        ShowtimeService showtimeService = new ShowtimeService(showtimeRepository, movieRepository, mock(BookingRepository.class), showtimeValidator, new SeatOccupancyRegistry(mock(BookingRepository.class), true), new ShowtimeOverlapIndex(showtimeRepository, new SimpleMeterRegistry()), new MovieCache(100, Duration.ofMinutes(10)), new ServiceMetrics(new SimpleMeterRegistry()));
 
         Long showtimeId = 999L;
 
-        when(showtimeRepository.findById(showtimeId)).thenReturn(Optional.empty());
+        when(showtimeRepository.findDTOById(showtimeId)).thenReturn(Optional.empty());
 
         NotFoundException exception = assertThrows(NotFoundException.class, () -> {
             showtimeService.getShowtimeById(showtimeId);
@@ -278,17 +434,19 @@ public class ShowtimeServiceTest
         ShowtimeRepository showtimeRepository = mock(ShowtimeRepository.class);
         MovieRepository movieRepository = mock(MovieRepository.class);
         ShowtimeValidator showtimeValidator = new ShowtimeValidator();
-        ShowtimeService showtimeService = new ShowtimeService(showtimeRepository, movieRepository, showtimeValidator);
+        BookingRepository bookingRepository = mock(BookingRepository.class);
+        ShowtimeService showtimeService = new ShowtimeService(showtimeRepository, movieRepository, bookingRepository, showtimeValidator, new SeatOccupancyRegistry(mock(BookingRepository.class), true), new ShowtimeOverlapIndex(showtimeRepository, new SimpleMeterRegistry()), new MovieCache(100, Duration.ofMinutes(10)), new ServiceMetrics(new SimpleMeterRegistry()));
 
         Long showtimeId = 1L;
-        Showtime existingShowtime = new Showtime();
-        existingShowtime.setId(showtimeId);
 
-        when(showtimeRepository.findById(showtimeId)).thenReturn(Optional.of(existingShowtime));
+        when(showtimeRepository.existsById(showtimeId)).thenReturn(true);
 
         showtimeService.deleteById(showtimeId);
 
-        verify(showtimeRepository, times(1)).delete(existingShowtime);
+        var order = inOrder(bookingRepository, showtimeRepository);
+        order.verify(bookingRepository).bulkDeleteByShowtimeId(showtimeId);
+        order.verify(showtimeRepository).bulkDeleteById(showtimeId);
+        verify(showtimeRepository, never()).delete(any());
     }
     @DisplayName("Should throw exception if showtime not found for delete")
     @Test
@@ -297,17 +455,138 @@ public class ShowtimeServiceTest
         ShowtimeRepository showtimeRepository = mock(ShowtimeRepository.class);
         MovieRepository movieRepository = mock(MovieRepository.class);
         ShowtimeValidator showtimeValidator = new ShowtimeValidator();
-        ShowtimeService showtimeService = new ShowtimeService(showtimeRepository, movieRepository, showtimeValidator);
+        ShowtimeService showtimeService = new ShowtimeService(showtimeRepository, movieRepository, mock(BookingRepository.class), showtimeValidator, new SeatOccupancyRegistry(mock(BookingRepository.class), true), new ShowtimeOverlapIndex(showtimeRepository, new SimpleMeterRegistry()), new MovieCache(100, Duration.ofMinutes(10)), new ServiceMetrics(new SimpleMeterRegistry()));
 
         Long showtimeId = 999L;
 
-        when(showtimeRepository.findById(showtimeId)).thenReturn(Optional.empty());
+        when(showtimeRepository.existsById(showtimeId)).thenReturn(false);
 
         NotFoundException exception = assertThrows(NotFoundException.class, () -> {
             showtimeService.deleteById(showtimeId);
         });
 
         assertEquals("Showtime not found with id: 999", exception.getMessage());
+        verify(showtimeRepository, never()).bulkDeleteById(any());
+    }
+
+    @DisplayName("Should record overlap-check latency and the rejected save")
+    @Test
+    void shouldRecordOverlapCheckMetrics()
+    {
+        ShowtimeRepository showtimeRepository = mock(ShowtimeRepository.class);
+        MovieRepository movieRepository = mock(MovieRepository.class);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ShowtimeService showtimeService = new ShowtimeService(showtimeRepository, movieRepository, mock(BookingRepository.class), new ShowtimeValidator(), new SeatOccupancyRegistry(mock(BookingRepository.class), true), new ShowtimeOverlapIndex(showtimeRepository, meterRegistry), new MovieCache(100, Duration.ofMinutes(10)), new ServiceMetrics(meterRegistry));
+
+        Movie movie = new Movie();
+        movie.setId(1L);
+        LocalDateTime day = LocalDateTime.of(2025, 3, 25, 10, 0);
+        when(movieRepository.findById(1L)).thenReturn(Optional.of(movie));
+        when(showtimeRepository.findIdsOverlapping(eq("Hall 3"), any(), any(), any(), any(), any())).thenReturn(List.of(2L));
+
+        Showtime showtime = new Showtime();
+        showtime.setMovie(movie);
+        showtime.setTheater("Hall 3");
+        showtime.setStart_time(day.plusHours(4));
+        showtime.setEnd_time(day.plusHours(6));
+
+        assertThrows(IllegalArgumentException.class, () -> showtimeService.save(showtime));
+
+        assertEquals(1, meterRegistry.get("showtime.overlap.check").timer().count());
+        assertEquals(1, meterRegistry.get("showtime.operation").tags("operation", "save", "outcome", "rejected").timer().count());
+    }
+
+    @DisplayName("Should return the seat map as a bitmap from a single projection query")
+    @Test
+    void shouldReturnSeatAvailabilityBitmap()
+    {
+        ShowtimeRepository showtimeRepository = mock(ShowtimeRepository.class);
+        BookingRepository bookingRepository = mock(BookingRepository.class);
+        ShowtimeService showtimeService = new ShowtimeService(showtimeRepository, mock(MovieRepository.class), mock(BookingRepository.class), new ShowtimeValidator(), new SeatOccupancyRegistry(bookingRepository, true), new ShowtimeOverlapIndex(showtimeRepository, new SimpleMeterRegistry()), new MovieCache(100, Duration.ofMinutes(10)), new ServiceMetrics(new SimpleMeterRegistry()));
+
+        when(showtimeRepository.existsById(5L)).thenReturn(true);
+        when(bookingRepository.findSeatNumbersByShowtimeId(5L)).thenReturn(List.of(1, 9, 300));
+
+        SeatAvailability seats = showtimeService.getSeatAvailability(5L, true);
+        SeatAvailability again = showtimeService.getSeatAvailability(5L, false);
+
+        byte[] bitmap = Base64.getDecoder().decode(seats.bitmap());
+        assertEquals(38, bitmap.length);
+        assertEquals(0b1, bitmap[0]);
+        assertEquals(0b1, bitmap[1]);
+        assertEquals(0b1000, bitmap[37]);
+        assertEquals(3, seats.taken());
+        assertEquals(297, seats.available());
+        assertEquals(297, seats.availableSeats().size());
+        assertFalse(seats.availableSeats().contains(9));
+        assertNull(again.availableSeats());
+        assertEquals(seats.bitmap(), again.bitmap());
+        assertNotEquals(seats.etag(), again.etag());
+        verify(showtimeRepository, times(1)).existsById(5L);
+        verify(bookingRepository, times(1)).findSeatNumbersByShowtimeId(5L);
+        verify(showtimeRepository, never()).findById(any());
+    }
+
+    @DisplayName("Should throw exception when asking for the seats of a missing showtime")
+    @Test
+    void shouldThrowExceptionForSeatsOfMissingShowtime()
+    {
+        ShowtimeRepository showtimeRepository = mock(ShowtimeRepository.class);
+        BookingRepository bookingRepository = mock(BookingRepository.class);
+        ShowtimeService showtimeService = new ShowtimeService(showtimeRepository, mock(MovieRepository.class), mock(BookingRepository.class), new ShowtimeValidator(), new SeatOccupancyRegistry(bookingRepository, true), new ShowtimeOverlapIndex(showtimeRepository, new SimpleMeterRegistry()), new MovieCache(100, Duration.ofMinutes(10)), new ServiceMetrics(new SimpleMeterRegistry()));
+
+        when(showtimeRepository.existsById(6L)).thenReturn(false);
+
+        NotFoundException exception = assertThrows(NotFoundException.class, () -> {
+            showtimeService.getSeatAvailability(6L, false);
+        });
+
+        assertEquals("Showtime not found with id: 6", exception.getMessage());
+        verifyNoInteractions(bookingRepository);
+    }
+
+    // SEARCH
+    @DisplayName("Should return a search page with a cursor that resumes after its last showtime")
+    @Test
+    void shouldResumeSearchFromCursor()
+    {
+        ShowtimeRepository showtimeRepository = mock(ShowtimeRepository.class);
+        ShowtimeService showtimeService = new ShowtimeService(showtimeRepository, mock(MovieRepository.class), mock(BookingRepository.class), new ShowtimeValidator(), new SeatOccupancyRegistry(mock(BookingRepository.class), true), new ShowtimeOverlapIndex(showtimeRepository, new SimpleMeterRegistry()), new MovieCache(100, Duration.ofMinutes(10)), new ServiceMetrics(new SimpleMeterRegistry()));
+
+        LocalDateTime start = LocalDateTime.of(2025, 3, 25, 18, 0);
+        ShowtimeDTO first = new ShowtimeDTO(7L, 1L, "Main Hall", start, start.plusHours(2), 50.0);
+        ShowtimeDTO second = new ShowtimeDTO(8L, 1L, "Main Hall", start.plusHours(3), start.plusHours(5), 50.0);
+        ShowtimeDTO third = new ShowtimeDTO(9L, 1L, "Main Hall", start.plusHours(6), start.plusHours(8), 50.0);
+        ShowtimeFilter cleaned = new ShowtimeFilter(null, "Main Hall", null, null);
+        when(showtimeRepository.search(cleaned, null, null, 3)).thenReturn(List.of(first, second, third));
+        when(showtimeRepository.search(cleaned, start.plusHours(3), 8L, 3)).thenReturn(List.of(third));
+
+        CursorPage<ShowtimeDTO> page = showtimeService.search(new ShowtimeFilter(null, "  Main   Hall ", null, null), null, 2);
+        assertEquals(List.of(first, second), page.items());
+        assertNotNull(page.nextCursor());
+
+        CursorPage<ShowtimeDTO> last = showtimeService.search(new ShowtimeFilter(null, "Main Hall", null, null), page.nextCursor(), 2);
+        assertEquals(List.of(third), last.items());
+        assertNull(last.nextCursor());
+    }
+
+    @DisplayName("Should reject a search with a bad limit, an empty time range or a cursor it did not issue")
+    @Test
+    void shouldRejectInvalidSearch()
+    {
+        ShowtimeRepository showtimeRepository = mock(ShowtimeRepository.class);
+        ShowtimeService showtimeService = new ShowtimeService(showtimeRepository, mock(MovieRepository.class), mock(BookingRepository.class), new ShowtimeValidator(), new SeatOccupancyRegistry(mock(BookingRepository.class), true), new ShowtimeOverlapIndex(showtimeRepository, new SimpleMeterRegistry()), new MovieCache(100, Duration.ofMinutes(10)), new ServiceMetrics(new SimpleMeterRegistry()));
+        ShowtimeFilter noFilter = new ShowtimeFilter(null, null, null, null);
+        LocalDateTime day = LocalDateTime.of(2025, 3, 25, 0, 0);
+
+        assertEquals("Limit must be between 1 and 1000", assertThrows(IllegalArgumentException.class, () -> showtimeService.search(noFilter, null, 0)).getMessage());
+        assertEquals("Limit must be between 1 and 1000", assertThrows(IllegalArgumentException.class, () -> showtimeService.search(noFilter, null, 1001)).getMessage());
+        assertEquals("From must be before to", assertThrows(IllegalArgumentException.class,
+                () -> showtimeService.search(new ShowtimeFilter(null, null, day, day), null, 10)).getMessage());
+        assertEquals("Invalid cursor", assertThrows(IllegalArgumentException.class, () -> showtimeService.search(noFilter, "not a cursor", 10)).getMessage());
+        assertEquals("Invalid cursor", assertThrows(IllegalArgumentException.class,
+                () -> showtimeService.search(noFilter, Base64.getUrlEncoder().encodeToString("2025-03-25T18:00_x".getBytes()), 10)).getMessage());
+        verify(showtimeRepository, never()).search(any(), any(), any(), anyInt());
     }
 }
 